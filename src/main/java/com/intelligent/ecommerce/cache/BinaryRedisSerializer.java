@@ -0,0 +1,148 @@
+package com.intelligent.ecommerce.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * Compact cache value format: a one-byte header, a two-byte schema id naming the
+ * {@link ValueCodec}, then the codec's fields. Bodies larger than the compression threshold are
+ * LZ4-compressed, with the original length stored in front.
+ * <p>
+ * Values without a registered codec are written by the fallback serializer under schema id 0.
+ * Payloads starting with {@code '{'} or {@code '['} are plain JSON written before this format
+ * existed and also go to the fallback, so existing Redis entries stay readable during a rollout.
+ */
+public class BinaryRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte FORMAT = 0x01;
+    private static final byte COMPRESSED = 0x02;
+    private static final int FALLBACK_SCHEMA = 0;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    // Bytes come back from Redis, so decompress with the bounds-checked decoder
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.safeInstance().safeDecompressor();
+
+    private final List<ValueCodec<?>> codecs;
+    private final Map<Integer, ValueCodec<?>> codecsById = new HashMap<>();
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+
+    public BinaryRedisSerializer(List<ValueCodec<?>> codecs, RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.codecs = List.copyOf(codecs);
+        for (ValueCodec<?> codec : codecs) {
+            if (codec.schemaId() <= FALLBACK_SCHEMA || codec.schemaId() > 0xFFFF) {
+                throw new IllegalArgumentException("Schema id out of range: " + codec.schemaId());
+            }
+            if (codecsById.putIfAbsent(codec.schemaId(), codec) != null) {
+                throw new IllegalArgumentException("Duplicate schema id " + codec.schemaId());
+            }
+        }
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        ValueCodec<Object> codec = (ValueCodec<Object>) codecs.stream()
+                .filter(c -> c.supports(value))
+                .findFirst()
+                .orElse(null);
+
+        byte[] body;
+        if (codec == null) {
+            body = fallback.serialize(value);
+        } else {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                codec.write(value, out);
+            } catch (IOException ex) {
+                throw new SerializationException("Could not encode " + value.getClass().getName(), ex);
+            }
+            body = bytes.toByteArray();
+        }
+        return frame(codec == null ? FALLBACK_SCHEMA : codec.schemaId(), body);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == '{' || bytes[0] == '[') {
+            return fallback.deserialize(bytes);
+        }
+        if ((bytes[0] & FORMAT) == 0 || bytes.length < 3) {
+            throw new SerializationException("Unknown cache value format");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte header = buffer.get();
+        int schemaId = Short.toUnsignedInt(buffer.getShort());
+        byte[] body;
+        if ((header & COMPRESSED) != 0) {
+            int length = buffer.getInt();
+            body = new byte[length];
+            DECOMPRESSOR.decompress(bytes, buffer.position(), buffer.remaining(), body, 0);
+        } else {
+            body = Arrays.copyOfRange(bytes, buffer.position(), bytes.length);
+        }
+
+        if (schemaId == FALLBACK_SCHEMA) {
+            return fallback.deserialize(body);
+        }
+        ValueCodec<?> codec = codecsById.get(schemaId);
+        if (codec == null) {
+            throw new SerializationException("No codec registered for schema id " + schemaId);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            return codec.read(in);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not decode schema id " + schemaId, ex);
+        }
+    }
+
+    private byte[] frame(int schemaId, byte[] body) {
+        boolean compress = body.length > compressionThreshold;
+        byte[] payload = body;
+        int payloadLength = body.length;
+        if (compress) {
+            payload = new byte[COMPRESSOR.maxCompressedLength(body.length)];
+            payloadLength = COMPRESSOR.compress(body, 0, body.length, payload, 0);
+            // Not worth it for incompressible bodies
+            compress = payloadLength < body.length;
+            if (!compress) {
+                payload = body;
+                payloadLength = body.length;
+            }
+        }
+
+        ByteBuffer framed = ByteBuffer.allocate(3 + (compress ? 4 : 0) + payloadLength);
+        framed.put(compress ? (byte) (FORMAT | COMPRESSED) : FORMAT);
+        framed.putShort((short) schemaId);
+        if (compress) {
+            framed.putInt(body.length);
+        }
+        framed.put(payload, 0, payloadLength);
+        return framed.array();
+    }
+}
@@ -0,0 +1,8 @@
+package com.intelligent.ecommerce.cache;
+
+/**
+ * Pub/sub message telling other nodes to drop a near-cache entry. A {@code null} key clears the
+ * whole cache.
+ */
+public record CacheInvalidation(String origin, String cacheName, String key) {
+}
@@ -0,0 +1,12 @@
+package com.intelligent.ecommerce.cache;
+
+/**
+ * Load coalescing counters for one tiered cache.
+ *
+ * @param loads      loads this node ran against the database
+ * @param localWaits callers that joined a load already running on this node
+ * @param leaseWaits loads skipped because another node held the lease and published the value
+ * @param refreshes  background reloads from the source made by refresh-ahead
+ */
+public record CacheLoadStats(long loads, long localWaits, long leaseWaits, long refreshes) {
+}
@@ -0,0 +1,130 @@
+package com.intelligent.ecommerce.cache;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * {@code /actuator/cachestats}: one summary per tiered cache, for tuning TTLs and sizes.
+ * <p>
+ * The same numbers are published as meters (see {@link TieredCacheMetrics}) for whatever metrics
+ * backend is configured; this endpoint reads the p50/p99 values the meters compute locally, which
+ * {@code /actuator/metrics} does not show.
+ */
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+
+    private final TieredCacheManager cacheManager;
+
+    public CacheStatsEndpoint(TieredCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @ReadOperation
+    public ManagerReport caches() {
+        Map<String, CacheReport> caches = new TreeMap<>();
+        cacheManager.caches().forEach((name, cache) -> caches.put(name, report(cache)));
+        return new ManagerReport(TieredCacheMetrics.MANAGER_NAME, cacheManager.isRedisDown(), caches);
+    }
+
+    @ReadOperation
+    public CacheReport cache(@Selector String name) {
+        TieredCache cache = cacheManager.caches().get(name);
+        return cache != null ? report(cache) : null;
+    }
+
+    private static CacheReport report(TieredCache cache) {
+        TieredCacheMetrics metrics = cache.metrics();
+        CacheStats local = metrics.localStats();
+        Map<String, Distribution> redis = new TreeMap<>();
+        metrics.redisTimers().forEach((operation, timer) -> {
+            if (timer.count() > 0) {
+                redis.put(operation, latency(timer));
+            }
+        });
+        return new CacheReport(
+                local.requestCount(),
+                metrics.hitRatio(),
+                local.hitRate(),
+                metrics.localSize(),
+                local.evictionCount(),
+                (long) metrics.invalidationCount(),
+                latency(metrics.loadTimer()),
+                redis,
+                size(metrics.entrySize()),
+                cache.loadStats());
+    }
+
+    private static Distribution latency(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        return new Distribution(snapshot.count(),
+                snapshot.mean(TimeUnit.MILLISECONDS),
+                percentile(snapshot, 0.5, true),
+                percentile(snapshot, 0.99, true),
+                snapshot.max(TimeUnit.MILLISECONDS));
+    }
+
+    private static Distribution size(DistributionSummary summary) {
+        HistogramSnapshot snapshot = summary.takeSnapshot();
+        return new Distribution(snapshot.count(),
+                snapshot.mean(),
+                percentile(snapshot, 0.5, false),
+                percentile(snapshot, 0.99, false),
+                snapshot.max());
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile, boolean millis) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return millis ? value.value(TimeUnit.MILLISECONDS) : value.value();
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * @param name      the manager's {@code cacheManager} tag
+     * @param redisDown whether the Redis circuit breaker is open and caches run local-only
+     */
+    public record ManagerReport(String name, boolean redisDown, Map<String, CacheReport> caches) {
+    }
+
+    /**
+     * @param requests      reads seen by the local tier
+     * @param hitRatio      share of reads answered by either tier without a load
+     * @param localHitRatio share of reads answered by the local tier
+     * @param localSize     entries in the local tier
+     * @param evictions     local entries dropped for size or expiry
+     * @param invalidations entries removed on purpose, by this node or a peer
+     * @param load          value loader latency in milliseconds
+     * @param redis         Redis latency in milliseconds by operation
+     * @param entrySize     serialized size of values written to Redis, in bytes
+     * @param coalescing    loads run and loads avoided by coalescing
+     */
+    public record CacheReport(long requests,
+                              double hitRatio,
+                              double localHitRatio,
+                              long localSize,
+                              long evictions,
+                              long invalidations,
+                              Distribution load,
+                              Map<String, Distribution> redis,
+                              Distribution entrySize,
+                              CacheLoadStats coalescing) {
+    }
+
+    /** Recent distribution of a latency or size; percentiles cover the last couple of minutes. */
+    public record Distribution(long count, double mean, double p50, double p99, double max) {
+    }
+}
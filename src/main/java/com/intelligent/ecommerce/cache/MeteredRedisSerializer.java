@@ -0,0 +1,34 @@
+package com.intelligent.ecommerce.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+
+/**
+ * Records the size of every value written to Redis for one cache into {@code cache.entry.size}.
+ */
+public class MeteredRedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> delegate;
+    private final DistributionSummary entrySize;
+
+    public MeteredRedisSerializer(RedisSerializer<Object> delegate, DistributionSummary entrySize) {
+        this.delegate = delegate;
+        this.entrySize = entrySize;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes != null) {
+            entrySize.record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        return delegate.deserialize(bytes);
+    }
+}
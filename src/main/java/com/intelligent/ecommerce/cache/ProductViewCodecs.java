@@ -0,0 +1,128 @@
+package com.intelligent.ecommerce.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.intelligent.ecommerce.dto.product.ProductView;
+
+/**
+ * Codecs for the product cache values: a single {@link ProductView} and a list of them (search
+ * results). A leading bitmask records which fields are present so nulls cost nothing.
+ */
+public final class ProductViewCodecs {
+
+    public static final ValueCodec<ProductView> PRODUCT_VIEW = new ValueCodec<>() {
+        @Override
+        public int schemaId() {
+            return 1;
+        }
+
+        @Override
+        public boolean supports(Object value) {
+            return value instanceof ProductView;
+        }
+
+        @Override
+        public void write(ProductView value, DataOutput out) throws IOException {
+            writeView(value, out);
+        }
+
+        @Override
+        public ProductView read(DataInput in) throws IOException {
+            return readView(in);
+        }
+    };
+
+    public static final ValueCodec<List<ProductView>> PRODUCT_VIEW_LIST = new ValueCodec<>() {
+        @Override
+        public int schemaId() {
+            return 2;
+        }
+
+        @Override
+        public boolean supports(Object value) {
+            return value instanceof List<?> list && list.stream().allMatch(ProductView.class::isInstance);
+        }
+
+        @Override
+        public void write(List<ProductView> value, DataOutput out) throws IOException {
+            out.writeInt(value.size());
+            for (ProductView view : value) {
+                writeView(view, out);
+            }
+        }
+
+        @Override
+        public List<ProductView> read(DataInput in) throws IOException {
+            int size = in.readInt();
+            List<ProductView> views = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                views.add(readView(in));
+            }
+            return views;
+        }
+    };
+
+    private static final int ID = 1;
+    private static final int NAME = 1 << 1;
+    private static final int STOCK = 1 << 2;
+    private static final int PRICE = 1 << 3;
+
+    private ProductViewCodecs() {
+    }
+
+    private static void writeView(ProductView view, DataOutput out) throws IOException {
+        int present = (view.getId() != null ? ID : 0)
+                | (view.getName() != null ? NAME : 0)
+                | (view.getStockQuantity() != null ? STOCK : 0)
+                | (view.getPrice() != null ? PRICE : 0);
+        out.writeByte(present);
+        if (view.getId() != null) {
+            out.writeLong(view.getId());
+        }
+        if (view.getName() != null) {
+            // Length-prefixed UTF-8: writeUTF caps a string at 65,535 encoded bytes
+            byte[] name = view.getName().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(name.length);
+            out.write(name);
+        }
+        if (view.getStockQuantity() != null) {
+            out.writeInt(view.getStockQuantity());
+        }
+        if (view.getPrice() != null) {
+            byte[] unscaled = view.getPrice().unscaledValue().toByteArray();
+            out.writeByte(view.getPrice().scale());
+            out.writeByte(unscaled.length);
+            out.write(unscaled);
+        }
+    }
+
+    private static ProductView readView(DataInput in) throws IOException {
+        int present = in.readUnsignedByte();
+        ProductView view = new ProductView();
+        if ((present & ID) != 0) {
+            view.setId(in.readLong());
+        }
+        if ((present & NAME) != 0) {
+            byte[] name = new byte[in.readInt()];
+            in.readFully(name);
+            view.setName(new String(name, StandardCharsets.UTF_8));
+        }
+        if ((present & STOCK) != 0) {
+            view.setStockQuantity(in.readInt());
+        }
+        if ((present & PRICE) != 0) {
+            int scale = in.readByte();
+            byte[] unscaled = new byte[in.readUnsignedByte()];
+            in.readFully(unscaled);
+            view.setPrice(new BigDecimal(new BigInteger(unscaled), scale));
+        }
+        return view;
+    }
+}
@@ -0,0 +1,128 @@
+package com.intelligent.ecommerce.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DataAccessException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stops cache traffic from waiting on a Redis that is down or too slow.
+ * <p>
+ * After {@code failureThreshold} consecutive {@link DataAccessException}s the breaker opens and
+ * every guarded call returns its fallback immediately. While open, a background probe (a
+ * {@code PING}) runs every {@code probeInterval}. Once a probe succeeds the recovery hooks run,
+ * still with the breaker open so no request reads from Redis before the missed evictions are
+ * replayed, and only then does the breaker close. A hook that fails keeps the breaker open until
+ * the next probe. The hooks run once more after closing, for anything missed in between.
+ * Requests never wait for the probe.
+ */
+@Slf4j
+public class RedisCircuitBreaker {
+
+    private final int failureThreshold;
+    private final Duration probeInterval;
+    private final Runnable probe;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean open = new AtomicBoolean();
+    private final List<Runnable> onClose = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-breaker-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisCircuitBreaker(int failureThreshold, Duration probeInterval, Runnable probe) {
+        this.failureThreshold = failureThreshold;
+        this.probeInterval = probeInterval;
+        this.probe = probe;
+    }
+
+    public boolean isOpen() {
+        return open.get();
+    }
+
+    /**
+     * Registers work to run each time Redis comes back, such as replaying missed evictions. Hooks
+     * run while the breaker is still open, so they must call Redis directly, and throw if it fails.
+     */
+    public void onClose(Runnable hook) {
+        onClose.add(hook);
+    }
+
+    /** Runs {@code action} against Redis, or returns {@code fallback} if the breaker is open or the call fails. */
+    public <T> T call(Supplier<T> action, Supplier<T> fallback) {
+        if (open.get()) {
+            return fallback.get();
+        }
+        try {
+            T result = action.get();
+            consecutiveFailures.set(0);
+            return result;
+        } catch (DataAccessException ex) {
+            recordFailure(ex);
+            return fallback.get();
+        }
+    }
+
+    /** Runs {@code action} against Redis; returns whether it ran successfully. */
+    public boolean run(Runnable action) {
+        return call(() -> {
+            action.run();
+            return true;
+        }, () -> false);
+    }
+
+    private void recordFailure(DataAccessException ex) {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && open.compareAndSet(false, true)) {
+            log.warn("Redis unavailable after {} consecutive failures, serving caches locally", failureThreshold, ex);
+            // Each outage gets its own probe, and only that probe may cancel itself
+            AtomicReference<ScheduledFuture<?>> self = new AtomicReference<>();
+            self.set(prober.scheduleWithFixedDelay(() -> probe(self.get()),
+                    probeInterval.toMillis(), probeInterval.toMillis(), TimeUnit.MILLISECONDS));
+        } else {
+            log.debug("Redis call failed", ex);
+        }
+    }
+
+    private void probe(ScheduledFuture<?> self) {
+        try {
+            probe.run();
+        } catch (RuntimeException ex) {
+            return;
+        }
+        if (!runHooks()) {
+            return;
+        }
+        consecutiveFailures.set(0);
+        if (self != null) {
+            self.cancel(false);
+        }
+        open.set(false);
+        log.info("Redis reachable again, resuming shared caching");
+        // Evictions remembered while the hooks were running
+        runHooks();
+    }
+
+    private boolean runHooks() {
+        for (Runnable hook : onClose) {
+            try {
+                hook.run();
+            } catch (RuntimeException ex) {
+                log.warn("Redis recovery hook failed, staying on the local tier", ex);
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,544 @@
+package com.intelligent.ecommerce.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import com.intelligent.ecommerce.cache.TieredCacheManager.SharedVersion;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A Caffeine near-cache in front of a shared (Redis) cache.
+ * <p>
+ * Reads try the local tier first and fill it from the shared tier on a miss. Writes and evictions
+ * go to the shared tier first and then to the local tier, and are announced to the other nodes
+ * so they drop their local copy. Local keys use the same string form Redis uses, so an
+ * invalidation names the same entry on every node.
+ * <p>
+ * Loads through {@link #get(Object, Callable)} (what {@code @Cacheable(sync = true)} uses) are
+ * single-flight: concurrent misses for a key on one node share one load, and across nodes the
+ * node holding the Redis lease for the key loads while the others wait for its result to appear
+ * in the shared tier. A node that waits past the lease wait time loads the value itself.
+ * <p>
+ * Every shared-tier call goes through the manager's {@link RedisCircuitBreaker}. While Redis is
+ * down the cache keeps working from the local tier alone: reads miss straight through to the
+ * loader and fill the local tier. Writes and evictions that could not reach Redis are remembered
+ * and replayed once it is back, so Redis never serves a value that was superseded during the outage.
+ * <p>
+ * Local fills are guarded the same way on this node: every local invalidation, including those
+ * announced by other nodes, advances a counter for the key's stripe first, and a value read from
+ * Redis or the source is only kept locally if the counter did not move while it was being read.
+ * <p>
+ * Loaded values are written back only if the entry did not change while they were being loaded
+ * (see the entry versions in {@link TieredCacheManager}); otherwise the caller still gets the
+ * value, but neither tier keeps it.
+ */
+@Slf4j
+public class TieredCache implements Cache {
+
+    private static final int MAX_PENDING_EVICTIONS = 10_000;
+    private static final int INVALIDATION_STRIPES = 1024;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache shared;
+    private final TieredCacheManager manager;
+    private final ConcurrentMap<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder localWaits = new LongAdder();
+    private final LongAdder leaseWaits = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final RedisCircuitBreaker breaker;
+    private final TieredCacheMetrics metrics;
+    private final ConcurrentMap<String, Object> pendingEvictions = new ConcurrentHashMap<>();
+    private volatile boolean pendingClear;
+    // Local invalidations so far, per stripe of keys and for whole-cache clears
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+    private final AtomicLong clears = new AtomicLong();
+
+    TieredCache(String name,
+                com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                Cache shared,
+                TieredCacheManager manager,
+                TieredCacheMetrics metrics) {
+        this.name = name;
+        this.local = local;
+        this.shared = shared;
+        this.manager = manager;
+        this.breaker = manager.breaker();
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        long stamp = invalidationStamp(localKey);
+        ValueWrapper wrapper = sharedLookup(key);
+        if (wrapper != null && wrapper.get() != null) {
+            fillLocal(localKey, wrapper.get(), stamp);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            refreshIfDue(key, localKey, valueLoader);
+            return (T) value;
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(localKey, mine);
+        if (running != null) {
+            localWaits.increment();
+            return (T) join(running);
+        }
+
+        try {
+            Object loaded = loadOnce(key, localKey, valueLoader);
+            mine.complete(loaded);
+            return (T) loaded;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loading.remove(localKey, mine);
+        }
+    }
+
+    private Object loadOnce(Object key, String localKey, Callable<?> valueLoader) {
+        Object value = sharedValue(key, localKey);
+        if (value != null) {
+            return value;
+        }
+
+        boolean leased = manager.acquireLease(name, localKey);
+        try {
+            if (!leased) {
+                // Another node is loading this key, give it the chance to publish the result
+                value = manager.awaitLeaseHolder(() -> sharedValue(key, localKey));
+                if (value != null) {
+                    leaseWaits.increment();
+                    return value;
+                }
+            }
+
+            long stamp = invalidationStamp(localKey);
+            SharedVersion version = sharedVersion(localKey);
+            loads.increment();
+            try {
+                value = metrics.load(valueLoader);
+            } catch (Exception ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+            // A load is not a change, so other nodes are not told to drop anything
+            if (value != null) {
+                storeLoaded(key, localKey, value, version, stamp);
+            }
+            return value;
+        } finally {
+            if (leased) {
+                manager.releaseLease(name, localKey);
+            }
+        }
+    }
+
+    /**
+     * Resolves many keys at once: one pass over the local tier, one shared-tier round trip for
+     * the rest, then a single {@code loader} call for whatever is still missing. Loaded values are
+     * written back to the shared tier in one pipeline, each only if its entry did not change
+     * during the load. Keys the loader does not return are left out of the result.
+     * <p>
+     * Bulk loads take no leases and do not join single-key loads in flight; a key loaded twice
+     * just overwrites the same value.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<String, K> byLocalKey = new LinkedHashMap<>();
+        for (K key : keys) {
+            byLocalKey.putIfAbsent(localKey(key), key);
+        }
+        Map<String, Object> found = new HashMap<>(local.getAllPresent(byLocalKey.keySet()));
+
+        List<K> notLocal = new ArrayList<>();
+        byLocalKey.forEach((localKey, key) -> {
+            if (!found.containsKey(localKey)) {
+                notLocal.add(key);
+            }
+        });
+        Map<String, Long> stamps = new HashMap<>();
+        if (!notLocal.isEmpty()) {
+            notLocal.forEach(key -> stamps.put(localKey(key), invalidationStamp(localKey(key))));
+            Map<String, Object> fromShared = manager.sharedGetAll(name, shared, notLocal);
+            for (K key : notLocal) {
+                metrics.sharedLookup(fromShared.containsKey(localKey(key)));
+            }
+            fromShared.forEach((localKey, value) -> fillLocal(localKey, value, stamps.get(localKey)));
+            found.putAll(fromShared);
+        }
+
+        Set<K> missing = new LinkedHashSet<>();
+        byLocalKey.forEach((localKey, key) -> {
+            if (!found.containsKey(localKey)) {
+                missing.add(key);
+            }
+        });
+        if (!missing.isEmpty()) {
+            Map<String, SharedVersion> versions = manager.sharedVersions(name, shared,
+                    missing.stream().map(TieredCache::localKey).toList());
+            loads.increment();
+            Map<K, V> loaded = metrics.loadAll(() -> loader.apply(missing));
+            Map<K, V> toStore = new HashMap<>();
+            loaded.forEach((key, value) -> {
+                if (value != null) {
+                    toStore.put(key, value);
+                }
+            });
+            if (!toStore.isEmpty()) {
+                Set<String> refused = manager.sharedPutAllIfUnchanged(name, shared, toStore, versions);
+                toStore.forEach((key, value) -> {
+                    String localKey = localKey(key);
+                    found.put(localKey, value);
+                    // Keys the loader added on its own have no stamp and stay out of the local tier
+                    Long stamp = stamps.get(localKey);
+                    if (!refused.contains(localKey) && stamp != null) {
+                        fillLocal(localKey, value, stamp);
+                    }
+                });
+            }
+        }
+
+        Map<K, V> result = new LinkedHashMap<>();
+        byLocalKey.forEach((localKey, key) -> {
+            Object value = found.get(localKey);
+            if (value != null) {
+                result.put(key, (V) value);
+            }
+        });
+        return result;
+    }
+
+    private void refreshIfDue(Object key, String localKey, Callable<?> valueLoader) {
+        long age = local.policy().expireAfterWrite()
+                .map(expiration -> expiration.ageOf(localKey, TimeUnit.NANOSECONDS).orElse(0L))
+                .orElse(0L);
+        if (!manager.dueForRefresh(age) || !refreshing.add(localKey)) {
+            return;
+        }
+        boolean submitted = manager.submitRefresh(() -> {
+            try {
+                refresh(key, localKey, valueLoader);
+            } catch (RuntimeException ex) {
+                // The current value keeps being served until it expires
+                log.warn("Refresh-ahead failed for {}::{}", name, localKey, ex);
+            } finally {
+                refreshing.remove(localKey);
+            }
+        });
+        if (!submitted) {
+            refreshing.remove(localKey);
+        }
+    }
+
+    private void refresh(Object key, String localKey, Callable<?> valueLoader) {
+        long stamp = invalidationStamp(localKey);
+        ValueWrapper wrapper = sharedLookup(key);
+        Object current = wrapper != null ? wrapper.get() : null;
+        if (current != null && !manager.sharedDueForRefresh(name, shared, key, current, localKey)) {
+            fillLocal(localKey, current, stamp);
+            return;
+        }
+        // Only one node reloads from the source; the others pick the result up on their next refresh
+        if (!manager.acquireLease(name, localKey)) {
+            return;
+        }
+        try {
+            SharedVersion version = sharedVersion(localKey);
+            Object value = metrics.load(valueLoader);
+            if (value != null) {
+                storeLoaded(key, localKey, value, version, stamp);
+                refreshes.increment();
+            }
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            manager.releaseLease(name, localKey);
+        }
+    }
+
+    private SharedVersion sharedVersion(String localKey) {
+        return manager.sharedVersions(name, shared, List.of(localKey)).get(localKey);
+    }
+
+    // Keeps a loaded value in both tiers, unless a change to the entry landed while it was loading
+    private void storeLoaded(Object key, String localKey, Object value, SharedVersion version, long stamp) {
+        Map<String, SharedVersion> versions = version != null ? Map.of(localKey, version) : Map.of();
+        if (manager.sharedPutAllIfUnchanged(name, shared, Map.of(key, value), versions).isEmpty()) {
+            fillLocal(localKey, value, stamp);
+        }
+    }
+
+    private long invalidationStamp(String localKey) {
+        return clears.get() + invalidations.get(stripe(localKey));
+    }
+
+    /**
+     * Puts a value read from Redis or the source into the local tier, unless the key was
+     * invalidated since {@code stamp} was taken. Invalidations advance the counter before they
+     * drop the entry, so one racing the put either removes it or is seen by the second check.
+     */
+    private void fillLocal(String localKey, Object value, long stamp) {
+        if (invalidationStamp(localKey) != stamp) {
+            return;
+        }
+        local.put(localKey, value);
+        if (invalidationStamp(localKey) != stamp) {
+            local.invalidate(localKey);
+        }
+    }
+
+    // Must run before the local tier is changed, so that fills already in progress give way
+    private void advanceInvalidations(String localKey) {
+        if (localKey == null) {
+            clears.incrementAndGet();
+        } else {
+            invalidations.incrementAndGet(stripe(localKey));
+        }
+    }
+
+    private static int stripe(String localKey) {
+        int hash = localKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (INVALIDATION_STRIPES - 1);
+    }
+
+    private ValueWrapper sharedLookup(Object key) {
+        ValueWrapper wrapper = breaker.call(() -> metrics.redisCall(TieredCacheMetrics.GET, () -> shared.get(key)), () -> null);
+        metrics.sharedLookup(wrapper != null && wrapper.get() != null);
+        return wrapper;
+    }
+
+    private Object sharedValue(Object key, String localKey) {
+        long stamp = invalidationStamp(localKey);
+        ValueWrapper wrapper = sharedLookup(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null) {
+            fillLocal(localKey, value, stamp);
+        }
+        return value;
+    }
+
+    private static Object join(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /** Counts of loads run by this node and of callers that were served by someone else's load. */
+    public CacheLoadStats loadStats() {
+        return new CacheLoadStats(loads.sum(), localWaits.sum(), leaseWaits.sum(), refreshes.sum());
+    }
+
+    TieredCacheMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        if (!breaker.run(() -> {
+            manager.bumpVersion(name, shared, localKey);
+            metrics.redisRun(TieredCacheMetrics.PUT, () -> shared.put(key, value));
+        })) {
+            remember(key, localKey);
+        }
+        advanceInvalidations(localKey);
+        if (value != null) {
+            local.put(localKey, value);
+        } else {
+            local.invalidate(localKey);
+        }
+        manager.publish(name, localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String localKey = localKey(key);
+        AtomicReference<ValueWrapper> result = new AtomicReference<>();
+        if (!breaker.run(() -> {
+            manager.bumpVersion(name, shared, localKey);
+            result.set(metrics.redisCall(TieredCacheMetrics.PUT, () -> shared.putIfAbsent(key, value)));
+        })) {
+            // Cannot tell whether Redis has it, so act as a put and repair Redis later
+            remember(key, localKey);
+        }
+        ValueWrapper existing = result.get();
+        if (existing == null) {
+            advanceInvalidations(localKey);
+            if (value != null) {
+                local.put(localKey, value);
+            }
+            manager.publish(name, localKey);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = localKey(key);
+        Boolean evicted = breaker.call(() -> {
+            manager.bumpVersion(name, shared, localKey);
+            return metrics.redisCall(TieredCacheMetrics.EVICT, () -> shared.evictIfPresent(key));
+        }, () -> null);
+        if (evicted == null) {
+            remember(key, localKey);
+        }
+        metrics.invalidated(false);
+        // Drop local copies even when the shared tier is unreachable
+        advanceInvalidations(localKey);
+        local.invalidate(localKey);
+        manager.publish(name, localKey);
+        return evicted == null || evicted;
+    }
+
+    /**
+     * Evicts several keys at once: one pipelined round trip to Redis for the whole batch and one for
+     * the invalidations, instead of three per key. Local copies are dropped even when the shared
+     * tier is unreachable, and what could not reach it is replayed once Redis is back.
+     */
+    public void evictAll(Collection<?> keys) {
+        Map<String, Object> keysByLocalKey = new LinkedHashMap<>();
+        keys.forEach(key -> keysByLocalKey.put(localKey(key), key));
+        if (keysByLocalKey.isEmpty()) {
+            return;
+        }
+        if (!breaker.run(() -> manager.sharedEvictAll(name, shared, keysByLocalKey))) {
+            keysByLocalKey.forEach((localKey, key) -> remember(key, localKey));
+        }
+        keysByLocalKey.keySet().forEach(localKey -> {
+            metrics.invalidated(false);
+            advanceInvalidations(localKey);
+            local.invalidate(localKey);
+        });
+        manager.publishAll(name, keysByLocalKey.keySet());
+    }
+
+    @Override
+    public void clear() {
+        invalidate();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = breaker.call(() -> {
+            manager.bumpVersion(name, shared, null);
+            return metrics.redisCall(TieredCacheMetrics.CLEAR, shared::invalidate);
+        }, () -> {
+            pendingClear = true;
+            return true;
+        });
+        advanceInvalidations(null);
+        local.invalidateAll();
+        manager.publish(name, null);
+        return invalidated;
+    }
+
+    private void remember(Object key, String localKey) {
+        if (pendingEvictions.size() < MAX_PENDING_EVICTIONS) {
+            pendingEvictions.put(localKey, key);
+        } else {
+            log.warn("Too many evictions missed during the Redis outage, {}::{} expires on its TTL", name, localKey);
+        }
+    }
+
+    /**
+     * Applies the writes and evictions that could not reach Redis during an outage. Runs before the
+     * breaker closes, so it calls Redis directly; what fails stays pending for the next attempt.
+     */
+    void replayPending() {
+        if (pendingClear) {
+            manager.bumpVersion(name, shared, null);
+            metrics.redisRun(TieredCacheMetrics.CLEAR, shared::clear);
+            pendingClear = false;
+            pendingEvictions.clear();
+        }
+        pendingEvictions.forEach((localKey, key) -> {
+            manager.bumpVersion(name, shared, localKey);
+            metrics.redisRun(TieredCacheMetrics.EVICT, () -> shared.evict(key));
+            pendingEvictions.remove(localKey, key);
+        });
+    }
+
+    /** Drops local entries only; called for invalidations that came from another node. */
+    void evictLocal(String localKey) {
+        metrics.invalidated(true);
+        advanceInvalidations(localKey);
+        if (localKey == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(localKey);
+        }
+    }
+
+    static String localKey(Object key) {
+        return key instanceof String s ? s : String.valueOf(key);
+    }
+}
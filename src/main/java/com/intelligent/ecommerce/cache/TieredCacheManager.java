@@ -0,0 +1,480 @@
+package com.intelligent.ecommerce.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.util.ByteUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds {@link TieredCache}s over the caches of a shared {@link CacheManager} and keeps the
+ * local tiers coherent across nodes through Redis pub/sub.
+ * <p>
+ * Every change made through a tiered cache is published on the invalidation channel; each node
+ * listens on that channel and drops the named local entry. Pub/sub is fire-and-forget, so the
+ * local TTL bounds how long a node can serve a value whose invalidation it missed.
+ * <p>
+ * The manager also hands out per-key load leases ({@code SET NX PX} in Redis) so that a cold key
+ * is loaded by one node at a time. All Redis traffic goes through a {@link RedisCircuitBreaker};
+ * while it is open every node simply loads and caches locally.
+ * <p>
+ * Refresh-ahead: a read that finds a local entry past {@code refreshAheadThreshold} of the local
+ * TTL schedules a reload on the bounded refresh executor and keeps serving the current value.
+ * The reload copies the shared entry down if it still has enough TTL left, and otherwise
+ * reloads from the source under the key's lease and rewrites both tiers.
+ * <p>
+ * Every change to a shared entry first bumps a version for it in Redis (one per entry and one for
+ * the whole cache, for clears). A load reads the versions before it calls the source and writes
+ * its value back only if they are unchanged, so an eviction that lands while the load runs is
+ * never undone by the value loaded before it.
+ * <p>
+ * Each cache reports to the {@link MeterRegistry} through {@link TieredCacheMetrics}; the manager
+ * adds {@code cache.redis.breaker.open}.
+ */
+@Slf4j
+public class TieredCacheManager implements CacheManager, MessageListener {
+
+    private static final String LEASE_PREFIX = "cache:lease:";
+    private static final long LEASE_POLL_INTERVAL_MS = 20;
+    // Only the holder may release a lease, so an expired lease is never released by its old owner
+    private static final RedisScript<Long> RELEASE_LEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final String VERSION_PREFIX = "cache:version:";
+    static final RedisScript<Long> BUMP_VERSION = new DefaultRedisScript<>(
+            "local version = redis.call('incr', KEYS[1]) redis.call('pexpire', KEYS[1], ARGV[1]) return version",
+            Long.class);
+    // KEYS: entry, entry version, cache version; ARGV: both versions as read before the load, value, TTL (0 = none)
+    static final String PUT_IF_UNCHANGED = """
+            if (redis.call('get', KEYS[2]) or '') ~= ARGV[1] or (redis.call('get', KEYS[3]) or '') ~= ARGV[2] then
+                return 0
+            end
+            if ARGV[4] == '0' then
+                redis.call('set', KEYS[1], ARGV[3])
+            else
+                redis.call('set', KEYS[1], ARGV[3], 'PX', ARGV[4])
+            end
+            return 1
+            """;
+
+    private final CacheManager sharedCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final TieredCacheSettings settings;
+    private final Executor refreshExecutor;
+    private final RedisCircuitBreaker breaker;
+    private final MeterRegistry meterRegistry;
+    private final String origin = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TieredCache> caches = new ConcurrentHashMap<>();
+
+    public TieredCacheManager(CacheManager sharedCacheManager,
+                              StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper,
+                              String channel,
+                              TieredCacheSettings settings,
+                              Executor refreshExecutor,
+                              RedisCircuitBreaker breaker,
+                              MeterRegistry meterRegistry) {
+        this.sharedCacheManager = sharedCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.settings = settings;
+        this.refreshExecutor = refreshExecutor;
+        this.breaker = breaker;
+        this.meterRegistry = meterRegistry;
+        breaker.onClose(() -> caches.values().forEach(TieredCache::replayPending));
+        Gauge.builder("cache.redis.breaker.open", breaker, b -> b.isOpen() ? 1 : 0)
+                .description("1 while Redis is considered down and caches run local-only")
+                .tag("cacheManager", TieredCacheMetrics.MANAGER_NAME)
+                .register(meterRegistry);
+    }
+
+    RedisCircuitBreaker breaker() {
+        return breaker;
+    }
+
+    /** Whether caches are currently running local-only because Redis is down. */
+    public boolean isRedisDown() {
+        return breaker.isOpen();
+    }
+
+    /** The caches created so far, by name. */
+    public Map<String, TieredCache> caches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private TieredCache createCache(String name) {
+        Cache shared = sharedCacheManager.getCache(name);
+        if (shared == null) {
+            throw new IllegalArgumentException("No shared cache named " + name);
+        }
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .expireAfterWrite(settings.localTtl())
+                .maximumSize(settings.localMaxSize())
+                .recordStats()
+                .build();
+        TieredCacheMetrics metrics = new TieredCacheMetrics(meterRegistry, name);
+        TieredCache cache = new TieredCache(name, local, shared, this, metrics);
+        metrics.bind(cache, local);
+        return cache;
+    }
+
+    // Without Redis there is nobody to coordinate with, so every node holds its own lease
+    boolean acquireLease(String cacheName, String key) {
+        return breaker.call(() -> metrics(cacheName).redisCall(TieredCacheMetrics.LEASE, () -> Boolean.TRUE.equals(
+                redisTemplate.opsForValue().setIfAbsent(LEASE_PREFIX + cacheName + "::" + key, origin, settings.leaseTtl()))),
+                () -> true);
+    }
+
+    void releaseLease(String cacheName, String key) {
+        breaker.run(() -> metrics(cacheName).redisRun(TieredCacheMetrics.RELEASE,
+                () -> redisTemplate.execute(RELEASE_LEASE, List.of(LEASE_PREFIX + cacheName + "::" + key), origin)));
+    }
+
+    /** Polls until {@code lookup} finds a value or the lease wait runs out; returns {@code null} on timeout. */
+    Object awaitLeaseHolder(Supplier<Object> lookup) {
+        long deadline = System.nanoTime() + settings.leaseWait().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(LEASE_POLL_INTERVAL_MS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Object value = lookup.get();
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /** Whether a local entry of this age is due for a background refresh. */
+    boolean dueForRefresh(long localAgeNanos) {
+        return settings.refreshAhead()
+                && localAgeNanos > settings.localTtl().toNanos() * settings.refreshAheadThreshold();
+    }
+
+    /**
+     * Whether the shared copy of a key is gone or close enough to expiry that it should be
+     * reloaded rather than copied into the local tier again.
+     */
+    boolean sharedDueForRefresh(String cacheName, Cache shared, Object key, Object value, String localKey) {
+        if (!(shared instanceof RedisCache redisCache)) {
+            return false;
+        }
+        Duration ttl = redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return false;
+        }
+        String redisKey = redisCache.getCacheConfiguration().getKeyPrefixFor(cacheName) + localKey;
+        Long remaining = breaker.call(() -> metrics(cacheName).redisCall(TieredCacheMetrics.TTL,
+                () -> redisTemplate.getExpire(redisKey, TimeUnit.MILLISECONDS)), () -> null);
+        return remaining != null && remaining >= 0
+                && remaining < ttl.toMillis() * (1 - settings.refreshAheadThreshold());
+    }
+
+    /**
+     * Reads many keys from the shared tier in one round trip ({@code MGET} when it is Redis) and
+     * returns the values found by local key. Other shared caches are read key by key.
+     */
+    Map<String, Object> sharedGetAll(String cacheName, Cache shared, Collection<?> keys) {
+        Map<String, Object> found = new HashMap<>();
+        if (!(shared instanceof RedisCache redisCache)) {
+            for (Object key : keys) {
+                ValueWrapper wrapper = breaker.call(() -> shared.get(key), () -> null);
+                if (wrapper != null && wrapper.get() != null) {
+                    found.put(TieredCache.localKey(key), wrapper.get());
+                }
+            }
+            return found;
+        }
+
+        RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+        List<String> localKeys = keys.stream().map(TieredCache::localKey).toList();
+        byte[][] redisKeys = localKeys.stream()
+                .map(localKey -> redisKey(config, cacheName, localKey))
+                .toArray(byte[][]::new);
+        List<byte[]> values = breaker.call(() -> metrics(cacheName).redisCall(TieredCacheMetrics.MGET,
+                () -> redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                        connection.stringCommands().mGet(redisKeys))), () -> null);
+        if (values == null) {
+            return found;
+        }
+        for (int i = 0; i < values.size(); i++) {
+            byte[] bytes = values.get(i);
+            if (bytes == null) {
+                continue;
+            }
+            Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(bytes));
+            if (value != null && !(value instanceof NullValue)) {
+                found.put(localKeys.get(i), value);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reads, by local key, the versions a load must find unchanged before it writes to the shared
+     * tier. Keys are left out when Redis could not be asked; those loads do not write to Redis.
+     */
+    Map<String, SharedVersion> sharedVersions(String cacheName, Cache shared, Collection<String> localKeys) {
+        Map<String, SharedVersion> versions = new HashMap<>();
+        if (!(shared instanceof RedisCache)) {
+            localKeys.forEach(localKey -> versions.put(localKey, SharedVersion.NONE));
+            return versions;
+        }
+
+        List<String> keys = new ArrayList<>(localKeys.size() + 1);
+        localKeys.forEach(localKey -> keys.add(versionKey(cacheName, localKey)));
+        keys.add(versionKey(cacheName, null));
+        List<String> stored = breaker.call(() -> metrics(cacheName).redisCall(TieredCacheMetrics.VERSION,
+                () -> redisTemplate.opsForValue().multiGet(keys)), () -> null);
+        if (stored == null) {
+            return versions;
+        }
+        String cacheVersion = Objects.toString(stored.get(keys.size() - 1), "");
+        int i = 0;
+        for (String localKey : localKeys) {
+            versions.put(localKey, new SharedVersion(Objects.toString(stored.get(i++), ""), cacheVersion));
+        }
+        return versions;
+    }
+
+    /**
+     * Records that an entry, or with a {@code null} key the whole cache, is about to change. Runs
+     * before the shared tier is touched, so a load writing back in between is refused. Throws like
+     * any other Redis call; callers run it inside the breaker together with the change itself.
+     */
+    void bumpVersion(String cacheName, Cache shared, String localKey) {
+        if (!(shared instanceof RedisCache)) {
+            return;
+        }
+        metrics(cacheName).redisRun(TieredCacheMetrics.VERSION, () -> redisTemplate.execute(BUMP_VERSION,
+                List.of(versionKey(cacheName, localKey)), String.valueOf(settings.versionTtl().toMillis())));
+    }
+
+    /**
+     * Evicts several entries from the shared tier. For Redis, every entry's version bump and delete
+     * go out in one pipeline, so the whole batch costs a single round trip. Throws like any other
+     * Redis call; callers run it inside the breaker.
+     */
+    void sharedEvictAll(String cacheName, Cache shared, Map<String, ?> keysByLocalKey) {
+        if (!(shared instanceof RedisCache redisCache)) {
+            keysByLocalKey.forEach((localKey, key) -> {
+                bumpVersion(cacheName, shared, localKey);
+                metrics(cacheName).redisRun(TieredCacheMetrics.EVICT, () -> shared.evict(key));
+            });
+            return;
+        }
+
+        RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+        byte[] script = BUMP_VERSION.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        byte[] versionTtl = bytes(String.valueOf(settings.versionTtl().toMillis()));
+        metrics(cacheName).redisRun(TieredCacheMetrics.MDEL,
+                () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    keysByLocalKey.keySet().forEach(localKey -> {
+                        connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1,
+                                bytes(versionKey(cacheName, localKey)), versionTtl);
+                        connection.keyCommands().del(redisKey(config, cacheName, localKey));
+                    });
+                    return null;
+                }));
+    }
+
+    /**
+     * Writes loaded values to the shared tier, pipelined, each only if its versions still match
+     * {@code versions}. Values without a version are not written. Returns the local keys that were
+     * refused because the entry changed while it was being loaded.
+     */
+    Set<String> sharedPutAllIfUnchanged(String cacheName, Cache shared, Map<?, ?> entries,
+                                        Map<String, SharedVersion> versions) {
+        String operation = entries.size() == 1 ? TieredCacheMetrics.PUT : TieredCacheMetrics.MSET;
+        if (!(shared instanceof RedisCache redisCache)) {
+            entries.forEach((key, value) -> breaker.run(() -> metrics(cacheName).redisRun(operation,
+                    () -> shared.put(key, value))));
+            return Set.of();
+        }
+
+        RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+        List<String> written = new ArrayList<>();
+        List<byte[][]> commands = new ArrayList<>();
+        entries.forEach((key, value) -> {
+            String localKey = TieredCache.localKey(key);
+            SharedVersion version = versions.get(localKey);
+            if (version != null) {
+                written.add(localKey);
+                commands.add(putIfUnchanged(config, cacheName, key, value, version));
+            }
+        });
+        if (commands.isEmpty()) {
+            return Set.of();
+        }
+        byte[] script = PUT_IF_UNCHANGED.getBytes(StandardCharsets.UTF_8);
+        List<Object> results = breaker.call(() -> metrics(cacheName).redisCall(operation,
+                () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    commands.forEach(keysAndArgs -> connection.scriptingCommands()
+                            .eval(script, ReturnType.INTEGER, 3, keysAndArgs));
+                    return null;
+                })), () -> null);
+        if (results == null) {
+            return Set.of();
+        }
+        Set<String> refused = new HashSet<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (Long.valueOf(0).equals(results.get(i))) {
+                refused.add(written.get(i));
+            }
+        }
+        return refused;
+    }
+
+    private byte[][] putIfUnchanged(RedisCacheConfiguration config, String cacheName, Object key, Object value,
+                                    SharedVersion version) {
+        String localKey = TieredCache.localKey(key);
+        Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+        long ttlMillis = ttl == null || ttl.isNegative() ? 0 : ttl.toMillis();
+        return new byte[][]{
+                redisKey(config, cacheName, localKey),
+                bytes(versionKey(cacheName, localKey)),
+                bytes(versionKey(cacheName, null)),
+                bytes(version.entry()),
+                bytes(version.cache()),
+                ByteUtils.getBytes(config.getValueSerializationPair().write(value)),
+                bytes(String.valueOf(ttlMillis))};
+    }
+
+    private static String versionKey(String cacheName, String localKey) {
+        return localKey == null ? VERSION_PREFIX + cacheName : VERSION_PREFIX + cacheName + "::" + localKey;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] redisKey(RedisCacheConfiguration config, String cacheName, String localKey) {
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(config.getKeyPrefixFor(cacheName) + localKey));
+    }
+
+    /** Runs a refresh in the background; when the executor is saturated the entry just expires. */
+    boolean submitRefresh(Runnable refresh) {
+        try {
+            refreshExecutor.execute(refresh);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+    }
+
+    /** Publishes the invalidations for several keys in one pipeline. */
+    void publishAll(String cacheName, Collection<String> keys) {
+        if (keys.size() == 1) {
+            publish(cacheName, keys.iterator().next());
+            return;
+        }
+        byte[] channelBytes = bytes(channel);
+        List<byte[]> payloads = keys.stream().map(key -> bytes(invalidation(cacheName, key))).toList();
+        if (!breaker.run(() -> metrics(cacheName).redisRun(TieredCacheMetrics.PUBLISH,
+                () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    payloads.forEach(payload -> connection.publish(channelBytes, payload));
+                    return null;
+                })))) {
+            log.debug("Could not publish {} invalidations for {}, other nodes expire them in {}",
+                    keys.size(), cacheName, settings.localTtl());
+        }
+    }
+
+    void publish(String cacheName, String key) {
+        String payload = invalidation(cacheName, key);
+        if (!breaker.run(() -> metrics(cacheName).redisRun(TieredCacheMetrics.PUBLISH,
+                () -> redisTemplate.convertAndSend(channel, payload)))) {
+            log.debug("Could not publish invalidation for {}::{}, other nodes expire it in {}", cacheName, key, settings.localTtl());
+        }
+    }
+
+    private String invalidation(String cacheName, String key) {
+        try {
+            return objectMapper.writeValueAsString(new CacheInvalidation(origin, cacheName, key));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize cache invalidation", ex);
+        }
+    }
+
+    /** Versions of one entry as read before a load; empty strings stand for "never changed". */
+    record SharedVersion(String entry, String cache) {
+        static final SharedVersion NONE = new SharedVersion("", "");
+    }
+
+    private TieredCacheMetrics metrics(String cacheName) {
+        return caches.get(cacheName).metrics();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidation invalidation;
+        try {
+            invalidation = objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), CacheInvalidation.class);
+        } catch (JsonProcessingException ex) {
+            log.warn("Ignoring malformed cache invalidation on {}", channel, ex);
+            return;
+        }
+        // This node already applied its own changes
+        if (origin.equals(invalidation.origin())) {
+            return;
+        }
+        TieredCache cache = caches.get(invalidation.cacheName());
+        if (cache != null) {
+            cache.evictLocal(invalidation.key());
+        }
+    }
+}
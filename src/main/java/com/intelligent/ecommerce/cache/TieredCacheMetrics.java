@@ -0,0 +1,182 @@
+package com.intelligent.ecommerce.cache;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Meters for one {@link TieredCache}, all tagged with {@code cache} and {@code cacheManager}.
+ * <ul>
+ *   <li>{@code cache.gets}, {@code cache.evictions}, {@code cache.size}, ...: the local Caffeine
+ *       tier, as reported by {@link CaffeineCacheMetrics} (tagged {@code tier=local})</li>
+ *   <li>{@code cache.redis.gets}: shared tier lookups by {@code result} (hit or miss)</li>
+ *   <li>{@code cache.redis.latency}: time spent in Redis by {@code operation}</li>
+ *   <li>{@code cache.load.latency}: time spent in the value loader on a miss</li>
+ *   <li>{@code cache.hit.ratio}: share of reads answered by either tier without a load</li>
+ *   <li>{@code cache.invalidations}: explicit removals by {@code origin} (this node or a peer)</li>
+ *   <li>{@code cache.coalescing}: the {@link CacheLoadStats} counters by {@code outcome}</li>
+ *   <li>{@code cache.entry.size}: serialized size of the values written to Redis</li>
+ * </ul>
+ * Latencies and sizes publish p50 and p99.
+ */
+public final class TieredCacheMetrics {
+
+    public static final String MANAGER_NAME = "tiered";
+
+    static final String GET = "get";
+    static final String PUT = "put";
+    static final String EVICT = "evict";
+    static final String CLEAR = "clear";
+    static final String LEASE = "lease";
+    static final String RELEASE = "release";
+    static final String TTL = "ttl";
+    static final String PUBLISH = "publish";
+    static final String MGET = "mget";
+    static final String MSET = "mset";
+    static final String MDEL = "mdel";
+    static final String VERSION = "version";
+
+    private final String cacheName;
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Timer load;
+    private final Map<String, Timer> redis;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+    private final Counter localInvalidations;
+    private final Counter peerInvalidations;
+    private final DistributionSummary entrySize;
+    private volatile com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+
+    TieredCacheMetrics(MeterRegistry registry, String cacheName) {
+        this.cacheName = cacheName;
+        this.registry = registry;
+        this.tags = tags(cacheName);
+        this.load = Timer.builder("cache.load.latency")
+                .description("Time spent loading a missing value from the source")
+                .tags(tags)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.redis = Map.ofEntries(
+                timer(GET), timer(PUT), timer(EVICT), timer(CLEAR), timer(LEASE), timer(RELEASE), timer(TTL),
+                timer(PUBLISH), timer(MGET), timer(MSET), timer(MDEL), timer(VERSION));
+        this.sharedHits = Counter.builder("cache.redis.gets").tags(tags).tag("result", "hit").register(registry);
+        this.sharedMisses = Counter.builder("cache.redis.gets").tags(tags).tag("result", "miss").register(registry);
+        this.localInvalidations = Counter.builder("cache.invalidations").tags(tags).tag("origin", "local").register(registry);
+        this.peerInvalidations = Counter.builder("cache.invalidations").tags(tags).tag("origin", "peer").register(registry);
+        this.entrySize = entrySize(registry, cacheName);
+    }
+
+    /** Serialized value sizes for {@code cacheName}; shared with the Redis value serializer. */
+    public static DistributionSummary entrySize(MeterRegistry registry, String cacheName) {
+        return DistributionSummary.builder("cache.entry.size")
+                .description("Serialized size of values written to Redis")
+                .baseUnit("bytes")
+                .tags(tags(cacheName))
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private static Tags tags(String cacheName) {
+        return Tags.of("cache", cacheName, "cacheManager", MANAGER_NAME);
+    }
+
+    private Map.Entry<String, Timer> timer(String operation) {
+        return Map.entry(operation, redisTimer(operation));
+    }
+
+    private Timer redisTimer(String operation) {
+        return Timer.builder("cache.redis.latency")
+                .description("Time spent in Redis calls made by the cache")
+                .tags(tags)
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    /** Registers the meters that read the cache's own counters. */
+    void bind(TieredCache cache, com.github.benmanes.caffeine.cache.Cache<String, Object> local) {
+        this.local = local;
+        CaffeineCacheMetrics.monitor(registry, local, cacheName, tags.and("tier", "local"));
+        Gauge.builder("cache.hit.ratio", this, TieredCacheMetrics::hitRatio)
+                .description("Share of reads answered by the local or shared tier without a load")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("cache.coalescing", cache, c -> c.loadStats().loads())
+                .tags(tags).tag("outcome", "load").register(registry);
+        FunctionCounter.builder("cache.coalescing", cache, c -> c.loadStats().localWaits())
+                .tags(tags).tag("outcome", "local-wait").register(registry);
+        FunctionCounter.builder("cache.coalescing", cache, c -> c.loadStats().leaseWaits())
+                .tags(tags).tag("outcome", "lease-wait").register(registry);
+        FunctionCounter.builder("cache.coalescing", cache, c -> c.loadStats().refreshes())
+                .tags(tags).tag("outcome", "refresh").register(registry);
+    }
+
+    /** Share of reads answered by either tier without a load; {@code NaN} before the first read. */
+    double hitRatio() {
+        CacheStats stats = localStats();
+        if (stats.requestCount() == 0) {
+            return Double.NaN;
+        }
+        return Math.min(1.0, (stats.hitCount() + sharedHits.count()) / stats.requestCount());
+    }
+
+    CacheStats localStats() {
+        return local.stats();
+    }
+
+    long localSize() {
+        return local.estimatedSize();
+    }
+
+    <T> T redisCall(String operation, Supplier<T> call) {
+        return redis.get(operation).record(call);
+    }
+
+    void redisRun(String operation, Runnable call) {
+        redis.get(operation).record(call);
+    }
+
+    <T> T load(Callable<T> loader) throws Exception {
+        return load.recordCallable(loader);
+    }
+
+    <T> T loadAll(Supplier<T> loader) {
+        return load.record(loader);
+    }
+
+    void sharedLookup(boolean hit) {
+        (hit ? sharedHits : sharedMisses).increment();
+    }
+
+    void invalidated(boolean byPeer) {
+        (byPeer ? peerInvalidations : localInvalidations).increment();
+    }
+
+    Timer loadTimer() {
+        return load;
+    }
+
+    Map<String, Timer> redisTimers() {
+        return redis;
+    }
+
+    DistributionSummary entrySize() {
+        return entrySize;
+    }
+
+    double invalidationCount() {
+        return localInvalidations.count() + peerInvalidations.count();
+    }
+}
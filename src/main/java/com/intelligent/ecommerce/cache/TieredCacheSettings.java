@@ -0,0 +1,33 @@
+package com.intelligent.ecommerce.cache;
+
+import java.time.Duration;
+
+/**
+ * Tuning for {@link TieredCacheManager}.
+ *
+ * @param localTtl              how long a node keeps an entry in its near-cache
+ * @param localMaxSize          near-cache entries per cache
+ * @param leaseTtl              how long a load lease is held before it lapses
+ * @param leaseWait             how long a node waits for the lease holder's value before loading
+ * @param refreshAheadThreshold fraction of an entry's TTL after which a read triggers a background
+ *                              reload; {@code 0} turns refresh-ahead off
+ * @param versionTtl            how long Redis remembers that an entry changed; a load running longer
+ *                              than this may write back a value that was superseded meanwhile
+ */
+public record TieredCacheSettings(Duration localTtl,
+                                  long localMaxSize,
+                                  Duration leaseTtl,
+                                  Duration leaseWait,
+                                  double refreshAheadThreshold,
+                                  Duration versionTtl) {
+
+    public TieredCacheSettings {
+        if (refreshAheadThreshold < 0 || refreshAheadThreshold >= 1) {
+            throw new IllegalArgumentException("refreshAheadThreshold must be in [0, 1)");
+        }
+    }
+
+    boolean refreshAhead() {
+        return refreshAheadThreshold > 0;
+    }
+}
@@ -0,0 +1,22 @@
+package com.intelligent.ecommerce.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary encoding for one cached value type, identified on the wire by {@link #schemaId()}
+ * instead of a class name. Ids are part of the stored format: never reuse or renumber one, add a
+ * new codec with a new id when the layout changes.
+ */
+public interface ValueCodec<T> {
+
+    int schemaId();
+
+    /** Whether this codec can write {@code value}; checked in registration order. */
+    boolean supports(Object value);
+
+    void write(T value, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+}
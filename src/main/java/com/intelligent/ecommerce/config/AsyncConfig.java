@@ -1,5 +1,6 @@
 package com.intelligent.ecommerce.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.AsyncTaskExecutor;
@@ -21,5 +22,19 @@ public class AsyncConfig {
         ex.initialize();
         return ex;
     }
+
+    // Order intake drains get their own threads, so a backlog cannot starve the @Async listeners
+    @Bean("orderIntakeExecutor")
+    public ThreadPoolTaskExecutor orderIntakeExecutor(@Value("${order.async-intake.drain-threads:2}") int threads,
+                                                      @Value("${order.async-intake.queue-capacity:5000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        // At most one drain per queued order
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-intake-");
+        executor.initialize();
+        return executor;
+    }
 }
 
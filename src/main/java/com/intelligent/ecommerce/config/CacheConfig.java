@@ -1,63 +1,160 @@
 package com.intelligent.ecommerce.config;
 
 import java.time.Duration;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelligent.ecommerce.cache.BinaryRedisSerializer;
+import com.intelligent.ecommerce.cache.CacheStatsEndpoint;
+import com.intelligent.ecommerce.cache.MeteredRedisSerializer;
+import com.intelligent.ecommerce.cache.ProductViewCodecs;
+import com.intelligent.ecommerce.cache.RedisCircuitBreaker;
+import com.intelligent.ecommerce.cache.TieredCacheManager;
+import com.intelligent.ecommerce.cache.TieredCacheMetrics;
+import com.intelligent.ecommerce.cache.TieredCacheSettings;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
-    private RedisCacheConfiguration createCacheConfig(Duration ttl) {
+    @Value("${cache.invalidation.channel:cache:invalidation}")
+    private String invalidationChannel;
+
+    @Value("${cache.redis.serializer:binary}")
+    private String valueSerializer;
+
+    @Value("${cache.redis.compression-threshold-bytes:1024}")
+    private int compressionThresholdBytes;
+
+    // Entry sizes are recorded per cache; caches without their own configuration report as "default"
+    private RedisCacheConfiguration createCacheConfig(String cacheName, Duration ttl, MeterRegistry meterRegistry) {
+        RedisSerializer<Object> values = new MeteredRedisSerializer(createValueSerializer(),
+                TieredCacheMetrics.entrySize(meterRegistry, cacheName));
         return RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(ttl)
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(values))
                 .disableCachingNullValues();
     }
 
-    @Bean("caffeineCacheManager")
-    public CaffeineCacheManager caffeineCacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                .maximumSize(1000));
-        return cacheManager;
+    // "binary" writes schema ids instead of class names and can still read entries written as "json"
+    private RedisSerializer<Object> createValueSerializer() {
+        RedisSerializer<Object> json = new GenericJackson2JsonRedisSerializer();
+        if ("json".equals(valueSerializer)) {
+            return json;
+        }
+        return new BinaryRedisSerializer(
+                List.of(ProductViewCodecs.PRODUCT_VIEW, ProductViewCodecs.PRODUCT_VIEW_LIST),
+                json,
+                compressionThresholdBytes);
     }
 
-    @Bean("shortTtlCacheManager")
-    public RedisCacheManager shortTtlCacheManager(RedisConnectionFactory factory) {
-        return RedisCacheManager.builder(factory)
-                .cacheDefaults(createCacheConfig(Duration.ofMinutes(5)))
+    // Single cache manager: Caffeine near-cache on each node, Redis shared between nodes
+    @Bean
+    @Primary
+    public TieredCacheManager cacheManager(RedisConnectionFactory factory,
+                                           StringRedisTemplate redisTemplate,
+                                           ObjectMapper objectMapper,
+                                           @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor,
+                                           RedisCircuitBreaker redisCircuitBreaker,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${cache.redis.default-ttl-minutes:10}") long defaultTtlMinutes,
+                                           @Value("${cache.redis.products-ttl-minutes:360}") long productsTtlMinutes,
+                                           @Value("${cache.redis.product-search-ttl-minutes:5}") long productSearchTtlMinutes,
+                                           @Value("${cache.local.ttl-minutes:10}") long localTtlMinutes,
+                                           @Value("${cache.local.max-size:10000}") long localMaxSize,
+                                           @Value("${cache.lease.ttl-ms:5000}") long leaseTtlMillis,
+                                           @Value("${cache.lease.wait-ms:2000}") long leaseWaitMillis,
+                                           @Value("${cache.refresh-ahead.threshold:0.8}") double refreshAheadThreshold,
+                                           @Value("${cache.version.ttl-minutes:60}") long versionTtlMinutes) {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(factory)
+                .cacheDefaults(createCacheConfig("default", Duration.ofMinutes(defaultTtlMinutes), meterRegistry))
+                .withInitialCacheConfigurations(Map.of(
+                        "products", createCacheConfig("products", Duration.ofMinutes(productsTtlMinutes), meterRegistry),
+                        "product-search", createCacheConfig("product-search", Duration.ofMinutes(productSearchTtlMinutes), meterRegistry)))
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        TieredCacheSettings settings = new TieredCacheSettings(
+                Duration.ofMinutes(localTtlMinutes), localMaxSize,
+                Duration.ofMillis(leaseTtlMillis), Duration.ofMillis(leaseWaitMillis),
+                refreshAheadThreshold, Duration.ofMinutes(versionTtlMinutes));
+        return new TieredCacheManager(redisCacheManager, redisTemplate, objectMapper, invalidationChannel,
+                settings, cacheRefreshExecutor, redisCircuitBreaker, meterRegistry);
     }
 
-    @Bean("longTtlCacheManager")
-    public RedisCacheManager longTtlCacheManager(RedisConnectionFactory factory) {
-        return RedisCacheManager.builder(factory)
-                .cacheDefaults(createCacheConfig(Duration.ofHours(6)))
-                .build();
+    @Bean
+    public CacheStatsEndpoint cacheStatsEndpoint(TieredCacheManager cacheManager) {
+        return new CacheStatsEndpoint(cacheManager);
     }
 
-    // Default cache manager that Spring will use if no cacheManager is specified in @Cacheable
+    // Opens after consecutive Redis failures so caches fall back to their local tier without waiting
     @Bean
-    @Primary
-    public RedisCacheManager defaultCacheManager(RedisConnectionFactory factory) {
-        return RedisCacheManager.builder(factory)
-                .cacheDefaults(createCacheConfig(Duration.ofMinutes(10)))
-                .build();
+    public RedisCircuitBreaker redisCircuitBreaker(StringRedisTemplate redisTemplate,
+                                                   @Value("${cache.breaker.failure-threshold:3}") int failureThreshold,
+                                                   @Value("${cache.breaker.probe-interval-ms:1000}") long probeIntervalMillis) {
+        return new RedisCircuitBreaker(failureThreshold, Duration.ofMillis(probeIntervalMillis),
+                () -> redisTemplate.execute((RedisCallback<String>) RedisConnection::ping));
+    }
+
+    // Fail fast while disconnected instead of queueing commands until the reconnect succeeds
+    @Bean
+    public LettuceClientConfigurationBuilderCustomizer failFastWhenDisconnected(
+            @Value("${spring.data.redis.connect-timeout:500ms}") Duration connectTimeout) {
+        return builder -> builder.clientOptions(ClientOptions.builder()
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .socketOptions(SocketOptions.builder().connectTimeout(connectTimeout).build())
+                .build());
+    }
+
+    // Bounded: when refreshes back up they are dropped and entries simply expire
+    @Bean("cacheRefreshExecutor")
+    public ThreadPoolTaskExecutor cacheRefreshExecutor(@Value("${cache.refresh-ahead.threads:2}") int threads,
+                                                       @Value("${cache.refresh-ahead.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory factory,
+                                                                   TieredCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(cacheManager, new ChannelTopic(invalidationChannel));
+        return container;
     }
 }
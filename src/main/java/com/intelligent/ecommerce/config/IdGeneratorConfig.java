@@ -0,0 +1,42 @@
+package com.intelligent.ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import com.intelligent.ecommerce.id.IdGenerator;
+import com.intelligent.ecommerce.id.IdGenerators;
+import com.intelligent.ecommerce.id.SnowflakeIdGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Configuration
+public class IdGeneratorConfig {
+
+    // Every application node must run with a distinct node id (0-1023)
+    @Bean
+    public IdGenerator idGenerator(@Value("${ecommerce.id.node-id:}") String nodeId, Environment environment) {
+        IdGenerator generator = new SnowflakeIdGenerator(resolveNodeId(nodeId, environment));
+        IdGenerators.install(generator);
+        return generator;
+    }
+
+    /**
+     * The configured node id. Two nodes sharing an id can hand out the same primary key, so an
+     * unset id is only tolerated under the {@code dev} and {@code test} profiles, which fall back to 0.
+     */
+    static long resolveNodeId(String configured, Environment environment) {
+        if (configured != null && !configured.isBlank()) {
+            return Long.parseLong(configured.strip());
+        }
+        if (environment.acceptsProfiles(Profiles.of("dev", "test"))) {
+            log.warn("ecommerce.id.node-id is not set, using node id 0; ids collide if another node does the same");
+            return 0;
+        }
+        throw new IllegalStateException("ecommerce.id.node-id (NODE_ID) is not set; give every running node "
+                + "a distinct value between 0 and 1023, or run with the dev profile for a single local node");
+    }
+}
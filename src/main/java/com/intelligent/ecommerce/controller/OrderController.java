@@ -7,21 +7,30 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.intelligent.ecommerce.dto.common.ApiResponse;
+import com.intelligent.ecommerce.dto.common.CursorPaginatedResponse;
 import com.intelligent.ecommerce.dto.common.PaginatedResponse;
 import com.intelligent.ecommerce.dto.order.request.CreateOrderRequest;
+import com.intelligent.ecommerce.dto.order.response.OrderIntakeResponse;
 import com.intelligent.ecommerce.dto.order.response.OrderResponse;
 import com.intelligent.ecommerce.entity.Order;
 import com.intelligent.ecommerce.mapper.OrderMapper;
 import com.intelligent.ecommerce.repository.projection.OrderReportRow;
+import com.intelligent.ecommerce.service.AsyncOrderIntake;
+import com.intelligent.ecommerce.service.GroupCommitOrderWriter;
+import com.intelligent.ecommerce.service.IdempotencyService;
 import com.intelligent.ecommerce.service.OrderService;
 import com.intelligent.ecommerce.utilities.AuthUtils;
 
@@ -34,6 +43,9 @@ import lombok.RequiredArgsConstructor;
 public class OrderController {
 
     private final OrderService orderService;
+    private final GroupCommitOrderWriter groupCommitOrderWriter;
+    private final IdempotencyService idempotencyService;
+    private final AsyncOrderIntake asyncOrderIntake;
     private final VectorService vectorService;
     private final OrderMapper orderMapper;
     private final AuthUtils authUtils;
@@ -48,6 +60,17 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(paginated));
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<CursorPaginatedResponse<OrderResponse>>> listOrdersByCursor(
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        int pageSize = Math.min(Math.max(size, 1), 100);
+        CursorPaginatedResponse<OrderResponse> page = orderService.listOrders(authUtils.getId(), cursor, pageSize)
+            .map(orderMapper::toDto);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
     @GetMapping("/high-value")
     public ResponseEntity<ApiResponse<List<OrderReportRow>>> highValueOrders() {
         List<OrderReportRow> orders  = orderService.findHighValueOrders();
@@ -55,15 +78,43 @@ public class OrderController {
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<OrderResponse>> createOrder(@Valid @RequestBody CreateOrderRequest createOrderRequest, Authentication authentication) {
-        Order created = orderService.createOrder(authUtils.getId(), createOrderRequest.getItems(), createOrderRequest.getPaymentMethod());
-        return ResponseEntity.ok(ApiResponse.success(orderMapper.toDto(created)));
+    public ResponseEntity<ApiResponse<?>> createOrder(@Valid @RequestBody CreateOrderRequest createOrderRequest,
+                                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                     Authentication authentication) {
+        Long customerId = authUtils.getId();
+        boolean idempotent = idempotencyKey != null && !idempotencyKey.isBlank();
+        if (asyncOrderIntake.isEnabled()) {
+            if (!idempotent) {
+                OrderIntakeResponse accepted = asyncOrderIntake.submit(customerId, createOrderRequest.getItems(), createOrderRequest.getPaymentMethod());
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(accepted));
+            }
+            OrderIntakeResponse accepted = idempotencyService.execute(customerId, idempotencyKey, createOrderRequest, OrderIntakeResponse.class,
+                () -> asyncOrderIntake.submit(customerId, createOrderRequest.getItems(), createOrderRequest.getPaymentMethod()));
+            // A replay carries the original token; report its current status when this node holds it
+            OrderIntakeResponse current = asyncOrderIntake.status(customerId, accepted.getToken()).orElse(accepted);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(current));
+        }
+        if (!idempotent) {
+            Order created = groupCommitOrderWriter.createOrder(customerId, createOrderRequest.getItems(), createOrderRequest.getPaymentMethod());
+            return ResponseEntity.ok(ApiResponse.success(orderMapper.toDto(created)));
+        }
+
+        OrderResponse response = idempotencyService.execute(customerId, idempotencyKey, createOrderRequest, OrderResponse.class, () -> orderMapper.toDto(
+            groupCommitOrderWriter.createOrder(customerId, createOrderRequest.getItems(), createOrderRequest.getPaymentMethod())));
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/status/{token}")
+    public ResponseEntity<ApiResponse<OrderIntakeResponse>> orderStatus(@PathVariable String token) {
+        return asyncOrderIntake.status(authUtils.getId(), token)
+            .map(status -> ResponseEntity.ok(ApiResponse.success(status)))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Unknown order token")));
     }
 
     @GetMapping("/hi")
-    public ResponseEntity<ApiResponse<List<Double>>> highValueOrdersa() {
+    public ResponseEntity<ApiResponse<float[]>> highValueOrdersa() {
 //        List<OrderReportRow> orders  = orderService.findHighValueOrders();
-        List<Double> g = vectorService.embed("hiii");
+        float[] g = vectorService.embed("hiii");
         return ResponseEntity.ok(ApiResponse.success(g));
     }
 
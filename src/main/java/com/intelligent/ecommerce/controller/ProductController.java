@@ -1,8 +1,13 @@
 package com.intelligent.ecommerce.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -11,9 +16,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.intelligent.ecommerce.dto.common.CursorPaginatedResponse;
 
 import com.intelligent.ecommerce.dto.product.CreateProductRequest;
-import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.dto.product.ProductImportSummary;
+import com.intelligent.ecommerce.dto.product.ProductView;
+import com.intelligent.ecommerce.enums.ProductImportFormat;
+import com.intelligent.ecommerce.service.ProductImportService;
 import com.intelligent.ecommerce.service.ProductService;
 
 import jakarta.validation.Valid;
@@ -24,9 +38,11 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/api/v1/products")
 public class ProductController {
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/search")
-    public List<Product> searchByNameVector(
+    public List<ProductView> searchByNameVector(
             @RequestParam("query") String query,
             @RequestParam(value = "limit", defaultValue = "10") int limit
     ) {
@@ -35,18 +51,75 @@ public class ProductController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Product create(@RequestBody @Valid CreateProductRequest request) {
+    public ProductView create(@RequestBody @Valid CreateProductRequest request) {
         return productService.create(request);
     }
 
-    @GetMapping("/all")
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    // Bulk import: the body is streamed and written in batches; embeddings=false leaves them for a backfill
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ProductImportSummary importCsv(
+            InputStream body,
+            @RequestParam(value = "embeddings", defaultValue = "true") boolean embeddings
+    ) throws IOException {
+        return productImportService.importProducts(body, ProductImportFormat.CSV, embeddings);
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ProductImportSummary importNdjson(
+            InputStream body,
+            @RequestParam(value = "embeddings", defaultValue = "true") boolean embeddings
+    ) throws IOException {
+        return productImportService.importProducts(body, ProductImportFormat.NDJSON, embeddings);
+    }
+
+    @GetMapping("/catalog")
+    public CursorPaginatedResponse<ProductView> listCatalog(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size
+    ) {
+        int pageSize = Math.min(Math.max(size, 1), 500);
+        return productService.listCatalog(cursor, pageSize);
+    }
+
+    // Whole catalog as newline-delimited JSON, written row by row as the cursor advances
+    @GetMapping(value = "/catalog/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamCatalogNdjson() {
+        return stream(MediaType.parseMediaType("application/x-ndjson"), false);
+    }
+
+    // Same stream as a chunked JSON array for clients that cannot read NDJSON
+    @GetMapping(value = "/catalog/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCatalogJson() {
+        return stream(MediaType.APPLICATION_JSON, true);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(MediaType mediaType, boolean asArray) {
+        StreamingResponseBody body = out -> {
+            ObjectWriter writer = objectMapper.writerFor(ProductView.class);
+            try (SequenceWriter sequence = asArray
+                    ? writer.writeValuesAsArray(out)
+                    : writer.withRootValueSeparator("\n").writeValues(out)) {
+                productService.streamCatalog(view -> {
+                    try {
+                        sequence.write(view);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(mediaType).body(body);
     }
 
     @GetMapping("/{id}")
-    public Product getProductById(@PathVariable Long id) {
+    public ProductView getProductById(@PathVariable Long id) {
         return productService.getProductById(id);
     }
 
+    // GET /api/v1/products?ids=1,2,3: one cache pass and at most one query instead of N lookups
+    @GetMapping(params = "ids")
+    public List<ProductView> getProductsByIds(@RequestParam("ids") List<Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
 }
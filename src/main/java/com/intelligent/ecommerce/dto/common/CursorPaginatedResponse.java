@@ -0,0 +1,24 @@
+package com.intelligent.ecommerce.dto.common;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset-paginated counterpart of {@link PaginatedResponse}. Carries an opaque continuation token
+ * instead of page numbers and deliberately has no total count, which would need a full scan.
+ */
+public record CursorPaginatedResponse<T>(
+        List<T> records,
+        String nextCursor,
+        boolean hasMore,
+        int pageSize
+) {
+    public <R> CursorPaginatedResponse<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPaginatedResponse<>(
+            records.stream().<R>map(mapper).toList(),
+            nextCursor,
+            hasMore,
+            pageSize
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package com.intelligent.ecommerce.dto.order.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.intelligent.ecommerce.enums.OrderIntakeStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderIntakeResponse {
+    private String token;
+    private OrderIntakeStatus status;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long orderId;
+    private String message;
+}
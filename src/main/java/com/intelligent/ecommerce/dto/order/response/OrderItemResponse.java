@@ -2,10 +2,14 @@ package com.intelligent.ecommerce.dto.order.response;
 
 import java.math.BigDecimal;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
 import lombok.Data;
 
 @Data
 public class OrderItemResponse {
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private Integer quantity;
     private BigDecimal price;
@@ -3,6 +3,8 @@ package com.intelligent.ecommerce.dto.order.response;
 import java.math.BigDecimal;
 import java.time.Instant;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import com.intelligent.ecommerce.enums.OrderStatus;
 
 import lombok.AllArgsConstructor;
@@ -13,7 +15,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class OrderReportResponse {
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long customerId;
     private BigDecimal totalAmount;
     private OrderStatus status;
@@ -4,12 +4,15 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import com.intelligent.ecommerce.dto.payment.response.PaymentResponse;
 
 import lombok.Data;
 
 @Data
 public class OrderResponse {
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private BigDecimal totalAmount;
     private String status;
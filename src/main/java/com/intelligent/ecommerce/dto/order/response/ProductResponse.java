@@ -2,12 +2,15 @@ package com.intelligent.ecommerce.dto.order.response;
 
 import java.math.BigDecimal;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
 import lombok.Data;
 
 @Data
 public class ProductResponse {
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private String name;
-    private Integer stockQuantity;
     private BigDecimal price;
 }
@@ -1,10 +1,14 @@
 package com.intelligent.ecommerce.dto.payment.response;
 import java.math.BigDecimal;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
 import lombok.Data;
 
 @Data
 public class PaymentResponse {
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private BigDecimal amount;
     private String status;
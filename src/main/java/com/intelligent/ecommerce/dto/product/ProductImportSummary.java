@@ -0,0 +1,28 @@
+package com.intelligent.ecommerce.dto.product;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import.
+ *
+ * @param imported          rows inserted
+ * @param rejected          rows skipped because they could not be parsed or failed validation
+ * @param failed            valid rows not inserted because the database rejected their batch
+ * @param embedded          inserted rows whose name embedding was written
+ * @param embeddingFailures inserted rows left without an embedding because the embedding call failed
+ * @param elapsedMillis     wall time of the whole import
+ * @param rowsPerSecond     inserted rows per second of wall time
+ * @param errors            the first rejection and batch failure messages, each prefixed with its line
+ *                          number or line range
+ */
+public record ProductImportSummary(
+        long imported,
+        long rejected,
+        long failed,
+        long embedded,
+        long embeddingFailures,
+        long elapsedMillis,
+        double rowsPerSecond,
+        List<String> errors
+) {
+}
@@ -0,0 +1,24 @@
+package com.intelligent.ecommerce.dto.product;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read model for catalog endpoints and product caches. Never carries {@code name_embedding}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductView {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
+    private String name;
+    private Integer stockQuantity;
+    private BigDecimal price;
+}
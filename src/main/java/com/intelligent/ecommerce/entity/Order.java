@@ -9,6 +9,7 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import com.intelligent.ecommerce.enums.OrderStatus;
+import com.intelligent.ecommerce.id.TimeOrderedId;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -17,8 +18,6 @@ import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
@@ -43,7 +42,8 @@ import lombok.ToString;
     name = "orders",
     indexes = {
         @Index(name = "idx_orders_total_amount", columnList = "totalAmount"),
-        @Index(name = "idx_orders_created_at", columnList = "createdAt")
+        @Index(name = "idx_orders_created_at", columnList = "createdAt"),
+        @Index(name = "idx_orders_customer_created_id", columnList = "customer_id, createdAt DESC, id DESC")
     }
 )
 @Data
@@ -55,7 +55,7 @@ import lombok.ToString;
 @ToString(exclude = {"payment", "items"})
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
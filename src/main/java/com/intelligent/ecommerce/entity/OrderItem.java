@@ -2,11 +2,11 @@ package com.intelligent.ecommerce.entity;
 
 import java.math.BigDecimal;
 
+import com.intelligent.ecommerce.id.TimeOrderedId;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -31,8 +31,7 @@ import lombok.ToString;
 @ToString(exclude = {"order", "product"})
 public class OrderItem {
     @Id
-    // Tip: keep this consistent with your DB (IDENTITY vs SEQUENCE). If you use Postgres with sequences, this is fine.
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @TimeOrderedId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -3,14 +3,13 @@ package com.intelligent.ecommerce.entity;
 import java.math.BigDecimal;
 
 import com.intelligent.ecommerce.enums.PaymentMethod;
+import com.intelligent.ecommerce.id.TimeOrderedId;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
@@ -36,7 +35,7 @@ import lombok.ToString;
 @ToString(exclude = {"order"})
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY, optional = false)
@@ -1,22 +1,29 @@
 package com.intelligent.ecommerce.entity;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
+import org.hibernate.annotations.LazyGroup;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.intelligent.ecommerce.id.TimeOrderedId;
+
+import jakarta.persistence.Basic;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
-import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Table(name = "products")
@@ -26,7 +33,7 @@ import lombok.NoArgsConstructor;
 @Builder
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
 
     @NotBlank(message = "Product name is required")
@@ -34,17 +41,36 @@ public class Product {
     @Column(nullable = false, length = 255)
     private String name;
 
-    @NotNull(message = "Stock quantity is required")
-    @Min(value = 0, message = "Stock quantity cannot be negative")
-    @Column(nullable = false)
-    private Integer stockQuantity;
-
     @NotNull(message = "Price is required")
     @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than zero")
     @Column(nullable = false)
     private BigDecimal price;
 
+    // Written through JDBC and read only via ProductRepository.findNameEmbeddingById. Lazy, so the
+    // ~9 KB vector is not selected with every entity load; needs the build-time bytecode enhancement
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("embedding")
     @Column(name = "name_embedding", columnDefinition = "vector(768)", insertable = false, updatable = false)
     private String nameEmbedding;
 
+    // EmbeddingBackfill bookkeeping, written through JDBC only
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("embedding")
+    @Column(name = "embedding_attempts", columnDefinition = "integer default 0 not null", insertable = false, updatable = false)
+    private Integer embeddingAttempts;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("embedding")
+    @Column(name = "embedding_claimed_at", insertable = false, updatable = false)
+    private Instant embeddingClaimedAt;
+
 }
@@ -0,0 +1,51 @@
+package com.intelligent.ecommerce.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Stock for one product, kept in its own narrow row so that order writes lock and rewrite only
+ * this table and never the wide {@code products} row (name, price, embedding). Shares its key
+ * with {@link Product}; the product side has no mapping back, so loading a product never loads
+ * its stock.
+ */
+@Entity
+@Table(name = "product_inventory")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(exclude = {"product"})
+@ToString(exclude = {"product"})
+public class ProductInventory {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @JsonIgnore
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    @NotNull(message = "Stock quantity is required")
+    @Min(value = 0, message = "Stock quantity cannot be negative")
+    @Column(nullable = false)
+    private Integer stockQuantity;
+}
@@ -3,14 +3,12 @@ package com.intelligent.ecommerce.entity;
 import java.time.LocalDateTime;
 
 import com.intelligent.ecommerce.enums.Role;
+import com.intelligent.ecommerce.id.TimeOrderedId;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,8 +24,7 @@ import lombok.NoArgsConstructor;
 public class User
 {
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
-    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 1)
+    @TimeOrderedId
     private Long id;
 
     private String email;
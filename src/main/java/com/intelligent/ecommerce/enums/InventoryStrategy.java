@@ -0,0 +1,8 @@
+package com.intelligent.ecommerce.enums;
+
+public enum InventoryStrategy {
+    // SELECT ... FOR UPDATE, then a dirty-checked entity update
+    PESSIMISTIC_LOCK,
+    // One batched UPDATE ... WHERE stock_quantity >= ? per line, no prior lock
+    CONDITIONAL_UPDATE
+}
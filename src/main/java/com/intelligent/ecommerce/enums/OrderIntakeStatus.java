@@ -0,0 +1,3 @@
+package com.intelligent.ecommerce.enums;
+
+public enum OrderIntakeStatus { QUEUED, PROCESSING, COMPLETED, REJECTED, FAILED }
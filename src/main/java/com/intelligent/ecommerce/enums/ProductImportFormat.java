@@ -0,0 +1,8 @@
+package com.intelligent.ecommerce.enums;
+
+public enum ProductImportFormat {
+    // Header row naming name, stock_quantity and price, then one product per line
+    CSV,
+    // One CreateProductRequest JSON object per line
+    NDJSON
+}
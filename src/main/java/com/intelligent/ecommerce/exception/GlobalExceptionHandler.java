@@ -33,6 +33,35 @@ public class GlobalExceptionHandler {
             .body(ApiResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ApiResponse<?>> handleIdempotencyConflict(IdempotencyConflictException ex, HttpServletRequest req) {
+        return ResponseEntity
+            .status(HttpStatus.CONFLICT)
+            .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ApiResponse<?>> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException ex, HttpServletRequest req) {
+        return ResponseEntity
+            .status(HttpStatus.UNPROCESSABLE_ENTITY)
+            .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(OrderQueueFullException.class)
+    public ResponseEntity<ApiResponse<?>> handleOrderQueueFull(OrderQueueFullException ex, HttpServletRequest req) {
+        return ResponseEntity
+            .status(HttpStatus.TOO_MANY_REQUESTS)
+            .header("Retry-After", "1")
+            .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(OrderWriteTimeoutException.class)
+    public ResponseEntity<ApiResponse<?>> handleOrderWriteTimeout(OrderWriteTimeoutException ex, HttpServletRequest req) {
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE)
+            .body(ApiResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(UsernameNotFoundException.class)
     public ResponseEntity<ApiResponse<?>> handleUsernameNotFound(UsernameNotFoundException ex, HttpServletRequest req) {
         return ResponseEntity
@@ -0,0 +1,7 @@
+package com.intelligent.ecommerce.exception;
+
+public class OrderWriteTimeoutException extends RuntimeException {
+    public OrderWriteTimeoutException(String message) {
+        super(message);
+    }
+}
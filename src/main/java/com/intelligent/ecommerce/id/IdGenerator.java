@@ -0,0 +1,10 @@
+package com.intelligent.ecommerce.id;
+
+/**
+ * Source of entity primary keys assigned in the application before insert, which lets Hibernate
+ * batch inserts instead of reading back a database-generated key per row.
+ */
+public interface IdGenerator {
+
+    long nextId();
+}
@@ -0,0 +1,22 @@
+package com.intelligent.ecommerce.id;
+
+/**
+ * Process-wide holder for the active {@link IdGenerator}. Hibernate instantiates
+ * {@link TimeOrderedIdentifierGenerator} itself, outside the Spring context, so the configured
+ * generator is installed here at startup and looked up on every insert.
+ */
+public final class IdGenerators {
+
+    private static volatile IdGenerator current = new SnowflakeIdGenerator(0);
+
+    private IdGenerators() {
+    }
+
+    public static void install(IdGenerator generator) {
+        current = generator;
+    }
+
+    public static IdGenerator current() {
+        return current;
+    }
+}
@@ -1,12 +1,15 @@
 package com.intelligent.ecommerce.repository;
 
+import java.time.Instant;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.intelligent.ecommerce.entity.Order;
@@ -15,8 +18,31 @@ import com.intelligent.ecommerce.repository.projection.OrderReportRow;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Page over ids only: paging a collection fetch would make Hibernate slice the page in memory
+    @Query(
+        value = "select o.id from Order o where o.customer.id = :customerId",
+        countQuery = "select count(o) from Order o where o.customer.id = :customerId"
+    )
+    Page<Long> findIdsByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    // Keyset pagination over (createdAt, id), served by idx_orders_customer_created_id
+    @Query("select o.id from Order o where o.customer.id = :customerId order by o.createdAt desc, o.id desc")
+    List<Long> findFirstIdsByCustomerId(@Param("customerId") Long customerId, Limit limit);
+
+    @Query("""
+        select o.id from Order o
+        where o.customer.id = :customerId
+          and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))
+        order by o.createdAt desc, o.id desc
+        """)
+    List<Long> findIdsByCustomerIdAfter(@Param("customerId") Long customerId,
+                                        @Param("createdAt") Instant createdAt,
+                                        @Param("id") Long id,
+                                        Limit limit);
+
     @EntityGraph(attributePaths = {"payment", "items", "items.product"})
-    Page<Order> findAllByCustomerId(Long customerId, Pageable pageable);
+    @Query("select o from Order o where o.id in :ids")
+    List<Order> findAllWithDetailsByIdIn(@Param("ids") List<Long> ids);
 
     @Query(
         value = "SELECT * FROM orders o WHERE o.total_amount > 1000",
@@ -0,0 +1,25 @@
+package com.intelligent.ecommerce.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.intelligent.ecommerce.entity.ProductInventory;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface ProductInventoryRepository extends JpaRepository<ProductInventory, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from ProductInventory i where i.productId in :productIds order by i.productId asc")
+    List<ProductInventory> findAllForUpdateByProductIdIn(@Param("productIds") List<Long> productIds);
+
+    @Query("select i.stockQuantity from ProductInventory i where i.productId = :productId")
+    Optional<Integer> findStockQuantityByProductId(@Param("productId") Long productId);
+}
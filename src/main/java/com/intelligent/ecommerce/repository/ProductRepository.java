@@ -1,14 +1,17 @@
 package com.intelligent.ecommerce.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.intelligent.ecommerce.dto.product.ProductView;
 import com.intelligent.ecommerce.entity.Product;
 
 import jakarta.persistence.LockModeType;
@@ -20,21 +23,40 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("select p from Product p where p.id = :id")
     Optional<Product> findByIdForUpdate(Long id);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("select p from Product p where p.id in :ids order by p.id asc")
-    List<Product> findAllForUpdateByIdIn(@Param("ids") List<Long> ids);
+    // Read models: select explicit columns so name_embedding never leaves the database,
+    // joining product_inventory because the views carry stock
+    @Query("""
+        select new com.intelligent.ecommerce.dto.product.ProductView(p.id, p.name, i.stockQuantity, p.price)
+        from Product p join ProductInventory i on i.productId = p.id
+        where p.id > :afterId
+        order by p.id asc
+        """)
+    List<ProductView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select new com.intelligent.ecommerce.dto.product.ProductView(p.id, p.name, i.stockQuantity, p.price) from Product p join ProductInventory i on i.productId = p.id where p.id = :id")
+    Optional<ProductView> findViewById(@Param("id") Long id);
+
+    @Query("select new com.intelligent.ecommerce.dto.product.ProductView(p.id, p.name, i.stockQuantity, p.price) from Product p join ProductInventory i on i.productId = p.id where p.id in :ids")
+    List<ProductView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(
+            value = "SELECT CAST(name_embedding AS text) FROM products WHERE id = :id",
+            nativeQuery = true
+    )
+    Optional<String> findNameEmbeddingById(@Param("id") Long id);
 
+    // Ranking only: callers read the views through the product cache
     @Query(
             value = """
-        SELECT *
-        FROM products
-        WHERE name_embedding IS NOT NULL
-        ORDER BY name_embedding <=> CAST(:queryVector AS vector)
+        SELECT p.id
+        FROM products p
+        WHERE p.name_embedding IS NOT NULL
+        ORDER BY p.name_embedding <=> CAST(:queryVector AS vector)
         LIMIT :limit
         """,
             nativeQuery = true
     )
-    List<Product> searchByNameVector(@Param("queryVector") String queryVector,
+    List<Long> searchIdsByNameVector(@Param("queryVector") String queryVector,
                                      @Param("limit") int limit);
 
 
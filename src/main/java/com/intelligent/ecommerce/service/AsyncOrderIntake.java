@@ -0,0 +1,158 @@
+package com.intelligent.ecommerce.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.dto.order.response.OrderIntakeResponse;
+import com.intelligent.ecommerce.entity.Order;
+import com.intelligent.ecommerce.enums.OrderIntakeStatus;
+import com.intelligent.ecommerce.enums.PaymentMethod;
+import com.intelligent.ecommerce.exception.InsufficientStockException;
+import com.intelligent.ecommerce.exception.OrderQueueFullException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opt-in asynchronous order acceptance.
+ * <p>
+ * Validated requests go onto a bounded in-process queue and the caller gets a token straight
+ * away. Each submission schedules a drain on the dedicated {@code orderIntakeExecutor}
+ * ({@code order.async-intake.drain-threads} threads), so order writes never compete with the
+ * {@code @Async} event listeners on {@code taskExecutor}. A drain takes up to
+ * {@code order.async-intake.max-batch-size} queued requests and writes them through the same
+ * batched transaction as group commit, so {@code OrderCreatedEvent} still fires after commit for
+ * every accepted order. When the queue is full callers are told to back off instead of waiting.
+ * <p>
+ * Token status is held on the node that accepted the request, for at most
+ * {@code order.async-intake.status-max-size} tokens; past that, statuses are evicted before they
+ * expire rather than growing the heap.
+ */
+@Slf4j
+@Service
+public class AsyncOrderIntake {
+
+    private final GroupCommitOrderWriter groupCommitOrderWriter;
+    private final Executor drainExecutor;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final BlockingQueue<QueuedOrder> queue;
+    private final Cache<String, IntakeState> statuses;
+
+    public AsyncOrderIntake(GroupCommitOrderWriter groupCommitOrderWriter,
+                            @Qualifier("orderIntakeExecutor") Executor drainExecutor,
+                            @Value("${order.async-intake.enabled:false}") boolean enabled,
+                            @Value("${order.async-intake.queue-capacity:5000}") int queueCapacity,
+                            @Value("${order.async-intake.max-batch-size:50}") int maxBatchSize,
+                            @Value("${order.async-intake.status-ttl-minutes:60}") long statusTtlMinutes,
+                            @Value("${order.async-intake.status-max-size:100000}") long statusMaxSize) {
+        this.groupCommitOrderWriter = groupCommitOrderWriter;
+        this.drainExecutor = drainExecutor;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(statusTtlMinutes))
+                .maximumSize(statusMaxSize)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues an order and returns its token.
+     *
+     * @throws OrderQueueFullException if the queue is at capacity or no drain could be scheduled
+     */
+    public OrderIntakeResponse submit(Long customerId, List<CreateOrderItemRequest> items, PaymentMethod paymentMethod) {
+        String token = UUID.randomUUID().toString();
+        QueuedOrder queued = new QueuedOrder(token, new PendingOrder(customerId, items, paymentMethod));
+
+        IntakeState state = new IntakeState(customerId, OrderIntakeStatus.QUEUED, null, null);
+        statuses.put(token, state);
+        if (!queue.offer(queued)) {
+            statuses.invalidate(token);
+            throw new OrderQueueFullException("Order queue is full, please retry later");
+        }
+
+        try {
+            drainExecutor.execute(this::drain);
+        } catch (RejectedExecutionException ex) {
+            // No drain may come after this one, so the request cannot be left behind in the queue.
+            // If a running drain already took it, it will be processed and the token stays valid.
+            if (queue.remove(queued)) {
+                statuses.invalidate(token);
+                log.warn("Executor rejected order drain, {} orders waiting", queue.size());
+                throw new OrderQueueFullException("Order queue is full, please retry later");
+            }
+        }
+        return toResponse(token, state);
+    }
+
+    /** Returns the status of a token, visible only to the customer that submitted it. */
+    public Optional<OrderIntakeResponse> status(Long customerId, String token) {
+        IntakeState state = statuses.getIfPresent(token);
+        if (state == null || !state.customerId().equals(customerId)) {
+            return Optional.empty();
+        }
+        return Optional.of(toResponse(token, state));
+    }
+
+    private void drain() {
+        // Keep going while there is a backlog rather than waiting for the next submission
+        List<QueuedOrder> batch = new ArrayList<>(maxBatchSize);
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            process(batch);
+            batch.clear();
+        }
+    }
+
+    private void process(List<QueuedOrder> batch) {
+        for (QueuedOrder queued : batch) {
+            update(queued, OrderIntakeStatus.PROCESSING, null, null);
+        }
+
+        groupCommitOrderWriter.write(batch.stream().map(QueuedOrder::pending).toList());
+
+        for (QueuedOrder queued : batch) {
+            try {
+                Order order = queued.pending().getResult().join();
+                update(queued, OrderIntakeStatus.COMPLETED, order.getId(), null);
+            } catch (CompletionException ex) {
+                Throwable cause = ex.getCause();
+                boolean rejected = cause instanceof InsufficientStockException || cause instanceof IllegalArgumentException;
+                update(queued, rejected ? OrderIntakeStatus.REJECTED : OrderIntakeStatus.FAILED, null, cause.getMessage());
+            }
+        }
+    }
+
+    private void update(QueuedOrder queued, OrderIntakeStatus status, Long orderId, String message) {
+        statuses.put(queued.token(), new IntakeState(queued.pending().getCustomerId(), status, orderId, message));
+    }
+
+    private static OrderIntakeResponse toResponse(String token, IntakeState state) {
+        return new OrderIntakeResponse(token, state.status(), state.orderId(), state.message());
+    }
+
+    private record QueuedOrder(String token, PendingOrder pending) {
+    }
+
+    private record IntakeState(Long customerId, OrderIntakeStatus status, Long orderId, String message) {
+    }
+}
@@ -0,0 +1,340 @@
+package com.intelligent.ecommerce.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.intelligent.ecommerce.utilities.PgVectorEncoder;
+import com.intelligent.ecommerce.vector.ProductVectorIndex;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills in {@code products.name_embedding} for products saved without one: new products from
+ * {@link ProductService#create}, bulk imports run with {@code embeddings=false} and import rows
+ * whose embedding call failed.
+ * <p>
+ * A worker thread claims up to {@code vector.backfill.batch-size} products in a short transaction:
+ * {@code FOR UPDATE SKIP LOCKED} picks rows nobody holds, and each one gets a lease in
+ * {@code embedding_claimed_at} and one more {@code embedding_attempts}. The transaction commits
+ * before the names are embedded with one {@code /api/embed} call, so no row lock or connection is
+ * held across the HTTP request. The vectors are written back with one batched update that only
+ * touches rows still carrying this worker's lease, and clears it. A lease that outlives
+ * {@code vector.backfill.lease-ms}, because its node died or its row failed, makes the row
+ * claimable again. {@link ProductImportService} leases the rows it embeds itself, so the two never
+ * embed the same product.
+ * <p>
+ * When Ollama cannot be reached or answers with a 5xx, the leases are released and the attempts
+ * handed back, and the batch is retried after an exponential backoff with jitter, from
+ * {@code vector.backfill.retry-initial-ms} up to {@code vector.backfill.retry-max-ms}. When a batch
+ * fails for any other reason its rows are embedded one by one, so a single bad name cannot hold
+ * back the rest; a row that still fails keeps its lease until it expires. After
+ * {@code vector.backfill.max-attempts} attempts a row is no longer claimed and stays without an
+ * embedding until someone resets {@code embedding_attempts}.
+ * <p>
+ * Newly embedded products only show up in search once the catalog generation moves on, which
+ * also retires every cached search result. The worker therefore bumps it at most once per
+ * {@code vector.backfill.generation-bump-interval-ms} while working through a backlog, and once
+ * more when the backlog is drained or a batch fails.
+ * <p>
+ * Once the backlog is empty the worker sleeps for {@code vector.backfill.poll-interval-ms}, or
+ * until a product is created on this node.
+ */
+@Slf4j
+@Component
+public class EmbeddingBackfill {
+
+    static final String CLAIM = """
+            SELECT id, name, embedding_attempts FROM products
+            WHERE name_embedding IS NULL
+              AND embedding_attempts < ?
+              AND (embedding_claimed_at IS NULL OR embedding_claimed_at < ?)
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+    static final String LEASE =
+            "UPDATE products SET embedding_claimed_at = ?, embedding_attempts = embedding_attempts + 1 WHERE id = ?";
+    // Shared with ProductImportService: both only write rows they still hold the lease on
+    static final String UPDATE_EMBEDDING = """
+            UPDATE products SET name_embedding = CAST(? AS vector), embedding_claimed_at = NULL
+            WHERE id = ? AND embedding_claimed_at = ?
+            """;
+    static final String RELEASE = "UPDATE products SET embedding_claimed_at = NULL WHERE id = ? AND embedding_claimed_at = ?";
+    static final String RELEASE_AND_REFUND = """
+            UPDATE products SET embedding_claimed_at = NULL, embedding_attempts = embedding_attempts - 1
+            WHERE id = ? AND embedding_claimed_at = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VectorService vectorService;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final ProductVectorIndex productVectorIndex;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long leaseMillis;
+    private final long pollIntervalMillis;
+    private final long retryInitialMillis;
+    private final long retryMaxMillis;
+    private final long generationBumpIntervalNanos;
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    // Only touched by the thread running the batches
+    private boolean unpublished;
+    private long lastBump;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public EmbeddingBackfill(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             VectorService vectorService,
+                             ProductCacheInvalidator productCacheInvalidator,
+                             ProductVectorIndex productVectorIndex,
+                             @Value("${vector.backfill.enabled:true}") boolean enabled,
+                             @Value("${vector.backfill.batch-size:64}") int batchSize,
+                             @Value("${vector.backfill.max-attempts:5}") int maxAttempts,
+                             @Value("${vector.backfill.lease-ms:300000}") long leaseMillis,
+                             @Value("${vector.backfill.poll-interval-ms:5000}") long pollIntervalMillis,
+                             @Value("${vector.backfill.retry-initial-ms:1000}") long retryInitialMillis,
+                             @Value("${vector.backfill.retry-max-ms:60000}") long retryMaxMillis,
+                             @Value("${vector.backfill.generation-bump-interval-ms:10000}") long generationBumpIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.vectorService = vectorService;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.productVectorIndex = productVectorIndex;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.leaseMillis = leaseMillis;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.retryInitialMillis = retryInitialMillis;
+        this.retryMaxMillis = retryMaxMillis;
+        this.generationBumpIntervalNanos = TimeUnit.MILLISECONDS.toNanos(generationBumpIntervalMillis);
+        this.lastBump = System.nanoTime() - generationBumpIntervalNanos;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "embedding-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /** Starts a backfill pass as soon as the surrounding transaction commits. */
+    public void wakeUpAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUps.release();
+                }
+            });
+        } else {
+            wakeUps.release();
+        }
+    }
+
+    private void run() {
+        long backoff = retryInitialMillis;
+        while (running) {
+            try {
+                if (backfillBatch() < batchSize) {
+                    // Backlog drained: publish what was written, then wait for the next create or poll
+                    publishEmbeddings(true);
+                    wakeUps.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                }
+                backoff = retryInitialMillis;
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                publishEmbeddings(true);
+                long delay = ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+                log.warn("Embedding backfill failed, retrying in {} ms", delay, ex);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, retryMaxMillis);
+            }
+        }
+    }
+
+    /**
+     * Claims, embeds and writes back one batch. Returns the number of products claimed, so a full
+     * batch means there may be more waiting.
+     *
+     * @throws ResourceAccessException if Ollama cannot be reached; the batch is handed back
+     * @throws HttpServerErrorException if Ollama answers with a 5xx; the batch is handed back
+     */
+    int backfillBatch() {
+        Timestamp lease = newLease();
+        List<ClaimedProduct> claimed = claim(lease);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<float[]> vectors;
+        try {
+            vectors = vectorService.embedAll(claimed.stream().map(ClaimedProduct::name).toList());
+        } catch (RuntimeException ex) {
+            if (isOutage(ex)) {
+                // Not the rows' fault: give the attempts back
+                release(claimed, lease, RELEASE_AND_REFUND);
+                throw ex;
+            }
+            if (claimed.size() == 1) {
+                failed(claimed.get(0), ex);
+            } else {
+                log.warn("Batched embedding of {} products failed, embedding them one by one", claimed.size(), ex);
+                embedOneByOne(claimed, lease);
+            }
+            return claimed.size();
+        }
+        write(claimed, vectors, lease);
+        return claimed.size();
+    }
+
+    /** A lease value; truncated so it compares equal after a round trip through the database. */
+    static Timestamp newLease() {
+        return Timestamp.from(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    private List<ClaimedProduct> claim(Timestamp lease) {
+        Timestamp expired = new Timestamp(lease.getTime() - leaseMillis);
+        List<ClaimedProduct> claimed = transactionTemplate.execute(status -> {
+            List<ClaimedProduct> rows = jdbcTemplate.query(CLAIM,
+                    (rs, rowNum) -> new ClaimedProduct(rs.getLong("id"), rs.getString("name"), rs.getInt("embedding_attempts") + 1),
+                    maxAttempts, expired, batchSize);
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(LEASE, rows.stream().map(row -> new Object[]{lease, row.id()}).toList());
+            }
+            return rows;
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+
+    private void embedOneByOne(List<ClaimedProduct> claimed, Timestamp lease) {
+        List<ClaimedProduct> embedded = new ArrayList<>(claimed.size());
+        List<float[]> vectors = new ArrayList<>(claimed.size());
+        for (int i = 0; i < claimed.size(); i++) {
+            ClaimedProduct product = claimed.get(i);
+            try {
+                vectors.add(vectorService.embedAll(List.of(product.name())).get(0));
+                embedded.add(product);
+            } catch (RuntimeException ex) {
+                if (isOutage(ex)) {
+                    write(embedded, vectors, lease);
+                    release(claimed.subList(i, claimed.size()), lease, RELEASE_AND_REFUND);
+                    throw ex;
+                }
+                failed(product, ex);
+            }
+        }
+        write(embedded, vectors, lease);
+    }
+
+    // Ollama unreachable or failing as a whole, as opposed to rejecting these names
+    private static boolean isOutage(RuntimeException ex) {
+        return ex instanceof ResourceAccessException || ex instanceof HttpServerErrorException;
+    }
+
+    // The row keeps its lease, so its next attempt waits for the lease to expire
+    private void failed(ClaimedProduct product, RuntimeException ex) {
+        if (product.attempts() >= maxAttempts) {
+            log.error("Product {} failed to embed {} times, leaving it without an embedding",
+                    product.id(), product.attempts(), ex);
+        } else {
+            log.warn("Embedding product {} failed (attempt {} of {})", product.id(), product.attempts(), maxAttempts, ex);
+        }
+    }
+
+    private void write(List<ClaimedProduct> claimed, List<float[]> vectors, Timestamp lease) {
+        if (claimed.isEmpty()) {
+            return;
+        }
+        int written = transactionTemplate.execute(status -> {
+            List<Object[]> updates = new ArrayList<>(claimed.size());
+            for (int i = 0; i < claimed.size(); i++) {
+                updates.add(new Object[]{PgVectorEncoder.encode(vectors.get(i)), claimed.get(i).id(), lease});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_EMBEDDING, updates);
+
+            int stillLeased = 0;
+            for (int i = 0; i < claimed.size(); i++) {
+                // Zero rows: the lease expired and another worker owns the row now
+                if (counts[i] != 0) {
+                    productVectorIndex.addAfterCommit(claimed.get(i).id(), vectors.get(i));
+                    stillLeased++;
+                }
+            }
+            return stillLeased;
+        });
+        log.debug("Embedding backfill wrote {} of {} embeddings", written, claimed.size());
+        if (written > 0) {
+            unpublished = true;
+            publishEmbeddings(false);
+        }
+    }
+
+    /**
+     * Cached search results were computed without the products embedded since the last bump.
+     * Bumps the catalog generation for them now if the backlog is done ({@code drained}) or the
+     * last bump is at least {@code generation-bump-interval-ms} old.
+     */
+    void publishEmbeddings(boolean drained) {
+        long now = System.nanoTime();
+        if (unpublished && (drained || now - lastBump >= generationBumpIntervalNanos)) {
+            unpublished = false;
+            lastBump = now;
+            productCacheInvalidator.bumpCatalogGenerationAfterCommit();
+        }
+    }
+
+    private void release(List<ClaimedProduct> claimed, Timestamp lease, String sql) {
+        try {
+            jdbcTemplate.batchUpdate(sql, claimed.stream().map(row -> new Object[]{row.id(), lease}).toList());
+        } catch (DataAccessException ex) {
+            log.warn("Could not release {} embedding leases, they expire in {} ms", claimed.size(), leaseMillis, ex);
+        }
+    }
+
+    private record ClaimedProduct(long id, String name, int attempts) {
+    }
+}
@@ -0,0 +1,185 @@
+package com.intelligent.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dynamic micro-batching for single-text embedding calls.
+ * <p>
+ * Concurrent callers are queued and drained by one dispatcher thread into batches of at most
+ * {@code maxBatchSize} texts, waiting no longer than {@code maxWait} for a batch to fill. Each
+ * batch is embedded with one call to {@code embedAll} and every caller gets the vector at its own
+ * position back. While a batch is in flight the next one fills up, so batches grow with load and
+ * a single caller on an idle node pays at most {@code maxWait} extra.
+ * <p>
+ * A caller waits at most {@code resultTimeout} for its batch and then embeds its text on its own.
+ * Should the dispatcher stop on its own, batching switches off and queued texts are handed back
+ * to their callers the same way.
+ */
+@Slf4j
+class EmbeddingBatcher {
+
+    private final Function<List<String>, List<float[]>> embedAll;
+    private final Function<String, float[]> embedOne;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long resultTimeoutMillis;
+    private final BlockingQueue<PendingEmbedding> queue;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    EmbeddingBatcher(Function<List<String>, List<float[]>> embedAll,
+                     Function<String, float[]> embedOne,
+                     int maxBatchSize,
+                     long maxWaitMillis,
+                     int queueCapacity,
+                     long resultTimeoutMillis) {
+        this.embedAll = embedAll;
+        this.embedOne = embedOne;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.resultTimeoutMillis = resultTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    void start() {
+        running = true;
+        dispatcher = new Thread(this::drain, "embedding-batcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Embeds {@code text} as part of the next batch. Falls back to a call of its own when the
+     * batcher is stopped, the queue is full or the batch does not answer in time.
+     */
+    float[] embed(String text) {
+        if (!running) {
+            return embedOne.apply(text);
+        }
+
+        PendingEmbedding pending = new PendingEmbedding(text, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            return embedOne.apply(text);
+        }
+        // The dispatcher may have exited between the check above and the offer; take the text back
+        if (!running && queue.remove(pending)) {
+            return embedOne.apply(text);
+        }
+
+        try {
+            return pending.result().get(resultTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof NotSent) {
+                return embedOne.apply(text);
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Batched embedding failed", ex.getCause());
+        } catch (TimeoutException ex) {
+            // Embedding has no side effects, so a late batch only costs a second call
+            queue.remove(pending);
+            log.warn("Batched embedding did not answer within {} ms, embedding on its own", resultTimeoutMillis);
+            return embedOne.apply(text);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the embedding", ex);
+        }
+    }
+
+    private void drain() {
+        List<PendingEmbedding> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingEmbedding first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+
+                    // Whatever queued up during the previous call goes out at once, without waiting
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long deadline = System.nanoTime() + maxWaitNanos;
+                    while (batch.size() < maxBatchSize) {
+                        PendingEmbedding next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                } catch (InterruptedException ex) {
+                    // Shutting down: send the partial batch, the loop condition drains the rest
+                }
+
+                if (!batch.isEmpty()) {
+                    List<PendingEmbedding> sending = batch;
+                    batch = new ArrayList<>(maxBatchSize);
+                    try {
+                        send(sending);
+                    } catch (Error err) {
+                        // send() already failed the batch's callers; keep serving the next batches
+                        log.error("Batched embedding of {} texts failed", sending.size(), err);
+                    }
+                }
+            }
+        } catch (Throwable ex) {
+            log.error("Embedding batcher stopped, texts are embedded one by one", ex);
+        } finally {
+            running = false;
+            // Texts the dispatcher never sent are handed back; embed() sends them itself
+            batch.forEach(pending -> pending.result().completeExceptionally(new NotSent()));
+            PendingEmbedding left;
+            while ((left = queue.poll()) != null) {
+                left.result().completeExceptionally(new NotSent());
+            }
+        }
+    }
+
+    /** Embeds a batch with one call and completes every caller with the vector at its position. */
+    void send(List<PendingEmbedding> batch) {
+        List<float[]> vectors;
+        try {
+            vectors = embedAll.apply(batch.stream().map(PendingEmbedding::text).toList());
+        } catch (RuntimeException ex) {
+            log.warn("Batched embedding of {} texts failed", batch.size(), ex);
+            batch.forEach(pending -> pending.result().completeExceptionally(ex));
+            return;
+        } catch (Error err) {
+            batch.forEach(pending -> pending.result().completeExceptionally(err));
+            throw err;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(vectors.get(i));
+        }
+    }
+
+    record PendingEmbedding(String text, CompletableFuture<float[]> result) {
+    }
+
+    // Marks a text the dispatcher handed back unsent
+    private static final class NotSent extends RuntimeException {
+        NotSent() {
+            super("Embedding batcher stopped", null, false, false);
+        }
+    }
+}
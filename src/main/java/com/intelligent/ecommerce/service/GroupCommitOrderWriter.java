@@ -0,0 +1,214 @@
+package com.intelligent.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.entity.Order;
+import com.intelligent.ecommerce.enums.PaymentMethod;
+import com.intelligent.ecommerce.exception.OrderWriteTimeoutException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Group-commit front end for {@link OrderService}.
+ * <p>
+ * Concurrent requests are queued and drained by a single writer thread into micro-batches of at
+ * most {@code order.group-commit.max-batch-size} requests, waiting no longer than
+ * {@code order.group-commit.max-wait-ms} for a batch to fill. Each batch is written by
+ * {@link OrderService#createOrders(List)} in one transaction, so many orders share one commit.
+ * Callers block until their own order is committed or rejected, for at most
+ * {@code order.group-commit.result-timeout-ms}.
+ * <p>
+ * If the writer thread ever stops on its own, group commit switches off: requests it never
+ * picked up are handed back to their callers, who write them in a transaction of their own.
+ */
+@Slf4j
+@Component
+public class GroupCommitOrderWriter {
+
+    private final OrderService orderService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long resultTimeoutMillis;
+    private final BlockingQueue<PendingOrder> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public GroupCommitOrderWriter(OrderService orderService,
+                                  @Value("${order.group-commit.enabled:false}") boolean enabled,
+                                  @Value("${order.group-commit.max-batch-size:50}") int maxBatchSize,
+                                  @Value("${order.group-commit.max-wait-ms:5}") long maxWaitMillis,
+                                  @Value("${order.group-commit.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${order.group-commit.result-timeout-ms:30000}") long resultTimeoutMillis) {
+        this.orderService = orderService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.resultTimeoutMillis = resultTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "order-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Creates an order, sharing a transaction with other concurrent callers when group commit is
+     * enabled. Falls back to a dedicated transaction when disabled or when the queue is full.
+     */
+    public Order createOrder(Long customerId, List<CreateOrderItemRequest> items, PaymentMethod paymentMethod) {
+        if (!running) {
+            return orderService.createOrder(customerId, items, paymentMethod);
+        }
+
+        PendingOrder pending = new PendingOrder(customerId, items, paymentMethod);
+        if (!queue.offer(pending)) {
+            return orderService.createOrder(customerId, items, paymentMethod);
+        }
+        // The writer may have exited between the check above and the offer; take the order back
+        if (!running && queue.remove(pending)) {
+            return orderService.createOrder(customerId, items, paymentMethod);
+        }
+
+        try {
+            return pending.getResult().get(resultTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof NotWritten) {
+                return orderService.createOrder(customerId, items, paymentMethod);
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Group commit failed", ex.getCause());
+        } catch (TimeoutException ex) {
+            if (queue.remove(pending)) {
+                // Never picked up, so nothing was written yet
+                return orderService.createOrder(customerId, items, paymentMethod);
+            }
+            throw new OrderWriteTimeoutException("Order outcome unknown after " + resultTimeoutMillis
+                    + " ms, retry with the same Idempotency-Key");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new OrderWriteTimeoutException("Interrupted while waiting for the order to be written");
+        }
+    }
+
+    private void drain() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+
+                    long deadline = System.nanoTime() + maxWaitNanos;
+                    while (batch.size() < maxBatchSize) {
+                        PendingOrder next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                } catch (InterruptedException ex) {
+                    // Shutting down: flush the partial batch, the loop condition drains the rest
+                }
+
+                if (!batch.isEmpty()) {
+                    List<PendingOrder> writing = batch;
+                    batch = new ArrayList<>(maxBatchSize);
+                    try {
+                        write(writing);
+                    } catch (Error err) {
+                        // write() already failed the batch's callers; keep serving the next batches
+                        log.error("Group commit of {} orders failed", writing.size(), err);
+                    }
+                }
+            }
+        } catch (Throwable ex) {
+            log.error("Group commit writer stopped, orders fall back to their own transactions", ex);
+        } finally {
+            running = false;
+            // Requests the writer never took are handed back; createOrder writes them itself
+            batch.forEach(pending -> pending.getResult().completeExceptionally(new NotWritten()));
+            PendingOrder left;
+            while ((left = queue.poll()) != null) {
+                left.getResult().completeExceptionally(new NotWritten());
+            }
+        }
+    }
+
+    /**
+     * Writes a batch in one transaction and completes every request's future. If the shared
+     * transaction fails, the batch is split in half and each half retried, so a bad request costs
+     * its neighbours a few extra transactions rather than one each; a request left on its own is
+     * retried through {@link OrderService#createOrder}.
+     */
+    void write(List<PendingOrder> batch) {
+        try {
+            orderService.createOrders(batch);
+            batch.forEach(PendingOrder::complete);
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                writeAlone(batch.get(0));
+                return;
+            }
+            // One bad request must not fail its neighbours: narrow it down instead of retrying all
+            log.warn("Group commit of {} orders failed, retrying in halves", batch.size(), ex);
+            int half = batch.size() / 2;
+            write(batch.subList(0, half));
+            write(batch.subList(half, batch.size()));
+        } catch (Error err) {
+            // Nobody may be left waiting; callers already answered keep their outcome
+            batch.forEach(pending -> pending.getResult().completeExceptionally(err));
+            throw err;
+        }
+    }
+
+    private void writeAlone(PendingOrder pending) {
+        try {
+            pending.getResult().complete(
+                orderService.createOrder(pending.getCustomerId(), pending.getItems(), pending.getPaymentMethod()));
+        } catch (RuntimeException | Error ex) {
+            pending.getResult().completeExceptionally(ex);
+        }
+    }
+
+    // Marks a request the writer handed back unwritten
+    private static final class NotWritten extends RuntimeException {
+        NotWritten() {
+            super("Group commit writer stopped", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.intelligent.ecommerce.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.intelligent.ecommerce.exception.IdempotencyConflictException;
+import com.intelligent.ecommerce.exception.IdempotencyKeyMismatchException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Makes order creation safe to retry with an {@code Idempotency-Key}, whether the order is created
+ * inline or accepted by {@link AsyncOrderIntake}.
+ * <p>
+ * Completed results are kept in a local Caffeine cache and in Redis, so a replay is answered
+ * without touching Postgres. While a request is running, duplicates on the same node wait on its
+ * future, and duplicates on other nodes see an in-flight marker in Redis and poll for the result.
+ * A failed request clears its marker so the client can retry it. If Redis is unavailable the
+ * guarantee degrades to a single node rather than failing the request.
+ * <p>
+ * Every key is bound to a SHA-256 fingerprint of the request body and result type it was first
+ * used with; reusing it with a different body is rejected instead of replaying an unrelated order. The in-flight
+ * marker names its owner and is extended every third of {@code idempotency.in-flight-ttl-seconds}
+ * while the request runs, so a slow order never loses its marker to a duplicate. If the finished
+ * result cannot be written to Redis, the marker is kept for the result TTL instead and the write is
+ * retried in the background.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final String KEY_PREFIX = "idempotency:orders:";
+    private static final String IN_FLIGHT = "IN_FLIGHT";
+    private static final long POLL_INTERVAL_MS = 50;
+
+    // Only the owner of a marker may extend or delete it
+    static final RedisScript<Long> EXTEND_MARKER = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+    static final RedisScript<Long> RELEASE_MARKER = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration resultTtl;
+    private final Duration inFlightTtl;
+    private final Duration waitTimeout;
+    private final Cache<String, StoredResult> completed;
+    private final ConcurrentHashMap<String, RunningRequest> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IdempotencyService(StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.result-ttl-hours:24}") long resultTtlHours,
+                              @Value("${idempotency.in-flight-ttl-seconds:30}") long inFlightTtlSeconds,
+                              @Value("${idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis,
+                              @Value("${idempotency.local-max-size:10000}") long localMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.resultTtl = Duration.ofHours(resultTtlHours);
+        this.inFlightTtl = Duration.ofSeconds(inFlightTtlSeconds);
+        this.waitTimeout = Duration.ofMillis(waitTimeoutMillis);
+        this.completed = Caffeine.newBuilder()
+                .expireAfterWrite(resultTtl)
+                .maximumSize(localMaxSize)
+                .build();
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+    }
+
+    /**
+     * Runs {@code action} at most once per customer and key, returning the stored result on replays.
+     *
+     * @param request      the request body the key is bound to
+     * @param responseType the type of the stored result
+     * @throws IdempotencyConflictException    if another request with the same key is still running
+     *                                         when the wait timeout expires
+     * @throws IdempotencyKeyMismatchException if the key was already used with a different request body
+     */
+    public <T> T execute(Long customerId, String idempotencyKey, Object request, Class<T> responseType, Supplier<T> action) {
+        String key = KEY_PREFIX + customerId + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request, responseType);
+
+        StoredResult cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return replay(cached, fingerprint, responseType);
+        }
+
+        String marker = marker(fingerprint);
+        RunningRequest mine = new RunningRequest(fingerprint, new CompletableFuture<>());
+        RunningRequest running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            checkFingerprint(running.fingerprint(), fingerprint);
+            return replay(await(running.result()), fingerprint, responseType);
+        }
+
+        try {
+            StoredResult result = claimOrReplay(key, fingerprint, marker, responseType);
+            if (result == null) {
+                result = runAndStore(key, fingerprint, marker, action);
+            }
+            mine.result().complete(result);
+            return replay(result, fingerprint, responseType);
+        } catch (RuntimeException ex) {
+            mine.result().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Returns the stored result if another request already finished, waits while one is in flight
+     * elsewhere, or returns {@code null} once this request holds the in-flight marker.
+     */
+    private StoredResult claimOrReplay(String key, String fingerprint, String marker, Class<?> responseType) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            String stored;
+            try {
+                Boolean claimed = redisTemplate.opsForValue().setIfAbsent(key, marker, inFlightTtl);
+                if (Boolean.TRUE.equals(claimed)) {
+                    return null;
+                }
+                stored = redisTemplate.opsForValue().get(key);
+            } catch (DataAccessException ex) {
+                log.warn("Redis unavailable for idempotency key {}, falling back to local state", key, ex);
+                return null;
+            }
+
+            if (stored != null && stored.startsWith(IN_FLIGHT)) {
+                checkFingerprint(markerFingerprint(stored), fingerprint);
+            } else if (stored != null) {
+                StoredResult result = deserialize(stored, responseType);
+                checkFingerprint(result.fingerprint(), fingerprint);
+                completed.put(key, result);
+                return result;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+            }
+            sleep();
+        }
+    }
+
+    private StoredResult runAndStore(String key, String fingerprint, String marker, Supplier<?> action) {
+        ScheduledFuture<?> heartbeat = startHeartbeat(key, marker);
+        StoredResult result;
+        try {
+            result = new StoredResult(fingerprint, action.get());
+        } catch (RuntimeException ex) {
+            heartbeat.cancel(false);
+            releaseMarker(key, marker);
+            throw ex;
+        }
+        heartbeat.cancel(false);
+
+        completed.put(key, result);
+        String json = serialize(result);
+        try {
+            redisTemplate.opsForValue().set(key, json, resultTtl);
+        } catch (DataAccessException ex) {
+            log.warn("Could not store idempotent result for key {} in Redis, retrying in the background", key, ex);
+            keepMarkerUntilStored(key, marker, json);
+        }
+        return result;
+    }
+
+    /**
+     * Until the result reaches Redis, the in-flight marker is all that stops another node from
+     * running the order again, so it is extended to the result TTL and the store is retried every
+     * heartbeat interval for as long as that TTL lasts.
+     */
+    private void keepMarkerUntilStored(String key, String marker, String json) {
+        try {
+            redisTemplate.execute(EXTEND_MARKER, List.of(key), marker, Long.toString(resultTtl.toMillis()));
+        } catch (DataAccessException ex) {
+            log.debug("Could not extend idempotency marker {}", key, ex);
+        }
+        retryStore(key, json, System.nanoTime() + resultTtl.toNanos());
+    }
+
+    private void retryStore(String key, String json, long deadline) {
+        long interval = Math.max(inFlightTtl.toMillis() / 3, 1);
+        heartbeats.schedule(() -> {
+            try {
+                redisTemplate.opsForValue().set(key, json, resultTtl);
+                log.info("Stored idempotent result for key {} in Redis after a retry", key);
+            } catch (DataAccessException ex) {
+                if (System.nanoTime() < deadline) {
+                    retryStore(key, json, deadline);
+                } else {
+                    log.error("Gave up storing idempotent result for key {} in Redis", key, ex);
+                }
+            }
+        }, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /** Keeps the in-flight marker alive for as long as the request runs. */
+    private ScheduledFuture<?> startHeartbeat(String key, String marker) {
+        long interval = Math.max(inFlightTtl.toMillis() / 3, 1);
+        String ttl = Long.toString(inFlightTtl.toMillis());
+        return heartbeats.scheduleAtFixedRate(() -> {
+            try {
+                Long extended = redisTemplate.execute(EXTEND_MARKER, List.of(key), marker, ttl);
+                if (extended != null && extended == 0) {
+                    log.warn("Idempotency marker {} was lost while its request was still running", key);
+                }
+            } catch (DataAccessException ex) {
+                log.debug("Could not extend idempotency marker {}", key, ex);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void releaseMarker(String key, String marker) {
+        try {
+            redisTemplate.execute(RELEASE_MARKER, List.of(key), marker);
+        } catch (DataAccessException ex) {
+            log.warn("Could not release idempotency marker {}, it expires in {}", key, inFlightTtl, ex);
+        }
+    }
+
+    private StoredResult await(CompletableFuture<StoredResult> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for a duplicate request");
+        }
+    }
+
+    private static <T> T replay(StoredResult stored, String fingerprint, Class<T> responseType) {
+        checkFingerprint(stored.fingerprint(), fingerprint);
+        return responseType.cast(stored.response());
+    }
+
+    // A null fingerprint comes from an entry written before fingerprints were stored
+    private static void checkFingerprint(String stored, String fingerprint) {
+        if (stored != null && !stored.equals(fingerprint)) {
+            throw new IdempotencyKeyMismatchException("This Idempotency-Key was already used with a different request");
+        }
+    }
+
+    private static String marker(String fingerprint) {
+        return IN_FLIGHT + ":" + fingerprint + ":" + UUID.randomUUID();
+    }
+
+    private static String markerFingerprint(String marker) {
+        String[] parts = marker.split(":");
+        return parts.length == 3 ? parts[1] : null;
+    }
+
+    private String fingerprint(Object request, Class<?> responseType) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(responseType.getName().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Could not fingerprint idempotent request", ex);
+        }
+    }
+
+    private String serialize(StoredResult result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize idempotent result", ex);
+        }
+    }
+
+    private StoredResult deserialize(String json, Class<?> responseType) {
+        try {
+            JsonNode node = objectMapper.readTree(json);
+            if (node.has("fingerprint") && node.has("response")) {
+                return new StoredResult(node.get("fingerprint").asText(),
+                        objectMapper.treeToValue(node.get("response"), responseType));
+            }
+            return new StoredResult(null, objectMapper.treeToValue(node, responseType));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not deserialize idempotent result", ex);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for a duplicate request");
+        }
+    }
+
+    record StoredResult(String fingerprint, Object response) {
+    }
+
+    private record RunningRequest(String fingerprint, CompletableFuture<StoredResult> result) {
+    }
+}
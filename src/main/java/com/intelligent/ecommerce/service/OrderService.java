@@ -5,43 +5,109 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
 
 import com.example.mylib.printer.HiPrinter;
+import com.intelligent.ecommerce.dto.common.CursorPaginatedResponse;
 import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
 import com.intelligent.ecommerce.entity.Order;
 import com.intelligent.ecommerce.entity.OrderItem;
 import com.intelligent.ecommerce.entity.Payment;
 import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
 import com.intelligent.ecommerce.entity.User;
+import com.intelligent.ecommerce.enums.InventoryStrategy;
 import com.intelligent.ecommerce.enums.OrderStatus;
 import com.intelligent.ecommerce.enums.PaymentMethod;
 import com.intelligent.ecommerce.event.OrderCreatedEvent;
 import com.intelligent.ecommerce.exception.InsufficientStockException;
 import com.intelligent.ecommerce.repository.OrderRepository;
 import com.intelligent.ecommerce.repository.PaymentRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
 import com.intelligent.ecommerce.repository.ProductRepository;
 import com.intelligent.ecommerce.repository.UserRepository;
 import com.intelligent.ecommerce.repository.projection.OrderReportRow;
+import com.intelligent.ecommerce.utilities.OrderCursor;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 
 @Service
+@Validated
 @RequiredArgsConstructor
 public class OrderService {
     private final ProductRepository productRepository;
+    private final ProductInventoryRepository productInventoryRepository;
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final StockReservationLedger stockReservationLedger;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCacheInvalidator productCacheInvalidator;
 
+    @Value("${inventory.strategy:PESSIMISTIC_LOCK}")
+    private InventoryStrategy inventoryStrategy = InventoryStrategy.PESSIMISTIC_LOCK;
+
+    /**
+     * Pages order ids in SQL, then loads the payment/items/product graph for just that page.
+     */
     public Page<Order> listOrders(Long customerId, Pageable pageable) {
-        return orderRepository.findAllByCustomerId(customerId, pageable);
+        Page<Long> ids = orderRepository.findIdsByCustomerId(customerId, pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+
+        Map<Long, Order> ordersById = orderRepository.findAllWithDetailsByIdIn(ids.getContent()).stream()
+            .collect(java.util.stream.Collectors.toMap(Order::getId, o -> o));
+
+        List<Order> orders = ids.getContent().stream()
+            .map(ordersById::get)
+            .toList();
+
+        return new PageImpl<>(orders, pageable, ids.getTotalElements());
+    }
+
+    /**
+     * Keyset variant of {@link #listOrders(Long, Pageable)}: seeks past {@code cursor} on
+     * {@code (createdAt, id)} instead of skipping rows, and never counts the full history.
+     */
+    public CursorPaginatedResponse<Order> listOrders(Long customerId, String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<Long> ids;
+        if (cursor == null || cursor.isBlank()) {
+            ids = orderRepository.findFirstIdsByCustomerId(customerId, limit);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            ids = orderRepository.findIdsByCustomerIdAfter(customerId, after.createdAt(), after.id(), limit);
+        }
+
+        boolean hasMore = ids.size() > size;
+        List<Long> pageIds = hasMore ? ids.subList(0, size) : ids;
+        if (pageIds.isEmpty()) {
+            return new CursorPaginatedResponse<>(List.of(), null, false, size);
+        }
+
+        Map<Long, Order> ordersById = orderRepository.findAllWithDetailsByIdIn(pageIds).stream()
+            .collect(java.util.stream.Collectors.toMap(Order::getId, o -> o));
+
+        List<Order> orders = pageIds.stream()
+            .map(ordersById::get)
+            .toList();
+
+        Order last = orders.get(orders.size() - 1);
+        String nextCursor = hasMore ? new OrderCursor(last.getCreatedAt(), last.getId()).encode() : null;
+        return new CursorPaginatedResponse<>(orders, nextCursor, hasMore, size);
     }
 
     public List<OrderReportRow> findHighValueOrders() {
@@ -51,17 +117,144 @@ public class OrderService {
     }
 
     @Transactional
-    public Order createOrder(Long customerId, @Valid List<CreateOrderItemRequest> rawItems, PaymentMethod paymentMethod) {
+    public Order createOrder(Long customerId, @Valid @Size(min = 1) List<CreateOrderItemRequest> rawItems, PaymentMethod paymentMethod) {
+
+        // Reject sold-out lines before queueing on the row locks below
+        if (stockReservationLedger.isEnabled()) {
+            stockReservationLedger.reserve(rawItems);
+        }
 
         List<Long> productIds = rawItems.stream()
             .map(CreateOrderItemRequest::getProductId)
             .sorted()
             .toList();
 
-        List<Product> products = productRepository.findAllForUpdateByIdIn(productIds);
+        Order order;
+        if (inventoryStrategy == InventoryStrategy.CONDITIONAL_UPDATE) {
+            decrementStock(rawItems);
+            order = buildOrder(customerId, rawItems, paymentMethod, loadProducts(productIds), null);
+        } else {
+            Map<Long, ProductInventory> inventoryMap = lockInventory(productIds);
+            order = buildOrder(customerId, rawItems, paymentMethod, loadProducts(productIds), inventoryMap);
+        }
+        order = orderRepository.save(order);
+        // Cached product views carry stock, so drop exactly the products this order touched
+        productCacheInvalidator.evictAfterCommit(productIds);
+
+        eventPublisher.publishEvent(new OrderCreatedEvent(order.getId()));
+
+        return order;
+    }
+
+    /**
+     * Writes a group of independent orders in one transaction. Inventory rows for the whole group
+     * are locked once, in product id order; a request that cannot be fulfilled is rejected on its
+     * own without touching stock, so it does not roll back the others. Outcomes are recorded on each
+     * {@link PendingOrder} and only handed to callers once this method has committed.
+     * Batches always use row locks, whatever the configured {@link InventoryStrategy}.
+     */
+    @Transactional
+    public void createOrders(List<PendingOrder> batch) {
+
+        List<Long> productIds = batch.stream()
+            .flatMap(p -> p.getItems().stream())
+            .map(CreateOrderItemRequest::getProductId)
+            .distinct()
+            .sorted()
+            .toList();
+
+        Map<Long, ProductInventory> inventoryMap = lockInventory(productIds);
+        Map<Long, Product> productMap = loadProducts(productIds);
+
+        List<Order> orders = new ArrayList<>();
+        for (PendingOrder pending : batch) {
+            StockReservationLedger.Reservation reservation = null;
+            try {
+                if (stockReservationLedger.isEnabled()) {
+                    reservation = stockReservationLedger.reserve(pending.getItems());
+                }
+                Order order = buildOrder(pending.getCustomerId(), pending.getItems(), pending.getPaymentMethod(), productMap, inventoryMap);
+                pending.accept(order);
+                orders.add(order);
+            } catch (InsufficientStockException | IllegalArgumentException ex) {
+                // The batch still commits, so hand this request's reservation back explicitly
+                if (reservation != null) {
+                    reservation.release();
+                }
+                pending.reject(ex);
+            }
+        }
+
+        orderRepository.saveAll(orders);
+        productCacheInvalidator.evictAfterCommit(productIds);
+
+        for (Order order : orders) {
+            eventPublisher.publishEvent(new OrderCreatedEvent(order.getId()));
+        }
+    }
+
+    // Only the narrow inventory rows are locked; products are read without a lock for prices
+    private Map<Long, ProductInventory> lockInventory(List<Long> sortedProductIds) {
+        return productInventoryRepository.findAllForUpdateByProductIdIn(sortedProductIds).stream()
+            .collect(java.util.stream.Collectors.toMap(ProductInventory::getProductId, i -> i));
+    }
 
-        Map<Long, Product> productMap = products.stream()
+    private Map<Long, Product> loadProducts(List<Long> productIds) {
+        return productRepository.findAllById(productIds).stream()
             .collect(java.util.stream.Collectors.toMap(Product::getId, p -> p));
+    }
+
+    /**
+     * Applies every line with {@code UPDATE ... WHERE stock_quantity >= ?} in one JDBC batch, in
+     * product id order. Each row is locked only from its update until commit, and a line whose
+     * update matches no row fails the whole order.
+     */
+    private void decrementStock(List<CreateOrderItemRequest> rawItems) {
+        List<CreateOrderItemRequest> sorted = rawItems.stream()
+            .sorted(java.util.Comparator.comparing(CreateOrderItemRequest::getProductId))
+            .toList();
+
+        int[] counts = jdbcTemplate.batchUpdate(
+            "UPDATE product_inventory SET stock_quantity = stock_quantity - ? WHERE product_id = ? AND stock_quantity >= ?",
+            sorted.stream()
+                .map(item -> new Object[]{item.getQuantity(), item.getProductId(), item.getQuantity()})
+                .toList()
+        );
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                Long productId = sorted.get(i).getProductId();
+                if (!productInventoryRepository.existsById(productId)) {
+                    throw new IllegalArgumentException("Product not found: " + productId);
+                }
+                if (stockReservationLedger.isEnabled()) {
+                    stockReservationLedger.invalidate(productId);
+                }
+                throw new InsufficientStockException("Insufficient stock for product " + productId);
+            }
+        }
+    }
+
+    /**
+     * Checks every line against the locked inventory rows before decrementing any of them, so a
+     * rejected order leaves the shared inventory entities untouched. With {@code inventoryMap} null
+     * the stock has already been decremented in SQL and only the products are read, for prices.
+     */
+    private Order buildOrder(Long customerId, List<CreateOrderItemRequest> rawItems, PaymentMethod paymentMethod,
+                             Map<Long, Product> productMap, Map<Long, ProductInventory> inventoryMap) {
+
+        for (CreateOrderItemRequest reqItem : rawItems) {
+            Long productId = reqItem.getProductId();
+            if (!productMap.containsKey(productId) || (inventoryMap != null && !inventoryMap.containsKey(productId))) {
+                throw new IllegalArgumentException("Product not found: " + productId);
+            }
+            if (inventoryMap != null && inventoryMap.get(productId).getStockQuantity() < reqItem.getQuantity()) {
+                if (stockReservationLedger.isEnabled()) {
+                    stockReservationLedger.invalidate(productId);
+                }
+                throw new InsufficientStockException("Insufficient stock for product " + productId);
+            }
+        }
 
         BigDecimal totalAmount = BigDecimal.ZERO;
 
@@ -76,14 +269,11 @@ public class OrderService {
 
         for (CreateOrderItemRequest reqItem : rawItems) {
             Product product = productMap.get(reqItem.getProductId());
-            if (product == null) {
-                throw new IllegalArgumentException("Product not found: " + reqItem.getProductId());
-            }
-            if (product.getStockQuantity() < reqItem.getQuantity()) {
-                throw new InsufficientStockException("Insufficient stock for product " + product.getId());
-            }
 
-            product.setStockQuantity(product.getStockQuantity() - reqItem.getQuantity());
+            if (inventoryMap != null) {
+                ProductInventory inventory = inventoryMap.get(product.getId());
+                inventory.setStockQuantity(inventory.getStockQuantity() - reqItem.getQuantity());
+            }
 
             BigDecimal linePrice = product.getPrice().multiply(BigDecimal.valueOf(reqItem.getQuantity()));
             totalAmount = totalAmount.add(linePrice);
@@ -109,14 +299,7 @@ public class OrderService {
             .build();
 
         order.setPayment(payment);
-        order = orderRepository.save(order);
-
-        eventPublisher.publishEvent(new OrderCreatedEvent(order.getId()));
-
         return order;
     }
 
-
-
 }
-
@@ -0,0 +1,48 @@
+package com.intelligent.ecommerce.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.entity.Order;
+import com.intelligent.ecommerce.enums.PaymentMethod;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * One caller's order request travelling through a group-commit batch. The outcome is
+ * recorded while the batch transaction runs and only published to the caller afterwards.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PendingOrder {
+
+    private final Long customerId;
+    private final List<CreateOrderItemRequest> items;
+    private final PaymentMethod paymentMethod;
+    private final CompletableFuture<Order> result = new CompletableFuture<>();
+
+    private Order order;
+    private RuntimeException rejection;
+
+    // A batch may be retried after rolling back, so each outcome replaces the previous one
+    void accept(Order order) {
+        this.order = order;
+        this.rejection = null;
+    }
+
+    void reject(RuntimeException rejection) {
+        this.rejection = rejection;
+        this.order = null;
+    }
+
+    /** Hands the recorded outcome to the caller once the batch has committed. */
+    void complete() {
+        if (rejection != null) {
+            result.completeExceptionally(rejection);
+        } else {
+            result.complete(order);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.intelligent.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.intelligent.ecommerce.cache.RedisCircuitBreaker;
+import com.intelligent.ecommerce.cache.TieredCache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Targeted invalidation for product caches.
+ * <p>
+ * Entries keyed by product id are evicted when that product changes. The evictions are not sent
+ * from the committing thread: ids are collected for {@code cache.product-evictions.batch-window-ms}
+ * and then evicted together by a background thread, one pipelined round trip for the whole batch
+ * (see {@link TieredCache#evictAll}). A product ordered many times in one window is evicted once.
+ * Collection
+ * entries such as search results are not evicted at all: their keys embed a catalog generation,
+ * and bumping the generation makes every new lookup use fresh keys while the old entries age out
+ * on their TTL. No wildcard delete is ever sent to Redis. Search entries hold ranked ids only and
+ * read their views from the product cache, so evicting a product also refreshes its stock in
+ * search results.
+ * <p>
+ * The generation lives in Redis so all nodes agree on it. Each node re-reads it at most once per
+ * {@code cache.catalog-generation.refresh-ms}, and sees its own bumps immediately. Only one caller
+ * refreshes at a time; the others keep using the value they already have. Redis calls go through
+ * the {@link RedisCircuitBreaker}, so an outage costs no time on the request path. A bump made
+ * while Redis is unreachable advances the local value only and is replayed once Redis is back.
+ */
+@Slf4j
+@Component
+public class ProductCacheInvalidator {
+
+    static final String PRODUCTS_CACHE = "products";
+    static final String SEARCH_CACHE = "product-search";
+    static final String GENERATION_KEY = "cache:generation:products";
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker breaker;
+    private final long refreshNanos;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong lastRead;
+    private final AtomicBoolean pendingBump = new AtomicBoolean();
+    private final long evictionWindowMillis;
+    private final Set<Long> pendingEvictions = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-cache-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProductCacheInvalidator(CacheManager cacheManager,
+                                   StringRedisTemplate redisTemplate,
+                                   RedisCircuitBreaker breaker,
+                                   @Value("${cache.catalog-generation.refresh-ms:1000}") long refreshMillis,
+                                   @Value("${cache.product-evictions.batch-window-ms:5}") long evictionWindowMillis) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.breaker = breaker;
+        this.refreshNanos = refreshMillis * 1_000_000;
+        this.evictionWindowMillis = evictionWindowMillis;
+        // Already due, so the first lookup reads Redis
+        this.lastRead = new AtomicLong(System.nanoTime() - refreshNanos - 1);
+        breaker.onClose(this::replayPendingBump);
+    }
+
+    /** Current catalog generation, used as a key prefix for collection entries. */
+    public long catalogGeneration() {
+        long now = System.nanoTime();
+        long last = lastRead.get();
+        if (now - last > refreshNanos && lastRead.compareAndSet(last, now)) {
+            String stored = breaker.call(() -> redisTemplate.opsForValue().get(GENERATION_KEY), () -> null);
+            if (stored != null) {
+                generation.accumulateAndGet(Long.parseLong(stored), Math::max);
+            }
+        }
+        return generation.get();
+    }
+
+    /** Queues the given product ids for eviction once the current transaction commits. */
+    public void evictAfterCommit(Collection<Long> productIds) {
+        afterCommit(() -> {
+            pendingEvictions.addAll(productIds);
+            if (flushScheduled.compareAndSet(false, true)) {
+                evictor.schedule(this::flushEvictions, evictionWindowMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /** Evicts every queued product id in one batch. */
+    void flushEvictions() {
+        // Ids queued from here on schedule the next flush
+        flushScheduled.set(false);
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = pendingEvictions.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+            it.remove();
+        }
+        Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+        if (ids.isEmpty() || cache == null) {
+            return;
+        }
+        try {
+            if (cache instanceof TieredCache tiered) {
+                tiered.evictAll(ids);
+            } else {
+                ids.forEach(cache::evict);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not evict {} products from the cache, they expire on their TTL", ids.size(), ex);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        evictor.shutdownNow();
+        flushEvictions();
+    }
+
+    /** Retires every collection entry once the current transaction commits. */
+    public void bumpCatalogGenerationAfterCommit() {
+        afterCommit(this::bumpCatalogGeneration);
+    }
+
+    void bumpCatalogGeneration() {
+        Long next = breaker.call(() -> redisTemplate.opsForValue().increment(GENERATION_KEY), () -> null);
+        if (next != null) {
+            pendingBump.set(false);
+            advanceTo(next);
+            return;
+        }
+        log.warn("Could not bump catalog generation in Redis, replaying it once Redis is back");
+        pendingBump.set(true);
+        generation.incrementAndGet();
+    }
+
+    // Runs while the breaker is still open, so it calls Redis directly and lets failures through
+    private void replayPendingBump() {
+        if (pendingBump.getAndSet(false)) {
+            try {
+                Long next = redisTemplate.opsForValue().increment(GENERATION_KEY);
+                if (next != null) {
+                    advanceTo(next);
+                }
+            } catch (RuntimeException ex) {
+                pendingBump.set(true);
+                throw ex;
+            }
+        }
+    }
+
+    private void advanceTo(long stored) {
+        // Always move forward locally, even if a fallback bump left this node ahead of Redis
+        generation.accumulateAndGet(stored, (current, next) -> Math.max(current + 1, next));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.intelligent.ecommerce.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelligent.ecommerce.dto.product.CreateProductRequest;
+import com.intelligent.ecommerce.dto.product.ProductImportSummary;
+import com.intelligent.ecommerce.enums.ProductImportFormat;
+import com.intelligent.ecommerce.id.IdGenerator;
+import com.intelligent.ecommerce.utilities.PgVectorEncoder;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk catalog import from a CSV or NDJSON stream.
+ * <p>
+ * The body is read line by line and never held in memory as a whole. Valid rows are collected into
+ * batches of {@code product-import.batch-size}. Each batch gets ids from the {@link IdGenerator}
+ * and is written with one JDBC batch insert into {@code products} and one into
+ * {@code product_inventory}, in its own transaction; with {@code reWriteBatchedInserts} the
+ * driver turns them into multi-row inserts. Embeddings are then
+ * requested {@code product-import.embed-batch-size} names per {@code /api/embed} call, outside the
+ * transaction, and written back with one batched update per call. The rows are inserted holding an
+ * {@link EmbeddingBackfill} lease, so the backfill leaves them to the import.
+ * <p>
+ * Invalid rows are skipped and reported. A batch the database rejects is rolled back, reported
+ * with its line range and counted as failed; the import carries on with the next batch. A failed
+ * embedding call releases the lease on its rows for {@link EmbeddingBackfill} to fill them in; the
+ * import carries on. Progress is logged as rows per second every
+ * {@code product-import.progress-interval-rows} rows.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    static final String INSERT_PRODUCT = "INSERT INTO products (id, name, price, embedding_claimed_at) VALUES (?, ?, ?, ?)";
+    static final String INSERT_INVENTORY = "INSERT INTO product_inventory (product_id, stock_quantity) VALUES (?, ?)";
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final Set<String> CSV_COLUMNS = Set.of("name", "stock_quantity", "price");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VectorService vectorService;
+    private final IdGenerator idGenerator;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final int batchSize;
+    private final int embedBatchSize;
+    private final long progressIntervalRows;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                VectorService vectorService,
+                                IdGenerator idGenerator,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                ProductCacheInvalidator productCacheInvalidator,
+                                @Value("${product-import.batch-size:1000}") int batchSize,
+                                @Value("${product-import.embed-batch-size:64}") int embedBatchSize,
+                                @Value("${product-import.progress-interval-rows:10000}") long progressIntervalRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.vectorService = vectorService;
+        this.idGenerator = idGenerator;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.batchSize = batchSize;
+        this.embedBatchSize = embedBatchSize;
+        this.progressIntervalRows = progressIntervalRows;
+    }
+
+    /**
+     * Imports every product in {@code body}. Batches already written stay written if a later
+     * batch fails or the stream breaks off. With {@code embed} off the rows are inserted without
+     * embeddings.
+     */
+    public ProductImportSummary importProducts(InputStream body, ProductImportFormat format, boolean embed) throws IOException {
+        Progress progress = new Progress();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = null;
+        List<ImportedRow> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        String line;
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == ProductImportFormat.CSV && columns == null) {
+                    columns = csvHeader(line);
+                    continue;
+                }
+
+                CreateProductRequest request;
+                try {
+                    request = format == ProductImportFormat.CSV ? csvRow(line, columns) : jsonRow(line);
+                    validate(request);
+                } catch (IllegalArgumentException ex) {
+                    progress.reject(lineNumber, ex.getMessage());
+                    continue;
+                }
+
+                batch.add(new ImportedRow(idGenerator.nextId(), lineNumber, request));
+                if (batch.size() == batchSize) {
+                    flush(batch, embed, progress);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                flush(batch, embed, progress);
+            }
+        } finally {
+            if (progress.imported > 0) {
+                // New products only change listings, exactly like ProductService.create. Runs even
+                // when the import breaks off, so searches see the batches that did commit
+                productCacheInvalidator.bumpCatalogGenerationAfterCommit();
+            }
+        }
+
+        ProductImportSummary summary = progress.summary();
+        log.info("Product import finished: {} imported, {} rejected, {} failed, {} embedded in {} ms ({} rows/s)",
+                summary.imported(), summary.rejected(), summary.failed(), summary.embedded(), summary.elapsedMillis(),
+                Math.round(summary.rowsPerSecond()));
+        return summary;
+    }
+
+    private void flush(List<ImportedRow> batch, boolean embed, Progress progress) {
+        Timestamp lease = embed ? EmbeddingBackfill.newLease() : null;
+        List<Object[]> products = batch.stream()
+                .map(row -> new Object[]{row.id(), row.request().getName(), row.request().getPrice(), lease})
+                .toList();
+        List<Object[]> inventory = batch.stream()
+                .map(row -> new Object[]{row.id(), row.request().getStockQuantity()})
+                .toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_PRODUCT, products);
+                jdbcTemplate.batchUpdate(INSERT_INVENTORY, inventory);
+            });
+        } catch (DataAccessException ex) {
+            log.warn("Import batch of {} rows failed and was rolled back", batch.size(), ex);
+            progress.fail(batch.get(0).lineNumber(), batch.get(batch.size() - 1).lineNumber(), batch.size(),
+                    ex.getMostSpecificCause().getMessage());
+            return;
+        }
+        progress.imported += batch.size();
+
+        if (embed) {
+            for (int from = 0; from < batch.size(); from += embedBatchSize) {
+                embed(batch.subList(from, Math.min(from + embedBatchSize, batch.size())), lease, progress);
+            }
+        }
+        progress.maybeLog();
+    }
+
+    private void embed(List<ImportedRow> rows, Timestamp lease, Progress progress) {
+        List<float[]> vectors;
+        try {
+            vectors = vectorService.embedAll(rows.stream().map(row -> row.request().getName()).toList());
+        } catch (RestClientException | IllegalStateException ex) {
+            log.warn("Embedding call failed, {} imported products are left to the backfill", rows.size(), ex);
+            jdbcTemplate.batchUpdate(EmbeddingBackfill.RELEASE, rows.stream().map(row -> new Object[]{row.id(), lease}).toList());
+            progress.embeddingFailures += rows.size();
+            return;
+        }
+
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            updates.add(new Object[]{PgVectorEncoder.encode(vectors.get(i)), rows.get(i).id(), lease});
+        }
+        try {
+            jdbcTemplate.batchUpdate(EmbeddingBackfill.UPDATE_EMBEDDING, updates);
+        } catch (DataAccessException ex) {
+            // The rows are committed; the backfill takes them over once the lease expires
+            log.warn("Writing {} imported embeddings failed, they are left to the backfill", rows.size(), ex);
+            progress.embeddingFailures += rows.size();
+            return;
+        }
+        progress.embedded += rows.size();
+    }
+
+    private static Map<String, Integer> csvHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+            columns.put("stockquantity".equals(name) ? "stock_quantity" : name, i);
+        }
+        if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must name the columns " + CSV_COLUMNS);
+        }
+        return columns;
+    }
+
+    private static CreateProductRequest csvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < columns.size()) {
+            throw new IllegalArgumentException("expected " + columns.size() + " fields, got " + fields.size());
+        }
+        try {
+            return CreateProductRequest.builder()
+                    .name(fields.get(columns.get("name")))
+                    .stockQuantity(Integer.valueOf(fields.get(columns.get("stock_quantity")).trim()))
+                    .price(new BigDecimal(fields.get(columns.get("price")).trim()))
+                    .build();
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("stock_quantity and price must be numbers");
+        }
+    }
+
+    // RFC 4180 fields on a single line: commas inside quotes, "" for a literal quote
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private CreateProductRequest jsonRow(String line) {
+        try {
+            return objectMapper.readValue(line, CreateProductRequest.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("malformed JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private void validate(CreateProductRequest request) {
+        Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    private record ImportedRow(long id, long lineNumber, CreateProductRequest request) {
+    }
+
+    private final class Progress {
+        private final long started = System.nanoTime();
+        private final List<String> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+        private long failed;
+        private long embedded;
+        private long embeddingFailures;
+        private long lastLogged;
+
+        void reject(long lineNumber, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + lineNumber + ": " + message);
+            }
+        }
+
+        void fail(long firstLine, long lastLine, int rows, String message) {
+            failed += rows;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("lines " + firstLine + "-" + lastLine + ": batch not imported: " + message);
+            }
+        }
+
+        void maybeLog() {
+            if (imported - lastLogged >= progressIntervalRows) {
+                lastLogged = imported;
+                log.info("Product import: {} rows imported, {} rejected ({} rows/s)",
+                        imported, rejected, Math.round(rowsPerSecond()));
+            }
+        }
+
+        double rowsPerSecond() {
+            long elapsedNanos = Math.max(System.nanoTime() - started, 1);
+            return imported * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        ProductImportSummary summary() {
+            return new ProductImportSummary(imported, rejected, failed, embedded, embeddingFailures,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), rowsPerSecond(), List.copyOf(errors));
+        }
+    }
+}
@@ -1,17 +1,36 @@
 package com.intelligent.ecommerce.service;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.intelligent.ecommerce.cache.TieredCache;
+import com.intelligent.ecommerce.dto.common.CursorPaginatedResponse;
 import com.intelligent.ecommerce.dto.product.CreateProductRequest;
+import com.intelligent.ecommerce.dto.product.ProductView;
 import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
 import com.intelligent.ecommerce.repository.ProductRepository;
+import com.intelligent.ecommerce.utilities.PgVectorEncoder;
+import com.intelligent.ecommerce.vector.ProductVectorIndex;
 
 import lombok.RequiredArgsConstructor;
 
@@ -20,60 +39,159 @@ import lombok.RequiredArgsConstructor;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductInventoryRepository productInventoryRepository;
     private final VectorService vectorService;
     private final JdbcTemplate jdbcTemplate;
-
-    public List<Product> searchByNameVector(String query, int limit) {
-        var vec = vectorService.embed(query);
-        var pgVector = toPgVectorLiteral(vec);
-        return productRepository.searchByNameVector(pgVector, limit);
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final CacheManager cacheManager;
+    private final ProductVectorIndex productVectorIndex;
+    private final EmbeddingBackfill embeddingBackfill;
+
+    @Value("${catalog.stream.fetch-size:500}")
+    private int streamFetchSize = 500;
+
+    @Value("${catalog.multi-get.max-ids:100}")
+    private int multiGetMaxIds = 100;
+
+    /**
+     * Nearest products by name embedding. Only the ranked ids are cached in {@code product-search},
+     * keyed by catalog generation so adding a product retires every cached ranking without deleting
+     * any. The views, stock included, are then read from the product cache like a multi-get: stock
+     * changes on every order and only the product cache is evicted when it does.
+     */
+    public List<ProductView> searchByNameVector(String query, int limit) {
+        // "ids:" keeps entries from before rankings were cached on their own from being read back
+        String key = "ids:" + productCacheInvalidator.catalogGeneration() + ':' + limit + ':' + query;
+        Cache cache = cacheManager.getCache(ProductCacheInvalidator.SEARCH_CACHE);
+        List<Long> ids = cache != null ? cache.get(key, () -> rankByName(query, limit)) : rankByName(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ProductView> views = views(ids);
+        return ids.stream()
+                .map(views::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
-    private static String toPgVectorLiteral(List<Double> embedding) {
-        return "[" + embedding.stream()
-                .map(d -> Double.toString(d))
-                .collect(Collectors.joining(","))
-                + "]";
+    // Mutable list so the Redis JSON serializer can read it back
+    private List<Long> rankByName(String query, int limit) {
+        var vec = vectorService.embedQuery(query);
+        if (productVectorIndex.isReady()) {
+            // Ranked on this node
+            return new ArrayList<>(productVectorIndex.search(vec, limit));
+        }
+        return new ArrayList<>(productRepository.searchIdsByNameVector(PgVectorEncoder.encode(vec), limit));
     }
 
+    /**
+     * Saves a product and its stock without calling the embedding model: the row commits with a
+     * null embedding and {@link EmbeddingBackfill} fills it in, woken up once this commits. The
+     * product shows up in vector search after that.
+     */
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
-    public Product create(CreateProductRequest request) {
+    public ProductView create(CreateProductRequest request) {
 
-        // 1️⃣ create product normally
+        // 1️⃣ create product normally, with its stock in the inventory table
         Product product = Product.builder()
                 .name(request.getName())
-                .stockQuantity(request.getStockQuantity())
                 .price(request.getPrice())
                 .build();
 
         product = productRepository.save(product);
+        ProductInventory inventory = productInventoryRepository.save(ProductInventory.builder()
+                .product(product)
+                .stockQuantity(request.getStockQuantity())
+                .build());
 
-        // 2️⃣ generate embedding from product name
-        List<Double> embedding = vectorService.embed(product.getName());
-
-        // 3️⃣ convert to pgvector literal
-        String pgVector = toPgVectorLiteral(embedding);
+        // Only listings change: a new id has no cached entry of its own
+        productCacheInvalidator.bumpCatalogGenerationAfterCommit();
+        embeddingBackfill.wakeUpAfterCommit();
 
-        // 4️⃣ update vector column using native SQL
-        jdbcTemplate.update(
-                "UPDATE products SET name_embedding = CAST(? AS vector) WHERE id = ?",
-                pgVector,
-                product.getId()
-        );
+        return new ProductView(product.getId(), product.getName(), inventory.getStockQuantity(), product.getPrice());
+    }
 
-        return product;
+    /**
+     * One keyset page of the catalog ordered by id. The cursor is the last id of the previous page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPaginatedResponse<ProductView> listCatalog(String cursor, int size) {
+        long afterId = Long.MIN_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                afterId = Long.parseLong(cursor);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        List<ProductView> rows = productRepository.findViewsAfter(afterId, Limit.of(size + 1));
+        boolean hasMore = rows.size() > size;
+        List<ProductView> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? String.valueOf(page.get(page.size() - 1).getId()) : null;
+        return new CursorPaginatedResponse<>(page, nextCursor, hasMore, size);
     }
 
-    @Cacheable(value = "products", cacheManager = "caffeineCacheManager")
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    /**
+     * Walks the whole catalog through a forward-only, read-only cursor, handing each row to
+     * {@code action} as it arrives. Only {@code catalog.stream.fetch-size} rows are held at a time;
+     * the read-only transaction keeps autocommit off, which Postgres needs to honour the fetch size.
+     */
+    @Transactional(readOnly = true)
+    public void streamCatalog(Consumer<ProductView> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT p.id, p.name, i.stock_quantity, p.price FROM products p "
+                            + "JOIN product_inventory i ON i.product_id = p.id ORDER BY p.id",
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(streamFetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(new ProductView(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getInt("stock_quantity"),
+                rs.getBigDecimal("price"))));
     }
 
-    @Cacheable(value = "products", key = "#id", cacheManager = "longTtlCacheManager")
-    public Product getProductById(Long id) {
-        return productRepository.findById(id)
+    // sync: concurrent misses for one id share a single load (see TieredCache)
+    @Cacheable(value = "products", key = "#id", sync = true)
+    public ProductView getProductById(Long id) {
+        return productRepository.findViewById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 
+    /**
+     * Several products at once, in the order asked for, for carts and listings. The product cache
+     * is read in bulk (see {@link TieredCache#getAll}) and whatever neither tier holds comes from
+     * one {@code IN} query. Duplicates are returned once and unknown ids are left out.
+     */
+    public List<ProductView> getProductsByIds(List<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("At least one product id is required");
+        }
+        if (distinct.size() > multiGetMaxIds) {
+            throw new IllegalArgumentException("At most " + multiGetMaxIds + " product ids per request");
+        }
+
+        Map<Long, ProductView> views = views(distinct);
+        return distinct.stream()
+                .map(views::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private Map<Long, ProductView> views(List<Long> distinct) {
+        return cacheManager.getCache(ProductCacheInvalidator.PRODUCTS_CACHE) instanceof TieredCache cache
+                ? cache.getAll(distinct, this::loadViews)
+                : loadViews(Set.copyOf(distinct));
+    }
+
+    private Map<Long, ProductView> loadViews(Set<Long> ids) {
+        return productRepository.findViewsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductView::getId, Function.identity()));
+    }
+
 }
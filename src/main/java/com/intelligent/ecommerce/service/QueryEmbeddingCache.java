@@ -0,0 +1,137 @@
+package com.intelligent.ecommerce.service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Search query to embedding, so a repeated search skips the Ollama round trip.
+ * <p>
+ * Entries are keyed by model name and the normalized query (NFKC, trimmed, lower-cased, runs of
+ * whitespace collapsed). The normalized text is also what gets embedded, so "iPhone " and
+ * "iphone" share one entry and one vector. Vectors are kept as {@code float[]}, which is also the
+ * precision pgvector stores. The cache is bounded by an estimate of the bytes it retains
+ * ({@code vector.query-cache.max-bytes}). An embedding never changes for a given model, so entries
+ * have no TTL.
+ * <p>
+ * The cache holds futures. The caller that misses installs an incomplete future and calls the model
+ * on its own thread, outside any cache lock; concurrent callers for the same query wait on that
+ * future. A slow model call never stalls lookups for other queries.
+ * <p>
+ * Unlike the {@code product-search} result cache, entries survive catalog changes. Besides the
+ * Caffeine meters ({@code cache.gets}, {@code cache.evictions}, ...) the cache publishes
+ * {@code cache.hit.ratio} and {@code cache.weight}, all tagged {@code cache=query-embeddings}.
+ */
+@Component
+public class QueryEmbeddingCache {
+
+    static final String CACHE_NAME = "query-embeddings";
+
+    // Caffeine node, key record and the two array/string headers, roughly
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final AsyncCache<Key, float[]> cache;
+
+    public QueryEmbeddingCache(@Value("${vector.query-cache.max-bytes:16777216}") long maxBytes,
+                               MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(QueryEmbeddingCache::weigh)
+                .recordStats()
+                .buildAsync();
+
+        Tags tags = Tags.of("cache", CACHE_NAME, "cacheManager", "vector");
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME, tags.and("tier", "local"));
+        Gauge.builder("cache.hit.ratio", this, QueryEmbeddingCache::hitRatio)
+                .description("Share of query embeddings served without calling the model")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("cache.weight", this, QueryEmbeddingCache::weightedBytes)
+                .description("Estimated bytes held by cached query embeddings")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * The embedding of {@code query} under {@code model}, calling {@code embed} with the normalized
+     * query on a miss. Concurrent misses for one key share a single call, and a failed call caches
+     * nothing. The returned array is shared and must not be modified.
+     */
+    public float[] get(String model, String query, Function<String, float[]> embed) {
+        Key key = new Key(model, normalize(query));
+        CompletableFuture<float[]> created = new CompletableFuture<>();
+        CompletableFuture<float[]> shared = cache.get(key, (k, executor) -> created);
+        if (shared != created) {
+            return join(shared);
+        }
+        try {
+            float[] vector = embed.apply(key.text());
+            created.complete(vector);
+            return vector;
+        } catch (RuntimeException | Error ex) {
+            // A failed future is dropped from the cache, so the next lookup tries again
+            created.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    static String normalize(String query) {
+        String text = Normalizer.normalize(query, Normalizer.Form.NFKC).strip().toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(text).replaceAll(" ");
+    }
+
+    /** Share of lookups answered from the cache; {@code NaN} before the first lookup. */
+    double hitRatio() {
+        CacheStats stats = cache.synchronous().stats();
+        return stats.requestCount() == 0 ? Double.NaN : stats.hitRate();
+    }
+
+    long weightedBytes() {
+        return cache.synchronous().policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    long size() {
+        cache.synchronous().cleanUp();
+        return cache.synchronous().estimatedSize();
+    }
+
+    private static float[] join(CompletableFuture<float[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static int weigh(Key key, float[] vector) {
+        return ENTRY_OVERHEAD_BYTES + 2 * key.text().length() + Float.BYTES * vector.length;
+    }
+
+    private record Key(String model, String text) {
+    }
+}
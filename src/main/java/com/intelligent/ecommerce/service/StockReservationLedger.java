@@ -0,0 +1,168 @@
+package com.intelligent.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.exception.InsufficientStockException;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
+
+/**
+ * In-memory admission control for stock, consulted before any row lock is taken.
+ * <p>
+ * Each product has an atomic counter seeded lazily from {@code product_inventory.stock_quantity}.
+ * The seed is read outside the map, so no query runs while a map bin is locked; when two callers
+ * seed the same product at once the first counter published wins. The database row stays the
+ * source of truth: a reservation is
+ * kept when the order transaction commits, handed back when it rolls back, and a counter
+ * is dropped (and re-seeded on next use) whenever the locked row disagrees with it.
+ * <p>
+ * Counters only move down on the order path, so stock added elsewhere (a restock, another node's
+ * cancellations) would never reach them. A line that a counter older than
+ * {@code inventory.ledger.recheck-ms} cannot admit is therefore re-seeded from the table once
+ * before it is rejected. A sold-out product costs at most one stock read per interval.
+ */
+@Component
+public class StockReservationLedger {
+
+    private final ProductInventoryRepository productInventoryRepository;
+    private final boolean enabled;
+    private final long recheckNanos;
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    public StockReservationLedger(ProductInventoryRepository productInventoryRepository,
+                                  @Value("${inventory.ledger.enabled:false}") boolean enabled,
+                                  @Value("${inventory.ledger.recheck-ms:1000}") long recheckMillis) {
+        this.productInventoryRepository = productInventoryRepository;
+        this.enabled = enabled;
+        this.recheckNanos = recheckMillis * 1_000_000;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserves every line of an order or none of them. Inside a transaction the reservation is
+     * handed back automatically on rollback.
+     *
+     * @throws InsufficientStockException if any line cannot be admitted
+     * @throws IllegalArgumentException if a product does not exist
+     */
+    public Reservation reserve(List<CreateOrderItemRequest> items) {
+        Reservation reservation = new Reservation();
+        try {
+            for (CreateOrderItemRequest item : items) {
+                Counter counter = counterFor(item.getProductId());
+                if (!tryTake(counter.stock, item.getQuantity())) {
+                    counter = recheck(item.getProductId(), counter);
+                    if (counter == null || !tryTake(counter.stock, item.getQuantity())) {
+                        throw new InsufficientStockException("Insufficient stock for product " + item.getProductId());
+                    }
+                }
+                reservation.add(counter.stock, item.getQuantity());
+            }
+        } catch (RuntimeException ex) {
+            reservation.release();
+            throw ex;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reservation.release();
+                    }
+                }
+            });
+        }
+        return reservation;
+    }
+
+    /**
+     * Drops the counter for a product so the next reservation re-seeds it from the table.
+     * Called when the locked row shows the ledger has drifted, or when stock is changed
+     * outside the order path.
+     */
+    public void invalidate(Long productId) {
+        counters.remove(productId);
+    }
+
+    int available(Long productId) {
+        Counter counter = counters.get(productId);
+        return counter == null ? -1 : counter.stock.get();
+    }
+
+    private Counter counterFor(Long productId) {
+        Counter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        Integer stock = productInventoryRepository.findStockQuantityByProductId(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
+        Counter seeded = new Counter(stock, System.nanoTime());
+        Counter raced = counters.putIfAbsent(productId, seeded);
+        return raced != null ? raced : seeded;
+    }
+
+    /** A fresh counter if {@code stale} was seeded long enough ago to be re-read, otherwise null. */
+    private Counter recheck(Long productId, Counter stale) {
+        if (System.nanoTime() - stale.seededAt <= recheckNanos) {
+            return null;
+        }
+        // Only one caller drops a given counter; the others pick up whatever replaced it
+        counters.remove(productId, stale);
+        return counterFor(productId);
+    }
+
+    private static boolean tryTake(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private static final class Counter {
+        private final AtomicInteger stock;
+        private final long seededAt;
+
+        private Counter(int stock, long seededAt) {
+            this.stock = new AtomicInteger(stock);
+            this.seededAt = seededAt;
+        }
+    }
+
+    public static class Reservation {
+        private final List<AtomicInteger> counters = new ArrayList<>();
+        private final List<Integer> quantities = new ArrayList<>();
+        private boolean released;
+
+        private void add(AtomicInteger counter, int quantity) {
+            counters.add(counter);
+            quantities.add(quantity);
+        }
+
+        public synchronized void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            for (int i = 0; i < counters.size(); i++) {
+                counters.get(i).addAndGet(quantities.get(i));
+            }
+        }
+    }
+}
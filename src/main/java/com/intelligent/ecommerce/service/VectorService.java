@@ -1,55 +1,140 @@
 package com.intelligent.ecommerce.service;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Service
-@RequiredArgsConstructor
 public class VectorService {
 
+    private static final String MODEL = "nomic-embed-text:latest";
+
     private final RestClient ollamaRestClient;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final boolean batchingEnabled;
+    private final EmbeddingBatcher batcher;
+
+    public VectorService(RestClient ollamaRestClient,
+                         QueryEmbeddingCache queryEmbeddingCache,
+                         @Value("${vector.batch.enabled:false}") boolean batchingEnabled,
+                         @Value("${vector.batch.max-batch-size:32}") int maxBatchSize,
+                         @Value("${vector.batch.max-wait-ms:2}") long maxWaitMillis,
+                         @Value("${vector.batch.queue-capacity:1000}") int queueCapacity,
+                         @Value("${vector.batch.result-timeout-ms:10000}") long resultTimeoutMillis) {
+        this.ollamaRestClient = ollamaRestClient;
+        this.queryEmbeddingCache = queryEmbeddingCache;
+        this.batchingEnabled = batchingEnabled;
+        this.batcher = new EmbeddingBatcher(this::embedAll, this::embedOne, maxBatchSize, maxWaitMillis, queueCapacity,
+                resultTimeoutMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (batchingEnabled) {
+            batcher.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        batcher.stop();
+    }
 
-    public List<Double> embed(String text) {
+    /**
+     * Embedding of a search query, from {@link QueryEmbeddingCache} when an equivalent query was
+     * embedded before. The returned array is shared and must not be modified.
+     */
+    public float[] embedQuery(String query) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("text must not be null/blank");
+        }
+        return queryEmbeddingCache.get(MODEL, query, this::embed);
+    }
+
+    /**
+     * Embedding of one text. With {@code vector.batch.enabled} concurrent callers share one
+     * {@code /api/embed} call through {@link EmbeddingBatcher}.
+     */
+    public float[] embed(String text) {
         if (text == null || text.isBlank()) {
             throw new IllegalArgumentException("text must not be null/blank");
         }
+        return batcher.embed(text);
+    }
 
+    // Vectors are parsed straight into float[]: no boxed Double per dimension
+    private float[] embedOne(String text) {
         OllamaEmbedResponse response = ollamaRestClient.post()
                 .uri("/api/embed")
                 .body(OllamaEmbedRequest.builder()
-                        .model("nomic-embed-text:latest")
+                        .model(MODEL)
                         .input(text)
                         .build())
                 .retrieve()
                 .body(OllamaEmbedResponse.class);
 
-        if (response == null || response.getEmbeddings() == null || response.getEmbeddings().isEmpty()) {
+        if (response == null || response.getEmbeddings() == null || response.getEmbeddings().length == 0) {
             throw new IllegalStateException("Empty embedding response from Ollama");
         }
 
-        List<Double> vector = response.getEmbeddings().get(0);
-        if (vector == null || vector.isEmpty()) {
+        float[] vector = response.getEmbeddings()[0];
+        if (vector == null || vector.length == 0) {
             throw new IllegalStateException("Embedding vector is empty");
         }
 
         return vector;
     }
 
+    /** Embeds several texts with one {@code /api/embed} call; vectors come back in input order. */
+    public List<float[]> embedAll(List<String> texts) {
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+        for (String text : texts) {
+            if (text == null || text.isBlank()) {
+                throw new IllegalArgumentException("text must not be null/blank");
+            }
+        }
+
+        OllamaEmbedResponse response = ollamaRestClient.post()
+                .uri("/api/embed")
+                .body(OllamaBatchEmbedRequest.builder()
+                        .model(MODEL)
+                        .input(texts)
+                        .build())
+                .retrieve()
+                .body(OllamaEmbedResponse.class);
+
+        if (response == null || response.getEmbeddings() == null || response.getEmbeddings().length != texts.size()) {
+            throw new IllegalStateException("Expected " + texts.size() + " embeddings from Ollama");
+        }
+        return Arrays.asList(response.getEmbeddings());
+    }
+
     @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
     static class OllamaEmbedRequest {
         private String model;
         private String input;
     }
 
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    static class OllamaBatchEmbedRequest {
+        private String model;
+        private List<String> input;
+    }
+
     @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
     static class OllamaEmbedResponse {
         private String model;
 
         @JsonProperty("embeddings")
-        private List<List<Double>> embeddings;
+        private float[][] embeddings;
     }
 }
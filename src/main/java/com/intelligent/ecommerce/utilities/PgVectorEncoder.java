@@ -0,0 +1,65 @@
+package com.intelligent.ecommerce.utilities;
+
+/**
+ * Renders embeddings as pgvector text literals ({@code [0.1,-0.2,...]}) for
+ * {@code CAST(? AS vector)} parameters.
+ * <p>
+ * Each thread reuses one buffer, and {@link StringBuilder#append(float)} writes the shortest
+ * decimal form in place without an intermediate {@code String}, so the returned literal is the
+ * only allocation per call. Floats are exact here: pgvector stores single precision.
+ * {@link #decode} reads the same format back, as returned by {@code CAST(name_embedding AS text)}.
+ */
+public final class PgVectorEncoder {
+
+    // 768 dimensions at up to ~12 chars each; larger buffers are dropped rather than kept per thread
+    private static final int INITIAL_CAPACITY = 10_240;
+    private static final int MAX_RETAINED_CAPACITY = 65_536;
+
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    private PgVectorEncoder() {
+    }
+
+    public static String encode(float[] vector) {
+        StringBuilder literal = BUFFER.get();
+        literal.setLength(0);
+        literal.append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append(vector[i]);
+        }
+        String encoded = literal.append(']').toString();
+        if (literal.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return encoded;
+    }
+
+    public static float[] decode(String literal) {
+        int end = literal.length() - 1;
+        if (end < 1 || literal.charAt(0) != '[' || literal.charAt(end) != ']') {
+            throw new IllegalArgumentException("Not a pgvector literal");
+        }
+        if (end == 1) {
+            return new float[0];
+        }
+        int dimensions = 1;
+        for (int i = 1; i < end; i++) {
+            if (literal.charAt(i) == ',') {
+                dimensions++;
+            }
+        }
+        float[] vector = new float[dimensions];
+        int start = 1;
+        for (int i = 0; i < dimensions; i++) {
+            int comma = literal.indexOf(',', start);
+            int stop = comma < 0 ? end : comma;
+            vector[i] = Float.parseFloat(literal.substring(start, stop));
+            start = stop + 1;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,321 @@
+package com.intelligent.ecommerce.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical navigable small world graph (Malkov and Yashunin) for approximate nearest
+ * neighbour search by cosine distance.
+ * <p>
+ * Vectors are normalized on insert, so distance is {@code 1 - dot}. Each node keeps up to
+ * {@code m} links on the upper layers and {@code 2 * m} on layer 0, picked with the paper's
+ * diversity heuristic. {@code efConstruction} and {@code efSearch} size the candidate lists of
+ * inserts and queries; larger values buy recall with time. Queries run concurrently, inserts one
+ * at a time under a write lock. Nodes are never removed.
+ * <p>
+ * Memory is dominated by the vectors: {@code 4 * dimensions} bytes per entry, plus roughly
+ * {@code 8 * m} bytes of links.
+ */
+public class HnswIndex {
+
+    private static final int[] NO_LINKS = new int[0];
+    private static final int MAX_LEVEL = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final Comparator<Candidate> NEAREST_FIRST = Comparator.comparingDouble(Candidate::distance);
+    private static final Comparator<Candidate> FARTHEST_FIRST = NEAREST_FIRST.reversed();
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> nodesById = new HashMap<>();
+    private final Random random = new Random();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private float[][] vectors = new float[INITIAL_CAPACITY][];
+    private int[][][] links = new int[INITIAL_CAPACITY][][];
+    private int size;
+    private int dimensions = -1;
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    public HnswIndex(int m, int efConstruction, int efSearch) {
+        if (m < 2 || efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException("m must be at least 2, efConstruction and efSearch at least 1");
+        }
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    /**
+     * Inserts {@code vector} under {@code id}. Returns {@code false}, leaving the index unchanged,
+     * when {@code id} is already present.
+     */
+    public boolean add(long id, float[] vector) {
+        float[] unit = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            if (nodesById.containsKey(id)) {
+                return false;
+            }
+            if (dimensions < 0) {
+                dimensions = unit.length;
+            } else if (unit.length != dimensions) {
+                throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + unit.length);
+            }
+
+            int node = size;
+            int level = randomLevel();
+            ensureCapacity(node + 1);
+            ids[node] = id;
+            vectors[node] = unit;
+            links[node] = new int[level + 1][];
+            Arrays.fill(links[node], NO_LINKS);
+            nodesById.put(id, node);
+            size++;
+
+            if (entryPoint < 0) {
+                entryPoint = node;
+                topLevel = level;
+                return true;
+            }
+
+            int current = entryPoint;
+            for (int layer = topLevel; layer > level; layer--) {
+                current = greedyClosest(unit, current, layer);
+            }
+            for (int layer = Math.min(level, topLevel); layer >= 0; layer--) {
+                List<Candidate> found = searchLayer(unit, current, efConstruction, layer);
+                int[] neighbours = selectNeighbours(found, m);
+                links[node][layer] = neighbours;
+                for (int neighbour : neighbours) {
+                    connect(neighbour, node, layer);
+                }
+                current = found.get(0).node();
+            }
+            if (level > topLevel) {
+                entryPoint = node;
+                topLevel = level;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Ids of the {@code k} entries closest to {@code query}, nearest first. */
+    public List<Long> search(float[] query, int k) {
+        return search(query, k, efSearch);
+    }
+
+    /** As {@link #search(float[], int)}, with a candidate list of {@code ef} instead of {@code efSearch}. */
+    public List<Long> search(float[] query, int k, int ef) {
+        if (k <= 0) {
+            return List.of();
+        }
+        float[] unit = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return List.of();
+            }
+            if (unit.length != dimensions) {
+                throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + unit.length);
+            }
+            int current = entryPoint;
+            for (int layer = topLevel; layer > 0; layer--) {
+                current = greedyClosest(unit, current, layer);
+            }
+            List<Candidate> found = searchLayer(unit, current, Math.max(ef, k), 0);
+            List<Long> nearest = new ArrayList<>(Math.min(k, found.size()));
+            for (int i = 0; i < found.size() && i < k; i++) {
+                nearest.add(ids[found.get(i).node()]);
+            }
+            return nearest;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return nodesById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int greedyClosest(float[] query, int start, int layer) {
+        int current = start;
+        float best = distance(query, vectors[current]);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : links[current][layer]) {
+                float distance = distance(query, vectors[neighbour]);
+                if (distance < best) {
+                    best = distance;
+                    current = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Best-first walk from entry keeping the ef closest nodes seen; returned nearest first
+    private List<Candidate> searchLayer(float[] query, int entry, int ef, int layer) {
+        BitSet visited = new BitSet(size);
+        visited.set(entry);
+        Candidate start = new Candidate(entry, distance(query, vectors[entry]));
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(NEAREST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(FARTHEST_FIRST);
+        candidates.add(start);
+        results.add(start);
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (closest.distance() > results.peek().distance()) {
+                break;
+            }
+            for (int neighbour : links[closest.node()][layer]) {
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float distance = distance(query, vectors[neighbour]);
+                if (results.size() < ef || distance < results.peek().distance()) {
+                    Candidate candidate = new Candidate(neighbour, distance);
+                    candidates.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> nearest = new ArrayList<>(results);
+        nearest.sort(NEAREST_FIRST);
+        return nearest;
+    }
+
+    // Diversity heuristic: skip a candidate that is closer to an already chosen neighbour than to the base
+    private int[] selectNeighbours(List<Candidate> nearestFirst, int max) {
+        int[] selected = new int[Math.min(max, nearestFirst.size())];
+        int count = 0;
+        for (Candidate candidate : nearestFirst) {
+            if (count == selected.length) {
+                break;
+            }
+            boolean diverse = true;
+            for (int i = 0; i < count; i++) {
+                if (distance(vectors[candidate.node()], vectors[selected[i]]) < candidate.distance()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate.node();
+            }
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private void connect(int from, int to, int layer) {
+        int[] current = links[from][layer];
+        int max = layer == 0 ? maxM0 : m;
+        if (current.length < max) {
+            int[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = to;
+            links[from][layer] = grown;
+            return;
+        }
+
+        // Full: choose again among the existing links and the new node
+        float[] base = vectors[from];
+        List<Candidate> candidates = new ArrayList<>(current.length + 1);
+        for (int neighbour : current) {
+            candidates.add(new Candidate(neighbour, distance(base, vectors[neighbour])));
+        }
+        candidates.add(new Candidate(to, distance(base, vectors[to])));
+        candidates.sort(NEAREST_FIRST);
+        links[from][layer] = selectNeighbours(candidates, max);
+    }
+
+    private int randomLevel() {
+        double level = -Math.log(1 - random.nextDouble()) * levelMultiplier;
+        return (int) Math.min(level, MAX_LEVEL);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int grown = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, grown);
+            vectors = Arrays.copyOf(vectors, grown);
+            links = Arrays.copyOf(links, grown);
+        }
+    }
+
+    // A copy: callers' arrays, such as cached query embeddings, are left untouched
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] unit = new float[vector.length];
+        if (norm == 0) {
+            return unit;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = vector[i] * scale;
+        }
+        return unit;
+    }
+
+    // Four independent sums: a single float accumulator serializes every add behind the previous one
+    static float distance(float[] a, float[] b) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (int end = a.length - 3; i < end; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < a.length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return 1 - (s0 + s1 + s2 + s3);
+    }
+
+    private record Candidate(int node, float distance) {
+    }
+}
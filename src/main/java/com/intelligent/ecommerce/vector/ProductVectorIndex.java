@@ -0,0 +1,167 @@
+package com.intelligent.ecommerce.vector;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.intelligent.ecommerce.utilities.PgVectorEncoder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process {@link HnswIndex} over {@code products.name_embedding}, so {@code /search} can rank
+ * products on the app node instead of with {@code ORDER BY name_embedding <=> ?} on the primary.
+ * <p>
+ * With {@code vector.index.enabled} the index is filled on a background thread at startup by
+ * streaming every stored embedding; until that finishes {@link #isReady()} is false and search
+ * stays on Postgres. Embeddings written by this node's {@code EmbeddingBackfill} are added when
+ * their transaction commits. Every {@code vector.index.refresh-interval-ms} the ids that have an
+ * embedding are compared with the index and the missing vectors are fetched, which picks up
+ * embeddings written by other nodes and by bulk imports.
+ */
+@Slf4j
+@Component
+public class ProductVectorIndex {
+
+    static final String SELECT_EMBEDDINGS =
+            "SELECT id, CAST(name_embedding AS text) AS embedding FROM products WHERE name_embedding IS NOT NULL";
+    static final String SELECT_EMBEDDED_IDS = "SELECT id FROM products WHERE name_embedding IS NOT NULL";
+
+    private static final int REFRESH_FETCH_BATCH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final HnswIndex index;
+    private final long refreshIntervalMillis;
+    private final int fetchSize;
+
+    private volatile boolean ready;
+    private ScheduledExecutorService loader;
+
+    public ProductVectorIndex(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${vector.index.enabled:false}") boolean enabled,
+                              @Value("${vector.index.m:16}") int m,
+                              @Value("${vector.index.ef-construction:200}") int efConstruction,
+                              @Value("${vector.index.ef-search:100}") int efSearch,
+                              @Value("${vector.index.refresh-interval-ms:60000}") long refreshIntervalMillis,
+                              @Value("${catalog.stream.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.index = new HnswIndex(m, efConstruction, efSearch);
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.fetchSize = fetchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-vector-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loader.execute(this::load);
+        loader.scheduleWithFixedDelay(this::refresh, refreshIntervalMillis, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (loader != null) {
+            loader.shutdownNow();
+        }
+    }
+
+    /** Whether the startup load has finished and {@link #search} can answer queries. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Ids of the {@code limit} products whose name embedding is closest to {@code query}, nearest first. */
+    public List<Long> search(float[] query, int limit) {
+        return index.search(query, limit);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /** Adds a freshly written embedding once the surrounding transaction commits. */
+    public void addAfterCommit(long productId, float[] embedding) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index.add(productId, embedding);
+                }
+            });
+        } else {
+            index.add(productId, embedding);
+        }
+    }
+
+    void load() {
+        long started = System.nanoTime();
+        try {
+            // Read-only transaction: Postgres only honours the fetch size with autocommit off
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_EMBEDDINGS,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, (RowCallbackHandler) rs -> index.add(rs.getLong("id"), PgVectorEncoder.decode(rs.getString("embedding")))));
+            ready = true;
+            log.info("Product vector index loaded {} embeddings in {} ms",
+                    index.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the product vector index, search stays on Postgres until the next refresh", ex);
+        }
+    }
+
+    void refresh() {
+        if (!ready) {
+            load();
+            return;
+        }
+        try {
+            List<Long> missing = jdbcTemplate.queryForList(SELECT_EMBEDDED_IDS, Long.class).stream()
+                    .filter(id -> !index.contains(id))
+                    .toList();
+            for (int from = 0; from < missing.size(); from += REFRESH_FETCH_BATCH) {
+                List<Long> ids = missing.subList(from, Math.min(from + REFRESH_FETCH_BATCH, missing.size()));
+                String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+                jdbcTemplate.query(SELECT_EMBEDDINGS + " AND id IN (" + placeholders + ")",
+                        (RowCallbackHandler) rs -> index.add(rs.getLong("id"), PgVectorEncoder.decode(rs.getString("embedding"))),
+                        ids.toArray());
+            }
+            if (!missing.isEmpty()) {
+                log.info("Product vector index caught up on {} embeddings, {} in total", missing.size(), index.size());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Product vector index refresh failed, retrying in {} ms", refreshIntervalMillis, ex);
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.intelligent.ecommerce;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "ecommerce.id.node-id=1")
 class EcommerceApplicationTests {
 
 	@Test
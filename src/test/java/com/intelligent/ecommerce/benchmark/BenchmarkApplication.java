@@ -0,0 +1,41 @@
+package com.intelligent.ecommerce.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.intelligent.ecommerce.EcommerceApplication;
+
+/**
+ * Starts the application with the {@code test} profile inside a JMH fork, the way
+ * {@code @SpringBootTest} would, minus the SQL logging that profile turns on so it does not end
+ * up in the measurement. Properties are passed as command-line arguments, so they win over
+ * {@code application-test.properties}.
+ */
+final class BenchmarkApplication {
+
+    private static final List<String> QUIET = List.of(
+            "server.port=0",
+            "spring.main.banner-mode=off",
+            "spring.jpa.show-sql=false",
+            "logging.level.root=WARN",
+            "logging.level.org.springframework.transaction=WARN",
+            "logging.level.org.hibernate.SQL=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>();
+        QUIET.forEach(property -> args.add("--" + property));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(EcommerceApplication.class)
+                .profiles("test")
+                .run(args.toArray(String[]::new));
+    }
+}
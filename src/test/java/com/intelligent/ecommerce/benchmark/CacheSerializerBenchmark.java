@@ -0,0 +1,155 @@
+package com.intelligent.ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.intelligent.ecommerce.cache.BinaryRedisSerializer;
+import com.intelligent.ecommerce.cache.ProductViewCodecs;
+import com.intelligent.ecommerce.dto.product.ProductView;
+
+/**
+ * Encode/decode time per entry for the binary cache serializer against JSON, for single
+ * {@link ProductView} read models ({@code shape=product}) and 50-item search results
+ * ({@code shape=list}). Bytes per entry are deterministic and measured outside JMH.
+ * <p>
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=CacheSerializerBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    private static final int CATALOG_SIZE = 1_000;
+    private static final int LIST_SIZE = 50;
+
+    private final RedisSerializer<Object> json = new GenericJackson2JsonRedisSerializer();
+    private final RedisSerializer<Object> binary = new BinaryRedisSerializer(
+            List.of(ProductViewCodecs.PRODUCT_VIEW, ProductViewCodecs.PRODUCT_VIEW_LIST), json, 1024);
+
+    @Param({"product", "list"})
+    public String shape;
+
+    private List<Object> values;
+    private List<byte[]> jsonEncoded;
+    private List<byte[]> binaryEncoded;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        values = values(shape);
+        jsonEncoded = values.stream().map(json::serialize).toList();
+        binaryEncoded = values.stream().map(binary::serialize).toList();
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return json.serialize(values.get(index()));
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binary.serialize(values.get(index()));
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return json.deserialize(jsonEncoded.get(index()));
+    }
+
+    @Benchmark
+    public Object binaryDecode() {
+        return binary.deserialize(binaryEncoded.get(index()));
+    }
+
+    @Test
+    void binary_shouldBeSmallerAndFasterThanJson() throws RunnerException {
+        for (String each : List.of("product", "list")) {
+            List<Object> entries = values(each);
+            long jsonBytes = bytesPerEntry(json, entries);
+            long binaryBytes = bytesPerEntry(binary, entries);
+            System.out.printf(Locale.ROOT, "%-7s json %5d B/entry, binary %5d B/entry%n", each, jsonBytes, binaryBytes);
+            assertThat(binaryBytes).isLessThan(jsonBytes);
+        }
+
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(CacheSerializerBenchmark.class.getName())
+                .build()).run();
+
+        Map<String, Double> nanos = results.stream().collect(Collectors.toMap(
+                result -> result.getPrimaryResult().getLabel() + ':' + result.getParams().getParam("shape"),
+                result -> result.getPrimaryResult().getScore()));
+        nanos.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry ->
+                System.out.printf(Locale.ROOT, "%-21s %10.0f ns/entry%n", entry.getKey(), entry.getValue()));
+
+        assertThat(nanos.get("binaryDecode:product")).isLessThan(nanos.get("jsonDecode:product"));
+        assertThat(nanos.get("binaryEncode:product")).isLessThan(nanos.get("jsonEncode:product"));
+    }
+
+    private int index() {
+        int index = next;
+        next = index + 1 == values.size() ? 0 : index + 1;
+        return index;
+    }
+
+    private static long bytesPerEntry(RedisSerializer<Object> serializer, List<Object> entries) {
+        return entries.stream().mapToLong(entry -> serializer.serialize(entry).length).sum() / entries.size();
+    }
+
+    private static List<Object> values(String shape) {
+        List<ProductView> catalog = catalog(CATALOG_SIZE);
+        if ("product".equals(shape)) {
+            return new ArrayList<>(catalog);
+        }
+        List<Object> lists = new ArrayList<>();
+        for (int i = 0; i + LIST_SIZE <= catalog.size(); i += LIST_SIZE) {
+            lists.add(new ArrayList<>(catalog.subList(i, i + LIST_SIZE)));
+        }
+        return lists;
+    }
+
+    private static List<ProductView> catalog(int size) {
+        Random random = new Random(42);
+        String[] nouns = {"Laptop", "Keyboard", "Monitor", "Headphones", "Mouse", "Webcam", "Dock"};
+        List<ProductView> views = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            views.add(new ProductView(
+                    id << 22 | random.nextInt(4096),
+                    nouns[random.nextInt(nouns.length)] + " model " + random.nextInt(10_000),
+                    random.nextInt(500),
+                    BigDecimal.valueOf(random.nextInt(200_000), 2)));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,220 @@
+package com.intelligent.ecommerce.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.client.RestClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelligent.ecommerce.service.QueryEmbeddingCache;
+import com.intelligent.ecommerce.service.VectorService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Embeddings per second through {@link VectorService#embed} with {@code CALLERS} concurrent JMH
+ * threads, with and without {@code vector.batch.enabled}.
+ * <p>
+ * The callers hit a local stub of Ollama's {@code /api/embed} that, like a single model runner,
+ * evaluates one request at a time: a fixed cost per request ({@code REQUEST_MICROS}) plus a cost
+ * per input ({@code INPUT_MICROS}), returning {@code DIMENSIONS}-wide vectors. Unbatched, every
+ * caller pays the fixed cost in turn; batched, the callers queued behind one request share it.
+ * Requests and inputs reaching the stub are reported per second as JMH secondary results.
+ * <p>
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=EmbeddingBatchingBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(EmbeddingBatchingBenchmark.CALLERS)
+@Fork(1)
+public class EmbeddingBatchingBenchmark {
+
+    static final int CALLERS = 32;
+    private static final int DIMENSIONS = 768;
+    private static final long REQUEST_MICROS = 4_000;
+    private static final long INPUT_MICROS = 150;
+
+    @Param({"false", "true"})
+    public boolean batching;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantLock model = new ReentrantLock();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong inputs = new AtomicLong();
+    private ExecutorService handlers;
+    private HttpServer ollama;
+    private String vectorJson;
+    private VectorService vectorService;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        StringJoiner vector = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector.add(Float.toString((i % 97) / 97f - 0.5f));
+        }
+        vectorJson = vector.toString();
+
+        handlers = Executors.newFixedThreadPool(CALLERS + 4);
+        ollama = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ollama.createContext("/api/embed", this::answer);
+        ollama.setExecutor(handlers);
+        ollama.start();
+
+        RestClient client = RestClient.builder()
+                .baseUrl("http://127.0.0.1:" + ollama.getAddress().getPort())
+                .build();
+        vectorService = new VectorService(client,
+                new QueryEmbeddingCache(1 << 20, new SimpleMeterRegistry()), batching, 32, 2, 1000, 10_000);
+        vectorService.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+        vectorService.stop();
+        ollama.stop(0);
+        handlers.shutdownNow();
+    }
+
+    /**
+     * One JMH thread. Only the first caller reports the stub's counters, so they are not summed
+     * once per thread.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Caller {
+
+        private static final AtomicInteger IDS = new AtomicInteger();
+
+        private final int id = IDS.getAndIncrement();
+        private long done;
+        private long requestsBefore;
+        private long inputsBefore;
+
+        public long requests;
+        public long inputs;
+
+        @Setup(Level.Iteration)
+        public void reset(EmbeddingBatchingBenchmark benchmark) {
+            requestsBefore = benchmark.requests.get();
+            inputsBefore = benchmark.inputs.get();
+            requests = 0;
+            inputs = 0;
+        }
+
+        // Distinct texts, so the query embedding cache never answers for the model
+        private String nextText() {
+            return "query " + id + " " + done++;
+        }
+
+        private void observe(EmbeddingBatchingBenchmark benchmark) {
+            if (id == 0) {
+                requests = benchmark.requests.get() - requestsBefore;
+                inputs = benchmark.inputs.get() - inputsBefore;
+            }
+        }
+    }
+
+    @Benchmark
+    public float[] embed(Caller caller) {
+        float[] vector = vectorService.embed(caller.nextText());
+        if (vector.length != DIMENSIONS) {
+            throw new IllegalStateException("Unexpected dimensions " + vector.length);
+        }
+        caller.observe(this);
+        return vector;
+    }
+
+    @Test
+    void throughputWithAndWithoutBatching() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(EmbeddingBatchingBenchmark.class.getName())
+                .shouldFailOnError(true)
+                .build()).run();
+
+        Map<Boolean, RunResult> byBatching = results.stream().collect(Collectors.toMap(
+                result -> Boolean.parseBoolean(result.getParams().getParam("batching")), result -> result));
+        for (Map.Entry<Boolean, RunResult> entry : byBatching.entrySet()) {
+            System.out.printf(Locale.ROOT, "%-10s %8.0f embeddings/s  %5.1f inputs/request%n",
+                    entry.getKey() ? "batched" : "unbatched",
+                    entry.getValue().getPrimaryResult().getScore(), inputsPerRequest(entry.getValue()));
+        }
+
+        assertThat(inputsPerRequest(byBatching.get(true))).isGreaterThan(1.0);
+        assertThat(byBatching.get(true).getPrimaryResult().getScore())
+                .isGreaterThan(byBatching.get(false).getPrimaryResult().getScore());
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        JsonNode input = objectMapper.readTree(exchange.getRequestBody()).get("input");
+        int size = input.isArray() ? input.size() : 1;
+
+        model.lock();
+        try {
+            TimeUnit.MICROSECONDS.sleep(REQUEST_MICROS + INPUT_MICROS * size);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            model.unlock();
+        }
+        requests.incrementAndGet();
+        inputs.addAndGet(size);
+
+        StringJoiner embeddings = new StringJoiner(",", "{\"model\":\"stub\",\"embeddings\":[", "]}");
+        for (int i = 0; i < size; i++) {
+            embeddings.add(vectorJson);
+        }
+        byte[] body = embeddings.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static double inputsPerRequest(RunResult result) {
+        double requests = result.getSecondaryResults().get("requests").getScore();
+        return requests == 0 ? 0 : result.getSecondaryResults().get("inputs").getScore() / requests;
+    }
+}
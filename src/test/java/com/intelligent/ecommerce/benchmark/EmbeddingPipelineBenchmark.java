@@ -0,0 +1,120 @@
+package com.intelligent.ecommerce.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelligent.ecommerce.utilities.PgVectorEncoder;
+
+/**
+ * Time and allocation per search for the query embedding path: reading Ollama's
+ * {@code /api/embed} response and rendering the pgvector parameter. {@code boxed} is the previous
+ * pipeline ({@code List<List<Double>>}, then {@code Collectors.joining}), {@code primitive} the
+ * current one ({@code float[][]}, then {@link PgVectorEncoder}).
+ * <p>
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=EmbeddingPipelineBenchmark}. Allocation is
+ * the JMH GC profiler's {@code gc.alloc.rate.norm}, in bytes per search.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmbeddingPipelineBenchmark {
+
+    private static final int DIMENSIONS = 768;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        // Shaped like Ollama's answer for nomic-embed-text: single-precision values, six-figure timings
+        Random random = new Random(42);
+        StringJoiner vector = new StringJoiner(",", "[", "]");
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector.add(Float.toString((float) (random.nextGaussian() * 0.05)));
+        }
+        response = ("{\"model\":\"nomic-embed-text:latest\",\"embeddings\":[" + vector
+                + "],\"total_duration\":14143917,\"load_duration\":1019500,\"prompt_eval_count\":3}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String boxed() throws IOException {
+        List<Double> vector = objectMapper.readValue(response, BoxedResponse.class).embeddings().get(0);
+        return "[" + vector.stream()
+                .map(d -> Double.toString(d))
+                .collect(Collectors.joining(","))
+                + "]";
+    }
+
+    @Benchmark
+    public String primitive() throws IOException {
+        return PgVectorEncoder.encode(objectMapper.readValue(response, PrimitiveResponse.class).embeddings()[0]);
+    }
+
+    @Test
+    void primitivePipeline_shouldAllocateLessPerSearch() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(EmbeddingPipelineBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+
+        Map<String, RunResult> byName = results.stream().collect(Collectors.toMap(
+                result -> result.getPrimaryResult().getLabel(), result -> result));
+        for (Map.Entry<String, RunResult> entry : byName.entrySet()) {
+            System.out.printf(Locale.ROOT, "%-9s %8.2f us/search %10.0f B/search%n",
+                    entry.getKey(), entry.getValue().getPrimaryResult().getScore(), allocated(entry.getValue()));
+        }
+
+        assertThat(allocated(byName.get("primitive"))).isLessThan(allocated(byName.get("boxed")));
+        assertThat(byName.get("primitive").getPrimaryResult().getScore())
+                .isLessThan(byName.get("boxed").getPrimaryResult().getScore());
+    }
+
+    private static double allocated(RunResult result) {
+        return result.getSecondaryResults().entrySet().stream()
+                .filter(entry -> entry.getKey().endsWith("gc.alloc.rate.norm"))
+                .mapToDouble(entry -> entry.getValue().getScore())
+                .findFirst()
+                .orElseThrow();
+    }
+
+    record BoxedResponse(String model, List<List<Double>> embeddings) {
+    }
+
+    record PrimitiveResponse(String model, float[][] embeddings) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.intelligent.ecommerce.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.intelligent.ecommerce.vector.HnswIndex;
+
+/**
+ * Query latency of {@link HnswIndex} against an exact brute-force cosine scan, on a synthetic
+ * catalog shaped like product name embeddings: {@code CATALOG} vectors of {@code DIMENSIONS}
+ * floats scattered around {@code TOPICS} cluster centres, queried with fresh points from the same
+ * clusters.
+ * <p>
+ * The index is built with the production defaults ({@code m=16}, {@code ef-construction=200})
+ * and queried at each {@code efSearch}. Recall@10 is deterministic for the seeded catalog and
+ * measured outside JMH.
+ * <p>
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=HnswIndexBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HnswIndexBenchmark {
+
+    private static final int CATALOG = 20_000;
+    private static final int DIMENSIONS = 768;
+    private static final int TOPICS = 200;
+    private static final double SPREAD = 0.6;
+    private static final int QUERIES = 500;
+    private static final int K = 10;
+    private static final int DEFAULT_EF_SEARCH = 100;
+    // Recall is checked at the same values Search.efSearch is timed at
+    private static final int[] EF_SEARCH = {16, 32, 64, 100, 200};
+
+    private float[][] units;
+    private float[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Corpus corpus = Corpus.generate();
+        units = corpus.units();
+        queries = corpus.queries();
+    }
+
+    /** The index is only built for the forks that search it, once per {@code efSearch}. */
+    @State(Scope.Benchmark)
+    public static class Search {
+
+        @Param({"16", "32", "64", "100", "200"})
+        public int efSearch;
+
+        private HnswIndex index;
+        private float[][] queries;
+        private int next;
+
+        @Setup
+        public void setUp() {
+            Corpus corpus = Corpus.generate();
+            index = corpus.index();
+            queries = corpus.queries();
+        }
+
+        private float[] nextQuery() {
+            float[] query = queries[next];
+            next = next + 1 == queries.length ? 0 : next + 1;
+            return query;
+        }
+    }
+
+    @Benchmark
+    public List<Long> hnsw(Search search) {
+        return search.index.search(search.nextQuery(), K, search.efSearch);
+    }
+
+    @Benchmark
+    public Set<Long> bruteForce() {
+        float[] query = queries[next];
+        next = next + 1 == queries.length ? 0 : next + 1;
+        return bruteForce(units, query);
+    }
+
+    @Test
+    void hnsw_shouldKeepRecallAndBeatBruteForce() throws RunnerException {
+        Corpus corpus = Corpus.generate();
+        HnswIndex index = corpus.index();
+        float[][] catalogUnits = corpus.units();
+        List<Set<Long>> truth = new ArrayList<>(QUERIES);
+        for (float[] query : corpus.queries()) {
+            truth.add(bruteForce(catalogUnits, query));
+        }
+
+        double recallAtDefault = 0;
+        for (int ef : EF_SEARCH) {
+            int found = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                found += (int) index.search(corpus.queries()[q], K, ef).stream().filter(truth.get(q)::contains).count();
+            }
+            double recall = found / (double) (QUERIES * K);
+            System.out.printf(Locale.ROOT, "ef=%-3d recall@%d %.4f%n", ef, K, recall);
+            if (ef == DEFAULT_EF_SEARCH) {
+                recallAtDefault = recall;
+            }
+        }
+        assertThat(recallAtDefault).isGreaterThan(0.95);
+
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(HnswIndexBenchmark.class.getName())
+                .build()).run();
+
+        Map<String, Double> micros = results.stream().collect(Collectors.toMap(
+                result -> result.getPrimaryResult().getLabel()
+                        + (result.getParams().getParam("efSearch") == null ? "" : ":" + result.getParams().getParam("efSearch")),
+                result -> result.getPrimaryResult().getScore()));
+        micros.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry ->
+                System.out.printf(Locale.ROOT, "%-10s %10.1f us/query%n", entry.getKey(), entry.getValue()));
+
+        assertThat(micros.get("hnsw:" + DEFAULT_EF_SEARCH)).isLessThan(micros.get("bruteForce"));
+    }
+
+    // Exact top K by cosine: one pass with a bounded max-heap of distances
+    private static Set<Long> bruteForce(float[][] units, float[] query) {
+        float[] q = unit(query);
+        PriorityQueue<double[]> farthestFirst = new PriorityQueue<>((a, b) -> Double.compare(b[0], a[0]));
+        for (int i = 0; i < units.length; i++) {
+            float dot = 0;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                dot += q[d] * units[i][d];
+            }
+            double distance = 1 - dot;
+            if (farthestFirst.size() < K) {
+                farthestFirst.add(new double[]{distance, i});
+            } else if (distance < farthestFirst.peek()[0]) {
+                farthestFirst.poll();
+                farthestFirst.add(new double[]{distance, i});
+            }
+        }
+        Set<Long> ids = new HashSet<>();
+        farthestFirst.forEach(entry -> ids.add((long) entry[1]));
+        return ids;
+    }
+
+    private static float[] unit(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] unit = new float[vector.length];
+        for (int d = 0; d < vector.length; d++) {
+            unit[d] = (float) (vector[d] / Math.sqrt(norm));
+        }
+        return unit;
+    }
+
+    // Same seed everywhere, so every fork and the recall check see the same catalog and queries
+    private record Corpus(float[][] catalog, float[][] queries) {
+
+        static Corpus generate() {
+            Random random = new Random(42);
+            float[][] topics = new float[TOPICS][];
+            for (int t = 0; t < TOPICS; t++) {
+                topics[t] = gaussian(random);
+            }
+            float[][] catalog = new float[CATALOG][];
+            for (int i = 0; i < CATALOG; i++) {
+                catalog[i] = near(topics[random.nextInt(TOPICS)], random);
+            }
+            float[][] queries = new float[QUERIES][];
+            for (int q = 0; q < QUERIES; q++) {
+                queries[q] = near(topics[random.nextInt(TOPICS)], random);
+            }
+            return new Corpus(catalog, queries);
+        }
+
+        HnswIndex index() {
+            HnswIndex index = new HnswIndex(16, 200, DEFAULT_EF_SEARCH);
+            for (int i = 0; i < catalog.length; i++) {
+                index.add(i, catalog[i]);
+            }
+            return index;
+        }
+
+        float[][] units() {
+            float[][] units = new float[catalog.length][];
+            for (int i = 0; i < catalog.length; i++) {
+                units[i] = unit(catalog[i]);
+            }
+            return units;
+        }
+
+        private static float[] gaussian(Random random) {
+            float[] vector = new float[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+            return vector;
+        }
+
+        private static float[] near(float[] topic, Random random) {
+            float[] vector = new float[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                vector[d] = topic[d] + (float) (SPREAD * random.nextGaussian());
+            }
+            return vector;
+        }
+    }
+}
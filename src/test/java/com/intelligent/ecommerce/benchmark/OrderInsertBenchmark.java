@@ -0,0 +1,155 @@
+package com.intelligent.ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.entity.Order;
+import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
+import com.intelligent.ecommerce.entity.User;
+import com.intelligent.ecommerce.enums.PaymentMethod;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
+import com.intelligent.ecommerce.repository.ProductRepository;
+import com.intelligent.ecommerce.repository.UserRepository;
+import com.intelligent.ecommerce.service.OrderService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts JDBC statements and measures latency per order for {@link OrderService#createOrder}.
+ * <p>
+ * With IDENTITY keys every order, order item and payment insert is its own statement followed by a
+ * key read-back. With application-assigned ids the inserts of one flush are grouped into one JDBC
+ * batch per table. To get the "before" numbers run the same class on a checkout that still maps
+ * {@code GenerationType.IDENTITY}. Statements and entity inserts are JMH secondary results, as
+ * totals next to the {@code orders} they were counted over.
+ * <p>
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=OrderInsertBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderInsertBenchmark {
+
+    private static final int LINES_PER_ORDER = 5;
+    // Never sells out, however many orders an iteration fits in
+    private static final int STOCK = 1_000_000_000;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private Statistics statistics;
+    private Long customerId;
+    private List<CreateOrderItemRequest> items;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counted {
+        public long orders;
+        public long statements;
+        public long inserts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            orders = 0;
+            statements = 0;
+            inserts = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start("spring.jpa.properties.hibernate.generate_statistics=true");
+        orderService = context.getBean(OrderService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        customerId = context.getBean(UserRepository.class)
+                .save(User.builder().email("bench@test.com").username("bench").build())
+                .getId();
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        ProductInventoryRepository productInventoryRepository = context.getBean(ProductInventoryRepository.class);
+        List<CreateOrderItemRequest> lines = new ArrayList<>();
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            for (int i = 0; i < LINES_PER_ORDER; i++) {
+                Product product = productRepository.save(Product.builder()
+                        .name("Product " + i)
+                        .price(BigDecimal.TEN)
+                        .build());
+                productInventoryRepository.save(ProductInventory.builder().product(product).stockQuantity(STOCK).build());
+                lines.add(new CreateOrderItemRequest(product.getId(), 1));
+            }
+        });
+        items = lines;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order createOrder(Counted counted) {
+        long prepared = statistics.getPrepareStatementCount();
+        long inserted = statistics.getEntityInsertCount();
+        Order order = orderService.createOrder(customerId, items, PaymentMethod.CARD);
+        counted.statements += statistics.getPrepareStatementCount() - prepared;
+        counted.inserts += statistics.getEntityInsertCount() - inserted;
+        counted.orders++;
+        return order;
+    }
+
+    @Test
+    void statementsAndLatencyPerOrder() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(OrderInsertBenchmark.class.getName())
+                .shouldFailOnError(true)
+                .build()).run();
+
+        RunResult result = results.iterator().next();
+        double orders = total(result, "orders");
+        double statements = total(result, "statements") / orders;
+        double inserts = total(result, "inserts") / orders;
+        System.out.printf(Locale.ROOT, "lines/order=%d statements/order=%.2f inserts/order=%.2f latency/order=%.3fms%n",
+                LINES_PER_ORDER, statements, inserts, result.getPrimaryResult().getScore());
+
+        // One order, its items and its payment are inserted on every call
+        assertThat(inserts).isEqualTo(LINES_PER_ORDER + 2.0);
+    }
+
+    private static double total(RunResult result, String counter) {
+        return result.getSecondaryResults().get(counter).getScore();
+    }
+}
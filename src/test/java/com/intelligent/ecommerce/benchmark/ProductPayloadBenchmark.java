@@ -0,0 +1,181 @@
+package com.intelligent.ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelligent.ecommerce.dto.product.ProductView;
+import com.intelligent.ecommerce.entity.Product;
+
+/**
+ * Compares what a catalog read costs when the full entity (with its 768-dim embedding) is
+ * cached and returned, against the {@link ProductView} read model: time per Redis entry encoded
+ * and decoded under JMH, and entry sizes, which are deterministic, measured on a sample outside
+ * JMH and extrapolated to a 100k product catalog.
+ * <p>
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=ProductPayloadBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductPayloadBenchmark {
+
+    private static final int DIMENSIONS = 768;
+    private static final int SAMPLE = 1_000;
+    private static final int CATALOG = 100_000;
+    private static final int STOCK = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GenericJackson2JsonRedisSerializer redisSerializer = new GenericJackson2JsonRedisSerializer();
+    // The entity as it was cached before the embedding was excluded from serialization
+    private final GenericJackson2JsonRedisSerializer entitySerializer = new GenericJackson2JsonRedisSerializer()
+            .configure(mapper -> mapper.addMixIn(Product.class, SerializedEmbedding.class));
+
+    private List<Product> products;
+    private List<ProductView> views;
+    private List<byte[]> entityEntries;
+    private List<byte[]> viewEntries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        products = sample();
+        views = products.stream().map(ProductPayloadBenchmark::toView).toList();
+        entityEntries = products.stream().map(entitySerializer::serialize).toList();
+        viewEntries = views.stream().map(redisSerializer::serialize).toList();
+    }
+
+    @Benchmark
+    public byte[] entityEncode() {
+        return entitySerializer.serialize(products.get(index()));
+    }
+
+    @Benchmark
+    public byte[] viewEncode() {
+        return redisSerializer.serialize(views.get(index()));
+    }
+
+    @Benchmark
+    public Object entityDecode() {
+        return entitySerializer.deserialize(entityEntries.get(index()));
+    }
+
+    @Benchmark
+    public Object viewDecode() {
+        return redisSerializer.deserialize(viewEntries.get(index()));
+    }
+
+    @Test
+    void readModel_shouldShrinkResponseAndCacheEntries() throws JsonProcessingException, RunnerException {
+        List<Product> sample = sample();
+        long entityAvg = sample.stream().mapToLong(product -> entitySerializer.serialize(product).length).sum() / SAMPLE;
+        long viewAvg = sample.stream().mapToLong(product -> redisSerializer.serialize(toView(product)).length).sum() / SAMPLE;
+        // Compact Latin-1 strings: one byte per char plus ~40 bytes of String/array headers
+        long embeddingHeapAvg = sample.stream().mapToLong(product -> product.getNameEmbedding().length()).sum() / SAMPLE + 40;
+
+        Product product = sample.get(1);
+        int entityJsonWithoutEmbedding = objectMapper.writeValueAsBytes(product).length;
+        int viewJson = objectMapper.writeValueAsBytes(toView(product)).length;
+
+        System.out.printf(Locale.ROOT, "Redis entry per product: entity=%d B, view=%d B (%.1fx smaller)%n",
+                entityAvg, viewAvg, (double) entityAvg / viewAvg);
+        System.out.printf(Locale.ROOT, "Entity JSON with @JsonIgnore embedding=%d B, view JSON=%d B%n",
+                entityJsonWithoutEmbedding, viewJson);
+        System.out.printf(Locale.ROOT, "Extrapolated to %d products: entity=%.1f MB, view=%.1f MB in Redis; "
+                        + "embedding strings alone ~%.1f MB of heap in a Caffeine tier%n",
+                CATALOG, mb(entityAvg * CATALOG), mb(viewAvg * CATALOG), mb(embeddingHeapAvg * CATALOG));
+
+        assertThat(viewAvg * 10).isLessThan(entityAvg);
+        assertThat(objectMapper.writeValueAsString(product)).doesNotContain("nameEmbedding");
+
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(ProductPayloadBenchmark.class.getName())
+                .build()).run();
+
+        Map<String, Double> micros = results.stream().collect(Collectors.toMap(
+                result -> result.getPrimaryResult().getLabel(), result -> result.getPrimaryResult().getScore()));
+        micros.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry ->
+                System.out.printf(Locale.ROOT, "%-12s %8.2f us/entry%n", entry.getKey(), entry.getValue()));
+
+        assertThat(micros.get("viewEncode")).isLessThan(micros.get("entityEncode"));
+        assertThat(micros.get("viewDecode")).isLessThan(micros.get("entityDecode"));
+    }
+
+    private abstract static class SerializedEmbedding {
+        @JsonIgnore(false)
+        @JsonProperty
+        String nameEmbedding;
+    }
+
+    private int index() {
+        int index = next;
+        next = index + 1 == SAMPLE ? 0 : index + 1;
+        return index;
+    }
+
+    private static ProductView toView(Product product) {
+        return new ProductView(product.getId(), product.getName(), STOCK, product.getPrice());
+    }
+
+    private static List<Product> sample() {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(SAMPLE);
+        for (int i = 0; i < SAMPLE; i++) {
+            Product product = Product.builder()
+                    .id((long) i)
+                    .name("Product " + i)
+                    .price(BigDecimal.valueOf(10 + i % 90, 2))
+                    .build();
+            // Same text form Postgres returns for a vector column
+            product.setNameEmbedding(embedding(random));
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static String embedding(Random random) {
+        StringJoiner joiner = new StringJoiner(",", "[", "]");
+        for (int d = 0; d < DIMENSIONS; d++) {
+            joiner.add(Float.toString(random.nextFloat() * 2 - 1));
+        }
+        return joiner.toString();
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
@@ -0,0 +1,174 @@
+package com.intelligent.ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
+import com.intelligent.ecommerce.entity.User;
+import com.intelligent.ecommerce.enums.PaymentMethod;
+import com.intelligent.ecommerce.exception.InsufficientStockException;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
+import com.intelligent.ecommerce.repository.ProductRepository;
+import com.intelligent.ecommerce.repository.UserRepository;
+import com.intelligent.ecommerce.service.OrderService;
+import com.intelligent.ecommerce.service.StockReservationLedger;
+
+/**
+ * Compares the plain {@code SELECT ... FOR UPDATE} path with the reservation ledger in front of it.
+ * One operation is a round of {@code THREADS} concurrent callers that oversubscribe freshly stocked
+ * hot SKUs 4x, so most requests arrive after sell-out; that is where the ledger rejects without
+ * queueing on the row lock. A round that does not sell exactly the stock fails the benchmark.
+ * <p>
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=StockContentionBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StockContentionBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int STOCK_PER_SKU = 50;
+    private static final int OVERSUBSCRIPTION = 4;
+
+    @Param({"1", "10", "100"})
+    public int hotSkus;
+
+    @Param({"false", "true"})
+    public boolean ledger;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private ProductRepository productRepository;
+    private ProductInventoryRepository productInventoryRepository;
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService callers;
+    private Long customerId;
+    private List<Long> productIds;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start();
+        orderService = context.getBean(OrderService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        productInventoryRepository = context.getBean(ProductInventoryRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        customerId = context.getBean(UserRepository.class)
+                .save(User.builder().email("bench@test.com").username("bench").build())
+                .getId();
+        OrderService target = AopTestUtils.getTargetObject(orderService);
+        ReflectionTestUtils.setField(target, "stockReservationLedger",
+                new StockReservationLedger(productInventoryRepository, ledger, 1_000));
+        callers = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        callers.shutdownNow();
+        context.close();
+    }
+
+    // Every round starts on SKUs nobody has ordered yet, so the ledger seeds them afresh too
+    @Setup(Level.Iteration)
+    public void restock() {
+        List<Long> ids = new ArrayList<>(hotSkus);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < hotSkus; i++) {
+                Product product = productRepository.save(Product.builder()
+                        .name("Hot " + i)
+                        .price(BigDecimal.TEN)
+                        .build());
+                productInventoryRepository.save(ProductInventory.builder().product(product).stockQuantity(STOCK_PER_SKU).build());
+                ids.add(product.getId());
+            }
+        });
+        productIds = ids;
+    }
+
+    @Benchmark
+    public int oversubscribedRound() throws Exception {
+        int requests = hotSkus * STOCK_PER_SKU * OVERSUBSCRIPTION;
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(callers.submit(() -> {
+                while (next.getAndIncrement() < requests) {
+                    Long productId = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+                    try {
+                        orderService.createOrder(customerId,
+                                List.of(new CreateOrderItemRequest(productId, 1)), PaymentMethod.CARD);
+                        accepted.incrementAndGet();
+                    } catch (InsufficientStockException ignored) {
+                        // expected once the SKU sells out
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        if (accepted.get() != hotSkus * STOCK_PER_SKU) {
+            throw new IllegalStateException("Sold " + accepted.get() + " of " + hotSkus * STOCK_PER_SKU);
+        }
+        return accepted.get();
+    }
+
+    @Test
+    void compareLockPathWithLedger() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(StockContentionBenchmark.class.getName())
+                .shouldFailOnError(true)
+                .build()).run();
+
+        for (RunResult result : results) {
+            int skus = Integer.parseInt(result.getParams().getParam("hotSkus"));
+            boolean withLedger = Boolean.parseBoolean(result.getParams().getParam("ledger"));
+            double millis = result.getPrimaryResult().getScore();
+            System.out.printf(Locale.ROOT, "%3d hot SKUs %-6s %8.1f ms/round %8.0f req/s%n", skus,
+                    withLedger ? "ledger" : "lock", millis, skus * STOCK_PER_SKU * OVERSUBSCRIPTION / (millis / 1_000));
+        }
+
+        // Each round already failed its fork unless it sold exactly the stock
+        assertThat(results).hasSize(6);
+    }
+}
@@ -0,0 +1,74 @@
+package com.intelligent.ecommerce.cache;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.intelligent.ecommerce.dto.product.ProductView;
+
+class BinaryRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final BinaryRedisSerializer serializer = new BinaryRedisSerializer(
+            List.of(ProductViewCodecs.PRODUCT_VIEW, ProductViewCodecs.PRODUCT_VIEW_LIST), json, 256);
+
+    @Test
+    void roundTrip_shouldPreserveProductViewAndBeSmallerThanJson() {
+        ProductView view = new ProductView(42L, "Laptop", 7, new BigDecimal("1499.99"));
+
+        byte[] bytes = serializer.serialize(view);
+
+        assertThat(serializer.deserialize(bytes)).isEqualTo(view);
+        assertThat(bytes.length).isLessThan(json.serialize(view).length / 2);
+    }
+
+    @Test
+    void roundTrip_shouldHandleMissingFields() {
+        ProductView view = new ProductView(1L, null, null, null);
+
+        assertThat(serializer.deserialize(serializer.serialize(view))).isEqualTo(view);
+    }
+
+    @Test
+    void roundTrip_shouldPreserveNamesLongerThan64Kb() {
+        ProductView view = new ProductView(42L, "Ä".repeat(40_000), 7, new BigDecimal("1499.99"));
+
+        assertThat(serializer.deserialize(serializer.serialize(view))).isEqualTo(view);
+    }
+
+    @Test
+    void serialize_shouldCompressLargeLists() {
+        List<ProductView> views = new ArrayList<>();
+        for (long i = 0; i < 200; i++) {
+            views.add(new ProductView(i, "Wireless mechanical keyboard " + i, 100, new BigDecimal("89.90")));
+        }
+
+        byte[] bytes = serializer.serialize(views);
+
+        assertThat(bytes[0] & 0x02).isNotZero();
+        assertThat(serializer.deserialize(bytes)).isEqualTo(views);
+    }
+
+    @Test
+    void deserialize_shouldReadEntriesWrittenAsJson() {
+        ProductView view = new ProductView(42L, "Laptop", 7, new BigDecimal("1499.99"));
+
+        assertThat(serializer.deserialize(json.serialize(view))).isEqualTo(view);
+    }
+
+    @Test
+    void serialize_shouldFallBackForTypesWithoutCodec() {
+        Map<String, Object> value = new HashMap<>(Map.of("status", "CREATED"));
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertThat(bytes[0]).isEqualTo((byte) 0x01);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(value);
+    }
+}
@@ -0,0 +1,78 @@
+package com.intelligent.ecommerce.cache;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class CacheStatsEndpointTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    private final ConcurrentMapCacheManager shared = new ConcurrentMapCacheManager();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private TieredCacheManager cacheManager;
+    private CacheStatsEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new TieredCacheManager(shared, redisTemplate, new ObjectMapper(), "cache:invalidation",
+                new TieredCacheSettings(Duration.ofMinutes(10), 100, Duration.ofSeconds(5), Duration.ofMillis(200), 0, Duration.ofMinutes(60)),
+                Runnable::run, new RedisCircuitBreaker(3, Duration.ofSeconds(1), () -> {}), registry);
+        endpoint = new CacheStatsEndpoint(cacheManager);
+    }
+
+    @Test
+    void cache_shouldReportHitRatioAcrossBothTiersAndLoadLatency() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        shared.getCache("products").put(2L, "mouse");
+        TieredCache cache = (TieredCache) cacheManager.getCache("products");
+
+        // Miss in both tiers and a load, two local hits, then a shared hit
+        cache.get(1L, () -> "laptop");
+        cache.get(1L, () -> "laptop");
+        cache.get(1L, () -> "laptop");
+        cache.get(2L);
+
+        CacheStatsEndpoint.CacheReport report = endpoint.cache("products");
+
+        assertThat(report.requests()).isEqualTo(4);
+        assertThat(report.hitRatio()).isCloseTo(0.75, within(1e-9));
+        assertThat(report.localHitRatio()).isCloseTo(0.5, within(1e-9));
+        assertThat(report.load().count()).isEqualTo(1);
+        assertThat(report.load().p99()).isGreaterThanOrEqualTo(0);
+        assertThat(report.redis()).containsKeys("get", "lease", "release", "put");
+        assertThat(report.redis().get("get").count()).isEqualTo(2);
+        assertThat(report.coalescing().loads()).isEqualTo(1);
+    }
+
+    @Test
+    void caches_shouldListCreatedCachesAndBreakerState() {
+        cacheManager.getCache("products");
+
+        CacheStatsEndpoint.ManagerReport report = endpoint.caches();
+
+        assertThat(report.redisDown()).isFalse();
+        assertThat(report.caches()).containsOnlyKeys("products");
+        assertThat(registry.get("cache.redis.breaker.open").gauge().value()).isZero();
+        assertThat(registry.get("cache.hit.ratio").tag("cache", "products").gauge()).isNotNull();
+    }
+}
@@ -0,0 +1,70 @@
+package com.intelligent.ecommerce.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+class RedisCircuitBreakerTest {
+
+    @Test
+    void probe_shouldReplayBeforeClosing() throws Exception {
+        AtomicBoolean redisUp = new AtomicBoolean(false);
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(1, Duration.ofMillis(20), () -> ping(redisUp));
+        List<Boolean> openDuringHook = new CopyOnWriteArrayList<>();
+        breaker.onClose(() -> openDuringHook.add(breaker.isOpen()));
+
+        trip(breaker);
+        redisUp.set(true);
+        awaitClosed(breaker);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (openDuringHook.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // First pass runs before closing, the second one after
+        assertThat(openDuringHook).containsExactly(true, false);
+    }
+
+    @Test
+    void probe_shouldStayOpenWhileTheReplayFails() throws Exception {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(1, Duration.ofMillis(20), () -> { });
+        AtomicInteger replays = new AtomicInteger();
+        breaker.onClose(() -> {
+            if (replays.incrementAndGet() < 3) {
+                throw new QueryTimeoutException("Redis timed out");
+            }
+        });
+
+        trip(breaker);
+        awaitClosed(breaker);
+
+        assertThat(replays.get()).isGreaterThanOrEqualTo(3);
+    }
+
+    private static void ping(AtomicBoolean redisUp) {
+        if (!redisUp.get()) {
+            throw new QueryTimeoutException("Redis timed out");
+        }
+    }
+
+    private static void trip(RedisCircuitBreaker breaker) {
+        breaker.run(() -> {
+            throw new QueryTimeoutException("Redis timed out");
+        });
+        assertThat(breaker.isOpen()).isTrue();
+    }
+
+    private static void awaitClosed(RedisCircuitBreaker breaker) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (breaker.isOpen() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(breaker.isOpen()).isFalse();
+    }
+}
@@ -0,0 +1,213 @@
+package com.intelligent.ecommerce.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.protocol.ProtocolVersion;
+
+/**
+ * Runs the tiered cache against a real Lettuce client talking to {@link RedisStandIn}, and stops
+ * the stand-in halfway through to check that caching degrades to the local tier and recovers.
+ * Also checks that a load never writes back over an eviction that landed while it ran.
+ */
+class RedisOutageTest {
+
+    private static final Duration COMMAND_TIMEOUT = Duration.ofMillis(200);
+
+    private RedisStandIn redis;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisCircuitBreaker breaker;
+    private TieredCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = RedisStandIn.start();
+
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("127.0.0.1", redis.port()),
+                LettuceClientConfiguration.builder()
+                        .commandTimeout(COMMAND_TIMEOUT)
+                        .clientOptions(ClientOptions.builder()
+                                .protocolVersion(ProtocolVersion.RESP2)
+                                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                                .socketOptions(SocketOptions.builder().connectTimeout(COMMAND_TIMEOUT).build())
+                                .build())
+                        .build());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        RedisCacheManager shared = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(Duration.ofMinutes(5))
+                        .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())))
+                .build();
+        shared.afterPropertiesSet();
+
+        breaker = new RedisCircuitBreaker(2, Duration.ofMillis(100),
+                () -> redisTemplate.execute((RedisCallback<String>) RedisConnection::ping));
+        cacheManager = new TieredCacheManager(shared, redisTemplate, new ObjectMapper(), "cache:invalidation",
+                new TieredCacheSettings(Duration.ofMinutes(10), 100, Duration.ofSeconds(5), Duration.ofMillis(200), 0, Duration.ofMinutes(60)),
+                Runnable::run, breaker, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connectionFactory.destroy();
+        redis.close();
+    }
+
+    @Test
+    void get_shouldKeepLoadingLocallyWhileRedisIsDown() throws Exception {
+        Cache cache = cacheManager.getCache("products");
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get(1L, () -> "laptop-" + loads.incrementAndGet())).isEqualTo("laptop-1");
+        assertThat(redis.containsKey("products::1")).isTrue();
+
+        redis.stop();
+
+        // Already local, Redis is not needed
+        assertThat(cache.get(1L, () -> "laptop-" + loads.incrementAndGet())).isEqualTo("laptop-1");
+        // Cold keys load straight from the source
+        for (long id = 2; id <= 5; id++) {
+            long key = id;
+            assertThat(cache.get(key, () -> "product-" + key)).isEqualTo("product-" + key);
+        }
+        assertThat(breaker.isOpen()).isTrue();
+
+        // With the breaker open nothing waits on Redis any more
+        long started = System.nanoTime();
+        assertThat(cache.get(6L, () -> "mouse")).isEqualTo("mouse");
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(COMMAND_TIMEOUT);
+        assertThat(cache.get(6L, String.class)).isEqualTo("mouse");
+    }
+
+    @Test
+    void evict_shouldBeReplayedToRedisOnceItIsBack() throws Exception {
+        Cache cache = cacheManager.getCache("products");
+        cache.get(1L, () -> "laptop");
+        cache.get(2L, () -> "mouse");
+
+        redis.stop();
+        cache.evict(1L);
+        cache.evict(2L);
+        cache.evict(3L);
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(cache.get(1L)).isNull();
+        // Redis still holds the stale copy until it can be told otherwise
+        assertThat(redis.containsKey("products::1")).isTrue();
+
+        redis.resume();
+        // The probe reconnects, replays the missed evictions and then closes the breaker
+        awaitTrue(() -> !breaker.isOpen(), Duration.ofSeconds(10));
+        assertThat(redis.containsKey("products::1")).isFalse();
+        assertThat(redis.containsKey("products::2")).isFalse();
+        assertThat(cache.get(1L, () -> "laptop v2")).isEqualTo("laptop v2");
+        assertThat(redis.containsKey("products::1")).isTrue();
+    }
+
+    @Test
+    void evictAll_shouldDropEveryGivenEntryAndRefuseStaleWriteBacks() {
+        TieredCache cache = (TieredCache) cacheManager.getCache("products");
+        cache.get(1L, () -> "laptop");
+        cache.get(2L, () -> "mouse");
+        cache.get(3L, () -> "monitor");
+
+        // The orders commit while the loader still holds the old stock of product 1
+        assertThat(cache.get(4L, () -> {
+            cache.evictAll(List.of(1L, 2L, 4L));
+            return "keyboard v1";
+        })).isEqualTo("keyboard v1");
+
+        assertThat(redis.containsKey("products::1")).isFalse();
+        assertThat(redis.containsKey("products::2")).isFalse();
+        assertThat(redis.containsKey("products::3")).isTrue();
+        assertThat(redis.containsKey("products::4")).isFalse();
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(3L, String.class)).isEqualTo("monitor");
+    }
+
+    @Test
+    void evictAll_shouldBeReplayedToRedisOnceItIsBack() throws Exception {
+        TieredCache cache = (TieredCache) cacheManager.getCache("products");
+        cache.get(1L, () -> "laptop");
+        cache.get(2L, () -> "mouse");
+
+        redis.stop();
+        cache.evictAll(List.of(1L, 2L));
+        cache.evictAll(List.of(1L, 2L));
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(cache.get(1L)).isNull();
+
+        redis.resume();
+        awaitTrue(() -> !breaker.isOpen(), Duration.ofSeconds(10));
+        assertThat(redis.containsKey("products::1")).isFalse();
+        assertThat(redis.containsKey("products::2")).isFalse();
+    }
+
+    @Test
+    void get_shouldNotWriteBackAValueEvictedWhileItWasLoading() {
+        Cache cache = cacheManager.getCache("products");
+
+        // The order commits and evicts after the loader read the old stock
+        assertThat(cache.get(1L, () -> {
+            cache.evict(1L);
+            return "laptop v1";
+        })).isEqualTo("laptop v1");
+
+        assertThat(redis.containsKey("products::1")).isFalse();
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(1L, () -> "laptop v2")).isEqualTo("laptop v2");
+        assertThat(redis.containsKey("products::1")).isTrue();
+    }
+
+    @Test
+    void getAll_shouldOnlyWriteBackEntriesThatDidNotChangeWhileLoading() {
+        TieredCache cache = (TieredCache) cacheManager.getCache("products");
+
+        Map<Long, String> loaded = cache.getAll(List.of(1L, 2L), ids -> {
+            cache.evict(2L);
+            return Map.of(1L, "laptop", 2L, "mouse v1");
+        });
+
+        assertThat(loaded).containsEntry(1L, "laptop").containsEntry(2L, "mouse v1");
+        assertThat(redis.containsKey("products::1")).isTrue();
+        assertThat(redis.containsKey("products::2")).isFalse();
+        assertThat(cache.get(2L)).isNull();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within %s", timeout).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
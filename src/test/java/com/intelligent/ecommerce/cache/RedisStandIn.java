@@ -0,0 +1,286 @@
+package com.intelligent.ecommerce.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal in-process Redis speaking RESP2, enough for {@code RedisCache}, load leases, entry
+ * versions and {@code PING}. It can be stopped and restarted on the same port to simulate an outage; data
+ * survives a restart, like a Redis with persistence.
+ */
+final class RedisStandIn implements AutoCloseable {
+
+    private final Map<String, Entry> data = new ConcurrentHashMap<>();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final int port;
+    private volatile ServerSocket server;
+
+    private RedisStandIn(int port) {
+        this.port = port;
+    }
+
+    static RedisStandIn start() throws IOException {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        RedisStandIn redis = new RedisStandIn(port);
+        redis.resume();
+        return redis;
+    }
+
+    int port() {
+        return port;
+    }
+
+    boolean containsKey(String key) {
+        Entry entry = data.get(key);
+        return entry != null && !entry.expired();
+    }
+
+    synchronized void resume() throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server = socket;
+        Thread acceptor = new Thread(() -> accept(socket), "redis-stand-in-" + port);
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /** Drops the listening socket and every client connection, as if the server died. */
+    synchronized void stop() throws IOException {
+        server.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+        clients.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        stop();
+    }
+
+    private void accept(ServerSocket socket) {
+        while (!socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                clients.add(client);
+                Thread handler = new Thread(() -> serve(client), "redis-stand-in-client");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException ex) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client;
+             InputStream in = new BufferedInputStream(client.getInputStream());
+             OutputStream out = new BufferedOutputStream(client.getOutputStream())) {
+            while (true) {
+                List<byte[]> command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                out.write(execute(command));
+                out.flush();
+            }
+        } catch (IOException ex) {
+            // Connection closed
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    private byte[] execute(List<byte[]> command) {
+        String name = text(command.get(0)).toUpperCase(Locale.ROOT);
+        switch (name) {
+            case "PING":
+                return simple("+PONG");
+            case "HELLO":
+                return simple("-ERR unknown command 'HELLO'");
+            case "CLIENT", "SELECT", "AUTH":
+                return simple("+OK");
+            case "GET": {
+                Entry entry = live(text(command.get(1)));
+                return entry == null ? simple("$-1") : bulk(entry.value());
+            }
+            case "SET":
+                return set(command);
+            case "DEL": {
+                int removed = 0;
+                for (int i = 1; i < command.size(); i++) {
+                    if (live(text(command.get(i))) != null && data.remove(text(command.get(i))) != null) {
+                        removed++;
+                    }
+                }
+                return simple(":" + removed);
+            }
+            case "PTTL": {
+                Entry entry = live(text(command.get(1)));
+                if (entry == null) {
+                    return simple(":-2");
+                }
+                return simple(":" + (entry.expiresAt() == 0 ? -1 : entry.expiresAt() - System.currentTimeMillis()));
+            }
+            case "PUBLISH":
+                return simple(":0");
+            case "EVALSHA":
+                return simple("-NOSCRIPT No matching script. Please use EVAL.");
+            case "MGET": {
+                ByteArrayOutputStream reply = new ByteArrayOutputStream();
+                reply.writeBytes(simple("*" + (command.size() - 1)));
+                for (int i = 1; i < command.size(); i++) {
+                    Entry entry = live(text(command.get(i)));
+                    reply.writeBytes(entry == null ? simple("$-1") : bulk(entry.value()));
+                }
+                return reply.toByteArray();
+            }
+            case "EVAL":
+                return eval(command);
+            default:
+                return simple("-ERR unknown command '" + name + "'");
+        }
+    }
+
+    // Runs the cache's scripts natively: EVAL script numkeys keys... args...
+    private synchronized byte[] eval(List<byte[]> command) {
+        String script = text(command.get(1));
+        if (script.equals(TieredCacheManager.BUMP_VERSION.getScriptAsString())) {
+            String key = text(command.get(3));
+            Entry entry = live(key);
+            long version = entry == null ? 1 : Long.parseLong(text(entry.value())) + 1;
+            long expiresAt = System.currentTimeMillis() + Long.parseLong(text(command.get(4)));
+            data.put(key, new Entry(String.valueOf(version).getBytes(StandardCharsets.UTF_8), expiresAt));
+            return simple(":" + version);
+        }
+        if (script.equals(TieredCacheManager.PUT_IF_UNCHANGED)) {
+            if (!version(text(command.get(4))).equals(text(command.get(6)))
+                    || !version(text(command.get(5))).equals(text(command.get(7)))) {
+                return simple(":0");
+            }
+            long ttl = Long.parseLong(text(command.get(9)));
+            data.put(text(command.get(3)), new Entry(command.get(8), ttl == 0 ? 0 : System.currentTimeMillis() + ttl));
+            return simple(":1");
+        }
+        // Otherwise the lease release script: delete KEYS[1] if it holds ARGV[1]
+        String key = text(command.get(3));
+        Entry entry = live(key);
+        boolean owned = entry != null && text(entry.value()).equals(text(command.get(4)));
+        return simple(":" + (owned && data.remove(key) != null ? 1 : 0));
+    }
+
+    private String version(String key) {
+        Entry entry = live(key);
+        return entry == null ? "" : text(entry.value());
+    }
+
+    private byte[] set(List<byte[]> command) {
+        String key = text(command.get(1));
+        byte[] value = command.get(2);
+        boolean onlyIfAbsent = false;
+        long expiresAt = 0;
+        for (int i = 3; i < command.size(); i++) {
+            String option = text(command.get(i)).toUpperCase(Locale.ROOT);
+            switch (option) {
+                case "NX" -> onlyIfAbsent = true;
+                case "PX" -> expiresAt = System.currentTimeMillis() + Long.parseLong(text(command.get(++i)));
+                case "EX" -> expiresAt = System.currentTimeMillis() + 1000 * Long.parseLong(text(command.get(++i)));
+                default -> {
+                    return simple("-ERR syntax error");
+                }
+            }
+        }
+        if (onlyIfAbsent && live(key) != null) {
+            return simple("$-1");
+        }
+        data.put(key, new Entry(value, expiresAt));
+        return simple("+OK");
+    }
+
+    private Entry live(String key) {
+        Entry entry = data.get(key);
+        if (entry != null && entry.expired()) {
+            data.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header == null) {
+            return null;
+        }
+        if (header.charAt(0) != '*') {
+            throw new IOException("Inline commands are not supported: " + header);
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<byte[]> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String length = readLine(in);
+            if (length == null) {
+                return null;
+            }
+            byte[] part = in.readNBytes(Integer.parseInt(length.substring(1)));
+            readLine(in);
+            parts.add(part);
+        }
+        return parts;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int previous = -1;
+        int current;
+        while ((current = in.read()) != -1) {
+            if (previous == '\r' && current == '\n') {
+                byte[] bytes = line.toByteArray();
+                return new String(bytes, 0, bytes.length - 1, StandardCharsets.UTF_8);
+            }
+            line.write(current);
+            previous = current;
+        }
+        return null;
+    }
+
+    private static byte[] simple(String reply) {
+        return (reply + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bulk(byte[] value) {
+        ByteArrayOutputStream reply = new ByteArrayOutputStream(value.length + 16);
+        reply.writeBytes(("$" + value.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+        reply.writeBytes(value);
+        reply.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+        return reply.toByteArray();
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Entry(byte[] value, long expiresAt) {
+        boolean expired() {
+            return expiresAt != 0 && System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.intelligent.ecommerce.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class TieredCacheManagerTest {
+
+    private static final String CHANNEL = "cache:invalidation";
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentMapCacheManager shared = new ConcurrentMapCacheManager();
+    private TieredCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new TieredCacheManager(shared, redisTemplate, objectMapper, CHANNEL,
+                new TieredCacheSettings(Duration.ofMinutes(10), 100, Duration.ofSeconds(5), Duration.ofMillis(200), 0, Duration.ofMinutes(60)),
+                Runnable::run, new RedisCircuitBreaker(3, Duration.ofSeconds(1), () -> {}), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void get_shouldServeFromLocalTierOnceFilled() {
+        shared.getCache("products").put(1L, "laptop");
+        Cache cache = cacheManager.getCache("products");
+
+        assertThat(cache.get(1L, String.class)).isEqualTo("laptop");
+        // Gone from the shared tier, still answered locally
+        shared.getCache("products").evict(1L);
+        assertThat(cache.get(1L, String.class)).isEqualTo("laptop");
+    }
+
+    @Test
+    void evict_shouldPublishInvalidationForTheKey() throws Exception {
+        Cache cache = cacheManager.getCache("products");
+        cache.put(1L, "laptop");
+
+        cache.evict(1L);
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, times(2)).convertAndSend(eq(CHANNEL), payload.capture());
+        CacheInvalidation invalidation = objectMapper.readValue(payload.getValue(), CacheInvalidation.class);
+        assertThat(invalidation.cacheName()).isEqualTo("products");
+        assertThat(invalidation.key()).isEqualTo("1");
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void onMessage_shouldDropLocalEntryChangedOnAnotherNode() throws Exception {
+        Cache cache = cacheManager.getCache("products");
+        cache.put(1L, "laptop");
+        // Another node updates the shared tier
+        shared.getCache("products").put(1L, "laptop v2");
+        assertThat(cache.get(1L, String.class)).isEqualTo("laptop");
+
+        cacheManager.onMessage(message(new CacheInvalidation("other-node", "products", "1")), null);
+
+        assertThat(cache.get(1L, String.class)).isEqualTo("laptop v2");
+    }
+
+    @Test
+    void onMessage_shouldWinOverAFillFromTheSharedTierInProgress() {
+        TieredCacheManager[] racing = new TieredCacheManager[1];
+        // The other node's change and invalidation land after Redis answered, before the local fill
+        ConcurrentMapCache products = new ConcurrentMapCache("products") {
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper stale = super.get(key);
+                put(key, "laptop v2");
+                try {
+                    racing[0].onMessage(message(new CacheInvalidation("other-node", "products", "1")), null);
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+                return stale;
+            }
+        };
+        products.put(1L, "laptop");
+        SimpleCacheManager sharedManager = new SimpleCacheManager();
+        sharedManager.setCaches(List.of(products));
+        sharedManager.afterPropertiesSet();
+        racing[0] = new TieredCacheManager(sharedManager, redisTemplate, objectMapper, CHANNEL,
+                new TieredCacheSettings(Duration.ofMinutes(10), 100, Duration.ofSeconds(5), Duration.ofMillis(200), 0, Duration.ofMinutes(60)),
+                Runnable::run, new RedisCircuitBreaker(3, Duration.ofSeconds(1), () -> {}), new SimpleMeterRegistry());
+        Cache cache = racing[0].getCache("products");
+
+        assertThat(cache.get(1L, String.class)).isEqualTo("laptop");
+
+        // The stale read was not kept locally, so the next read sees the change
+        assertThat(cache.get(1L, String.class)).isEqualTo("laptop v2");
+    }
+
+    @Test
+    void onMessage_shouldIgnoreItsOwnInvalidations() throws Exception {
+        Cache cache = cacheManager.getCache("products");
+        cache.put(1L, "laptop");
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), payload.capture());
+        shared.getCache("products").evict(1L);
+
+        cacheManager.onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+                payload.getValue().getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(cache.get(1L, String.class)).isEqualTo("laptop");
+    }
+
+    @Test
+    void onMessage_shouldClearLocalTierWhenKeyIsMissing() throws Exception {
+        Cache cache = cacheManager.getCache("products");
+        cache.put(1L, "laptop");
+        cache.put(2L, "mouse");
+        shared.getCache("products").clear();
+
+        cacheManager.onMessage(message(new CacheInvalidation("other-node", "products", null)), null);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNull();
+        verify(redisTemplate, times(2)).convertAndSend(eq(CHANNEL), anyString());
+    }
+
+    @Test
+    void getWithLoader_shouldRunOneLoadForConcurrentMisses() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        TieredCache cache = (TieredCache) cacheManager.getCache("products");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> cache.get(1L, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "laptop";
+        })));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 7; i++) {
+            results.add(executor.submit(() -> cache.get(1L, () -> {
+                loads.incrementAndGet();
+                return "duplicate load";
+            })));
+        }
+        // Let the followers reach the in-flight load before it finishes
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("laptop");
+        }
+        executor.shutdown();
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.loadStats().loads()).isEqualTo(1);
+        assertThat(cache.loadStats().localWaits()).isEqualTo(7);
+    }
+
+    @Test
+    void getWithLoader_shouldUseValueLoadedByLeaseHolder() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        // Another node holds the lease and publishes the value while this node waits
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation -> {
+            shared.getCache("products").put(1L, "laptop");
+            return false;
+        });
+        TieredCache cache = (TieredCache) cacheManager.getCache("products");
+
+        String value = cache.get(1L, () -> {
+            throw new AssertionError("must not load");
+        });
+
+        assertThat(value).isEqualTo("laptop");
+        assertThat(cache.loadStats()).isEqualTo(new CacheLoadStats(0, 0, 1, 0));
+    }
+
+    @Test
+    void getWithLoader_shouldLoadItselfWhenLeaseHolderNeverPublishes() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        TieredCache cache = (TieredCache) cacheManager.getCache("products");
+
+        assertThat(cache.get(1L, () -> "laptop")).isEqualTo("laptop");
+        assertThat(shared.getCache("products").get(1L, String.class)).isEqualTo("laptop");
+        assertThat(cache.loadStats().loads()).isEqualTo(1);
+    }
+
+    @Test
+    void getWithLoader_shouldRefreshAheadWhileServingCurrentValue() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        List<Runnable> scheduled = new ArrayList<>();
+        TieredCacheManager refreshing = new TieredCacheManager(shared, redisTemplate, objectMapper, CHANNEL,
+                new TieredCacheSettings(Duration.ofMillis(400), 100, Duration.ofSeconds(5), Duration.ofMillis(200), 0.5, Duration.ofMinutes(60)),
+                scheduled::add, new RedisCircuitBreaker(3, Duration.ofSeconds(1), () -> {}), new SimpleMeterRegistry());
+        TieredCache cache = (TieredCache) refreshing.getCache("products");
+        AtomicInteger version = new AtomicInteger();
+
+        assertThat(cache.get(1L, () -> "v" + version.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.get(1L, () -> "v" + version.incrementAndGet())).isEqualTo("v1");
+        assertThat(scheduled).isEmpty();
+
+        // Past half of the local TTL: still served, but a reload is queued once
+        Thread.sleep(250);
+        // The shared copy is gone, so the refresh goes back to the source
+        shared.getCache("products").evict(1L);
+        assertThat(cache.get(1L, () -> "v" + version.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.get(1L, () -> "v" + version.incrementAndGet())).isEqualTo("v1");
+        assertThat(scheduled).hasSize(1);
+
+        scheduled.get(0).run();
+
+        assertThat(cache.get(1L, () -> "v" + version.incrementAndGet())).isEqualTo("v2");
+        assertThat(shared.getCache("products").get(1L, String.class)).isEqualTo("v2");
+        assertThat(cache.loadStats().refreshes()).isEqualTo(1);
+    }
+
+    @Test
+    void getAll_shouldLoadOnlyWhatNeitherTierHolds() {
+        shared.getCache("products").put(1L, "laptop");
+        TieredCache cache = (TieredCache) cacheManager.getCache("products");
+        cache.get(1L);
+        shared.getCache("products").evict(1L);
+        shared.getCache("products").put(2L, "mouse");
+        List<Set<Long>> loaderCalls = new ArrayList<>();
+
+        Map<Long, String> values = cache.getAll(List.of(3L, 1L, 2L, 4L), missing -> {
+            loaderCalls.add(Set.copyOf(missing));
+            return Map.of(3L, "keyboard");
+        });
+
+        assertThat(values).containsExactly(Map.entry(3L, "keyboard"), Map.entry(1L, "laptop"), Map.entry(2L, "mouse"));
+        assertThat(loaderCalls).containsExactly(Set.of(3L, 4L));
+        // Loaded values are written back to both tiers
+        assertThat(shared.getCache("products").get(3L, String.class)).isEqualTo("keyboard");
+        assertThat(cache.getAll(List.of(3L), missing -> {
+            throw new AssertionError("must not load");
+        })).containsEntry(3L, "keyboard");
+    }
+
+    private DefaultMessage message(CacheInvalidation invalidation) throws Exception {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), objectMapper.writeValueAsBytes(invalidation));
+    }
+}
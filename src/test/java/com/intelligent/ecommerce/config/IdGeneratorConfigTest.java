@@ -0,0 +1,36 @@
+package com.intelligent.ecommerce.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+class IdGeneratorConfigTest {
+
+    private final MockEnvironment environment = new MockEnvironment();
+
+    @Test
+    void resolveNodeId_shouldUseTheConfiguredValue() {
+        environment.setActiveProfiles("prod");
+
+        assertThat(IdGeneratorConfig.resolveNodeId(" 17 ", environment)).isEqualTo(17);
+    }
+
+    @Test
+    void resolveNodeId_shouldFailWhenUnsetOutsideDevAndTest() {
+        environment.setActiveProfiles("prod");
+
+        assertThatThrownBy(() -> IdGeneratorConfig.resolveNodeId("", environment))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("NODE_ID");
+        assertThatThrownBy(() -> IdGeneratorConfig.resolveNodeId(null, new MockEnvironment()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void resolveNodeId_shouldFallBackToZeroForDevAndTest() {
+        environment.setActiveProfiles("dev");
+
+        assertThat(IdGeneratorConfig.resolveNodeId("", environment)).isZero();
+    }
+}
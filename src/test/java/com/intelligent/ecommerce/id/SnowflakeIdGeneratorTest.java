@@ -0,0 +1,87 @@
+package com.intelligent.ecommerce.id;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelligent.ecommerce.dto.product.ProductView;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void nextId_shouldEncodeTimestampNodeAndSequence() {
+        Instant now = Instant.parse("2025-06-01T00:00:00Z");
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, Clock.fixed(now, ZoneOffset.UTC));
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertThat(first >>> 22).isEqualTo(now.toEpochMilli() - SnowflakeIdGenerator.EPOCH_MILLIS);
+        assertThat((first >>> 12) & SnowflakeIdGenerator.MAX_NODE_ID).isEqualTo(7);
+        assertThat(first & SnowflakeIdGenerator.MAX_SEQUENCE).isZero();
+        assertThat(second).isEqualTo(first + 1);
+    }
+
+    @Test
+    void nextId_shouldReachClientsAsAnExactString() throws Exception {
+        long id = new SnowflakeIdGenerator(7, Clock.fixed(Instant.parse("2025-06-01T00:00:00Z"), ZoneOffset.UTC)).nextId();
+        ObjectMapper objectMapper = new ObjectMapper();
+        // Past 2^53 a JavaScript client would round a JSON number
+        assertThat(id).isGreaterThan(1L << 53);
+
+        String json = objectMapper.writeValueAsString(new ProductView(id, "Laptop", 3, new BigDecimal("999.99")));
+
+        assertThat(json).contains("\"id\":\"" + id + "\"");
+        assertThat(objectMapper.readValue(json, ProductView.class).getId()).isEqualTo(id);
+    }
+
+    @Test
+    void nextId_shouldStayIncreasingWhenSequenceIsExhausted() {
+        Instant now = Instant.parse("2025-06-01T00:00:00Z");
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, Clock.fixed(now, ZoneOffset.UTC));
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 3 * (SnowflakeIdGenerator.MAX_SEQUENCE + 1); i++) {
+            long next = generator.nextId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void nextId_shouldBeUniqueAcrossThreads() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ids).hasSize(80_000);
+    }
+
+    @Test
+    void constructor_shouldRejectOutOfRangeNodeId() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(1024))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Node id");
+    }
+}
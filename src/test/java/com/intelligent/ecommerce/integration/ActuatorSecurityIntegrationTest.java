@@ -0,0 +1,73 @@
+package com.intelligent.ecommerce.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.intelligent.ecommerce.entity.User;
+import com.intelligent.ecommerce.enums.Role;
+import com.intelligent.ecommerce.repository.UserRepository;
+import com.intelligent.ecommerce.security.JwtUtil;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ActuatorSecurityIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void health_shouldStayOpenToAnonymousProbes() throws Exception {
+        int status = mockMvc.perform(get("/actuator/health")).andReturn().getResponse().getStatus();
+
+        // DOWN answers 503 when Redis is not running, which is still an answer
+        assertThat(status).isNotIn(401, 403);
+    }
+
+    @Test
+    void metricsAndCacheStats_shouldRejectAnonymousRequests() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/cachestats")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void metrics_shouldRejectNonAdminUsers() throws Exception {
+        String token = tokenFor("shopper@example.com", Role.User);
+
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void metrics_shouldServeAdmins() throws Exception {
+        String token = tokenFor("ops@example.com", Role.ADMIN);
+
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    private String tokenFor(String email, Role role) {
+        if (userRepository.findByEmail(email).isEmpty()) {
+            userRepository.save(User.builder()
+                    .email(email)
+                    .password("x")
+                    .role(role)
+                    .isVerified(true)
+                    .build());
+        }
+        return jwtUtil.generateToken(email, role.name());
+    }
+}
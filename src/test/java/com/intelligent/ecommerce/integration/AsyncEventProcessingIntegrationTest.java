@@ -17,12 +17,14 @@ import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
 import com.intelligent.ecommerce.entity.Order;
 import com.intelligent.ecommerce.entity.Payment;
 import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
 import com.intelligent.ecommerce.entity.User;
 import com.intelligent.ecommerce.enums.OrderStatus;
 import com.intelligent.ecommerce.enums.PaymentMethod;
 import com.intelligent.ecommerce.event.OrderCreatedEvent;
 import com.intelligent.ecommerce.repository.OrderRepository;
 import com.intelligent.ecommerce.repository.PaymentRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
 import com.intelligent.ecommerce.repository.ProductRepository;
 import com.intelligent.ecommerce.repository.UserRepository;
 import com.intelligent.ecommerce.service.OrderService;
@@ -42,6 +44,9 @@ class AsyncEventProcessingIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
     @Autowired
     private PaymentRepository paymentRepository;
 
@@ -61,6 +66,7 @@ class AsyncEventProcessingIntegrationTest {
         // امسح بالترتيب الآمن (payments -> orders -> products -> users)
         paymentRepository.deleteAll();
         orderRepository.deleteAll();
+        productInventoryRepository.deleteAll();
         productRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -91,10 +97,10 @@ class AsyncEventProcessingIntegrationTest {
         product = Product.builder()
                 .name("Test Product")
                 .price(new BigDecimal("100.00"))
-                .stockQuantity(10)
                 .build();
 
         productRepository.save(product);
+        productInventoryRepository.save(ProductInventory.builder().product(product).stockQuantity(10).build());
     }
 
     @Test
@@ -0,0 +1,169 @@
+package com.intelligent.ecommerce.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.entity.Order;
+import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
+import com.intelligent.ecommerce.entity.User;
+import com.intelligent.ecommerce.enums.PaymentMethod;
+import com.intelligent.ecommerce.exception.InsufficientStockException;
+import com.intelligent.ecommerce.repository.OrderRepository;
+import com.intelligent.ecommerce.repository.PaymentRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
+import com.intelligent.ecommerce.repository.ProductRepository;
+import com.intelligent.ecommerce.repository.UserRepository;
+import com.intelligent.ecommerce.service.GroupCommitOrderWriter;
+import com.intelligent.ecommerce.service.OrderService;
+import com.intelligent.ecommerce.service.PendingOrder;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GroupCommitIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Product laptop;
+    private Product mouse;
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up existing data
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        productInventoryRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+
+        // Inventory shares the product's id, so both rows are written while the product is managed
+        transactionTemplate.executeWithoutResult(status -> {
+            laptop = productRepository.save(Product.builder()
+                    .name("Laptop")
+                    .price(java.math.BigDecimal.valueOf(1500.0))
+                    .build());
+
+            mouse = productRepository.save(Product.builder()
+                    .name("Mouse")
+                    .price(java.math.BigDecimal.valueOf(25.0))
+                    .build());
+            productInventoryRepository.saveAll(List.of(
+                    ProductInventory.builder().product(laptop).stockQuantity(3).build(),
+                    ProductInventory.builder().product(mouse).stockQuantity(10).build()
+            ));
+        });
+
+        customer = userRepository.save(User.builder()
+                .email("customer@test.com")
+                .username("customer")
+                .build());
+    }
+
+    @Test
+    void createOrders_shouldCommitAcceptedOrdersAndRejectOnlyTheOneWithoutStock() {
+        // Arrange - the second request asks for more laptops than remain after the first
+        PendingOrder first = new PendingOrder(customer.getId(),
+                List.of(new CreateOrderItemRequest(laptop.getId(), 2)), PaymentMethod.CARD);
+        PendingOrder second = new PendingOrder(customer.getId(),
+                List.of(new CreateOrderItemRequest(laptop.getId(), 2), new CreateOrderItemRequest(mouse.getId(), 1)),
+                PaymentMethod.CASH);
+        PendingOrder third = new PendingOrder(customer.getId(),
+                List.of(new CreateOrderItemRequest(mouse.getId(), 4)), PaymentMethod.CASH);
+
+        // Act
+        orderService.createOrders(List.of(first, second, third));
+
+        // Assert
+        assertThat(first.getOrder()).isNotNull();
+        assertThat(third.getOrder()).isNotNull();
+        assertThat(second.getOrder()).isNull();
+        assertThat(second.getRejection()).isInstanceOf(InsufficientStockException.class);
+
+        assertThat(orderRepository.count()).isEqualTo(2);
+        assertThat(paymentRepository.count()).isEqualTo(2);
+        assertThat(productInventoryRepository.findById(laptop.getId()).orElseThrow().getStockQuantity()).isEqualTo(1);
+        // The rejected request's mouse line must not have been applied
+        assertThat(productInventoryRepository.findById(mouse.getId()).orElseThrow().getStockQuantity()).isEqualTo(6);
+    }
+
+    @Test
+    void createOrder_shouldShareCommitsAmongConcurrentCallersWithoutOverselling() throws Exception {
+        // Arrange - 10 callers want one mouse each, 10 more want one laptop each (only 3 in stock)
+        GroupCommitOrderWriter writer = new GroupCommitOrderWriter(orderService, true, 50, 20, 100, 30_000);
+        writer.start();
+        ExecutorService callers = Executors.newFixedThreadPool(20);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> results = new ArrayList<>();
+
+        try {
+            // Act
+            for (int i = 0; i < 20; i++) {
+                Long productId = i % 2 == 0 ? mouse.getId() : laptop.getId();
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return writer.createOrder(customer.getId(),
+                            List.of(new CreateOrderItemRequest(productId, 1)), PaymentMethod.CARD);
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            int rejected = 0;
+            for (Future<Order> result : results) {
+                try {
+                    assertThat(result.get(30, TimeUnit.SECONDS).getId()).isNotNull();
+                    succeeded++;
+                } catch (ExecutionException ex) {
+                    assertThat(ex.getCause()).isInstanceOf(InsufficientStockException.class);
+                    rejected++;
+                }
+            }
+
+            // Assert
+            assertThat(succeeded).isEqualTo(13);
+            assertThat(rejected).isEqualTo(7);
+            assertThat(orderRepository.count()).isEqualTo(13);
+            assertThat(paymentRepository.count()).isEqualTo(13);
+            assertThat(productInventoryRepository.findById(laptop.getId()).orElseThrow().getStockQuantity()).isZero();
+            assertThat(productInventoryRepository.findById(mouse.getId()).orElseThrow().getStockQuantity()).isZero();
+        } finally {
+            callers.shutdownNow();
+            writer.stop();
+        }
+    }
+}
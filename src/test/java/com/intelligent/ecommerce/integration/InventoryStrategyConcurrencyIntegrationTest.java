@@ -0,0 +1,165 @@
+package com.intelligent.ecommerce.integration;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
+import com.intelligent.ecommerce.entity.User;
+import com.intelligent.ecommerce.enums.InventoryStrategy;
+import com.intelligent.ecommerce.enums.PaymentMethod;
+import com.intelligent.ecommerce.exception.InsufficientStockException;
+import com.intelligent.ecommerce.repository.OrderItemRepository;
+import com.intelligent.ecommerce.repository.OrderRepository;
+import com.intelligent.ecommerce.repository.PaymentRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
+import com.intelligent.ecommerce.repository.ProductRepository;
+import com.intelligent.ecommerce.repository.UserRepository;
+import com.intelligent.ecommerce.service.OrderService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryStrategyConcurrencyIntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 20;
+    private static final int STOCK = 50;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Product hot;
+    private Product other;
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up existing data
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        productInventoryRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+
+        // Inventory shares the product's id, so both rows are written while the product is managed
+        transactionTemplate.executeWithoutResult(status -> {
+            hot = productRepository.save(Product.builder()
+                    .name("Hot Product")
+                    .price(java.math.BigDecimal.valueOf(10.0))
+                    .build());
+
+            other = productRepository.save(Product.builder()
+                    .name("Other Product")
+                    .price(java.math.BigDecimal.valueOf(5.0))
+                    .build());
+            productInventoryRepository.saveAll(List.of(
+                    ProductInventory.builder().product(hot).stockQuantity(STOCK).build(),
+                    ProductInventory.builder().product(other).stockQuantity(STOCK).build()
+            ));
+        });
+
+        customer = userRepository.save(User.builder()
+                .email("customer@test.com")
+                .username("customer")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(AopTestUtils.<OrderService>getTargetObject(orderService), "inventoryStrategy",
+                InventoryStrategy.PESSIMISTIC_LOCK);
+    }
+
+    @ParameterizedTest
+    @EnumSource(InventoryStrategy.class)
+    void createOrder_shouldNeverOversellUnderConcurrentLoad(InventoryStrategy strategy) throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(AopTestUtils.<OrderService>getTargetObject(orderService), "inventoryStrategy", strategy);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+
+        // Act - 320 orders of 2 hot + 1 other compete for 50 units of each
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        try {
+                            orderService.createOrder(customer.getId(), List.of(
+                                    new CreateOrderItemRequest(other.getId(), 1),
+                                    new CreateOrderItemRequest(hot.getId(), 2)
+                            ), PaymentMethod.CARD);
+                            succeeded.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            rejected.incrementAndGet();
+                        } catch (Exception e) {
+                            unexpected.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        // Assert - exactly floor(50 / 2) orders fit, and stock never goes negative
+        int hotStock = productInventoryRepository.findById(hot.getId()).orElseThrow().getStockQuantity();
+        int otherStock = productInventoryRepository.findById(other.getId()).orElseThrow().getStockQuantity();
+
+        assertThat(unexpected.get()).isZero();
+        assertThat(succeeded.get()).isEqualTo(STOCK / 2);
+        assertThat(rejected.get()).isEqualTo(THREADS * ORDERS_PER_THREAD - STOCK / 2);
+        assertThat(hotStock).isZero();
+        // The rejected orders' first line must have been rolled back
+        assertThat(otherStock).isEqualTo(STOCK - succeeded.get());
+        assertThat(orderRepository.count()).isEqualTo(succeeded.get());
+        assertThat(orderItemRepository.count()).isEqualTo(2L * succeeded.get());
+    }
+}
@@ -19,6 +19,7 @@ import com.intelligent.ecommerce.entity.Product;
 import com.intelligent.ecommerce.entity.User;
 import com.intelligent.ecommerce.enums.OrderStatus;
 import com.intelligent.ecommerce.repository.OrderRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
 import com.intelligent.ecommerce.repository.ProductRepository;
 import com.intelligent.ecommerce.repository.UserRepository;
 import com.intelligent.ecommerce.repository.projection.OrderReportRow;
@@ -30,6 +31,7 @@ class NativeQueryIntegrationTest {
     @Autowired private OrderRepository orderRepository;
     @Autowired private UserRepository userRepository;
     @Autowired private ProductRepository productRepository;
+    @Autowired private ProductInventoryRepository productInventoryRepository;
 
     // label -> persisted user
     private final Map<Long, User> usersByLabel = new LinkedHashMap<>();
@@ -38,6 +40,7 @@ class NativeQueryIntegrationTest {
     @BeforeEach
     void setUp() {
         orderRepository.deleteAll();
+        productInventoryRepository.deleteAll();
         productRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -56,7 +59,6 @@ class NativeQueryIntegrationTest {
                 Product.builder()
                         .name("Report Item")
                         .price(new BigDecimal("1.00"))
-                        .stockQuantity(1_000_000)
                         .build()
         );
     }
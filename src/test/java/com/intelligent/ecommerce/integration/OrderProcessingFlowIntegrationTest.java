@@ -18,11 +18,13 @@ import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.event.ApplicationEvents;
 import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
 import com.intelligent.ecommerce.entity.Order;
 import com.intelligent.ecommerce.entity.Payment;
 import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
 import com.intelligent.ecommerce.entity.User;
 import com.intelligent.ecommerce.enums.OrderStatus;
 import com.intelligent.ecommerce.enums.PaymentMethod;
@@ -30,6 +32,7 @@ import com.intelligent.ecommerce.event.OrderCreatedEvent;
 import com.intelligent.ecommerce.exception.InsufficientStockException;
 import com.intelligent.ecommerce.repository.OrderRepository;
 import com.intelligent.ecommerce.repository.PaymentRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
 import com.intelligent.ecommerce.repository.ProductRepository;
 import com.intelligent.ecommerce.repository.UserRepository;
 import com.intelligent.ecommerce.repository.projection.OrderReportRow;
@@ -43,12 +46,18 @@ class OrderProcessingFlowIntegrationTest {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
     @Autowired
     private PaymentRepository paymentRepository;
 
@@ -72,6 +81,7 @@ class OrderProcessingFlowIntegrationTest {
         // Clean up existing data
         paymentRepository.deleteAll();
         orderRepository.deleteAll();
+        productInventoryRepository.deleteAll();
         productRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -79,22 +89,27 @@ class OrderProcessingFlowIntegrationTest {
         laptop = Product.builder()
                 .name("Gaming Laptop")
                 .price(java.math.BigDecimal.valueOf(2000.0))
-                .stockQuantity(5) // Limited stock
                 .build();
 
         mouse = Product.builder()
                 .name("Gaming Mouse")
                 .price(java.math.BigDecimal.valueOf(50.0))
-                .stockQuantity(100) // High stock
                 .build();
 
         keyboard = Product.builder()
                 .name("Mechanical Keyboard")
                 .price(java.math.BigDecimal.valueOf(150.0))
-                .stockQuantity(20) // Medium stock
                 .build();
 
-        productRepository.saveAll(List.of(laptop, mouse, keyboard));
+        // Inventory shares the product's id, so both rows are written while the product is managed
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.saveAll(List.of(laptop, mouse, keyboard));
+            productInventoryRepository.saveAll(List.of(
+                    ProductInventory.builder().product(laptop).stockQuantity(5).build(), // Limited stock
+                    ProductInventory.builder().product(mouse).stockQuantity(100).build(), // High stock
+                    ProductInventory.builder().product(keyboard).stockQuantity(20).build() // Medium stock
+            ));
+        });
 
         // Create test customers
         customer1 = User.builder()
@@ -148,9 +163,9 @@ class OrderProcessingFlowIntegrationTest {
         assertThat(payment.getPaymentMethod()).isEqualTo(PaymentMethod.CARD);
 
         // Assert - Stock Updates
-        Product updatedLaptop = productRepository.findById(laptop.getId()).orElseThrow();
-        Product updatedMouse = productRepository.findById(mouse.getId()).orElseThrow();
-        Product updatedKeyboard = productRepository.findById(keyboard.getId()).orElseThrow();
+        ProductInventory updatedLaptop = productInventoryRepository.findById(laptop.getId()).orElseThrow();
+        ProductInventory updatedMouse = productInventoryRepository.findById(mouse.getId()).orElseThrow();
+        ProductInventory updatedKeyboard = productInventoryRepository.findById(keyboard.getId()).orElseThrow();
 
         assertThat(updatedLaptop.getStockQuantity()).isEqualTo(4); // 5 - 1
         assertThat(updatedMouse.getStockQuantity()).isEqualTo(98); // 100 - 2
@@ -227,7 +242,7 @@ class OrderProcessingFlowIntegrationTest {
         assertThat(failedOrders).isEqualTo(3); // 3 orders fail due to insufficient stock
 
         // Verify final stock level
-        Product finalLaptop = productRepository.findById(laptop.getId()).orElseThrow();
+        ProductInventory finalLaptop = productInventoryRepository.findById(laptop.getId()).orElseThrow();
         assertThat(finalLaptop.getStockQuantity()).isEqualTo(1); // 5 - 4 = 1
 
         // Verify total orders in database
@@ -253,9 +268,9 @@ class OrderProcessingFlowIntegrationTest {
         assertThat(paymentRepository.count()).isZero();
 
         // Verify stock was not updated
-        Product unchangedLaptop = productRepository.findById(laptop.getId()).orElseThrow();
-        Product unchangedMouse = productRepository.findById(mouse.getId()).orElseThrow();
-        Product unchangedKeyboard = productRepository.findById(keyboard.getId()).orElseThrow();
+        ProductInventory unchangedLaptop = productInventoryRepository.findById(laptop.getId()).orElseThrow();
+        ProductInventory unchangedMouse = productInventoryRepository.findById(mouse.getId()).orElseThrow();
+        ProductInventory unchangedKeyboard = productInventoryRepository.findById(keyboard.getId()).orElseThrow();
 
         assertThat(unchangedLaptop.getStockQuantity()).isEqualTo(5);
         assertThat(unchangedMouse.getStockQuantity()).isEqualTo(100);
@@ -287,8 +302,8 @@ class OrderProcessingFlowIntegrationTest {
         assertThat(payment3.getPaymentMethod()).isEqualTo(PaymentMethod.CARD);
 
         // Verify stock updates
-        Product updatedMouse = productRepository.findById(mouse.getId()).orElseThrow();
-        Product updatedKeyboard = productRepository.findById(keyboard.getId()).orElseThrow();
+        ProductInventory updatedMouse = productInventoryRepository.findById(mouse.getId()).orElseThrow();
+        ProductInventory updatedKeyboard = productInventoryRepository.findById(keyboard.getId()).orElseThrow();
 
         assertThat(updatedMouse.getStockQuantity()).isEqualTo(97); // 100 - 1 - 2
         assertThat(updatedKeyboard.getStockQuantity()).isEqualTo(19); // 20 - 1
@@ -349,7 +364,7 @@ class OrderProcessingFlowIntegrationTest {
         if (totalAmount.compareTo(java.math.BigDecimal.valueOf(1000.0)) > 0) {
             // Use laptop for high-value orders
             int quantity = totalAmount.divide(laptop.getPrice()).intValue();
-            quantity = Math.min(quantity, Math.min(laptop.getStockQuantity(), 2)); // Max 2 laptops per order
+            quantity = Math.min(quantity, Math.min(stockOf(laptop), 2)); // Max 2 laptops per order
             if (quantity <= 0) quantity = 1;
             List<CreateOrderItemRequest> items = List.of(
                     new CreateOrderItemRequest(laptop.getId(), quantity)
@@ -358,7 +373,7 @@ class OrderProcessingFlowIntegrationTest {
         } else {
             // Use mouse for low-value orders
             int quantity = totalAmount.divide(mouse.getPrice()).intValue();
-            quantity = Math.min(quantity, Math.min(mouse.getStockQuantity(), 20)); // Max 20 per order
+            quantity = Math.min(quantity, Math.min(stockOf(mouse), 20)); // Max 20 per order
             if (quantity <= 0) quantity = 1;
             List<CreateOrderItemRequest> items = List.of(
                     new CreateOrderItemRequest(mouse.getId(), quantity)
@@ -366,4 +381,8 @@ class OrderProcessingFlowIntegrationTest {
             orderService.createOrder(customerId, items, PaymentMethod.CARD);
         }
     }
+
+    private int stockOf(Product product) {
+        return productInventoryRepository.findById(product.getId()).orElseThrow().getStockQuantity();
+    }
 }
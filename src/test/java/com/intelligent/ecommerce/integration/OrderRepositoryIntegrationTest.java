@@ -3,10 +3,12 @@ package com.intelligent.ecommerce.integration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -16,15 +18,19 @@ import com.intelligent.ecommerce.entity.Order;
 import com.intelligent.ecommerce.entity.OrderItem;
 import com.intelligent.ecommerce.entity.Payment;
 import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
 import com.intelligent.ecommerce.entity.User;
 import com.intelligent.ecommerce.enums.OrderStatus;
 import com.intelligent.ecommerce.enums.PaymentMethod;
 import com.intelligent.ecommerce.repository.OrderRepository;
 import com.intelligent.ecommerce.repository.PaymentRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
 import com.intelligent.ecommerce.repository.ProductRepository;
 import com.intelligent.ecommerce.repository.UserRepository;
 import com.intelligent.ecommerce.repository.projection.OrderReportRow;
 
+import jakarta.persistence.EntityManager;
+
 @DataJpaTest
 @ActiveProfiles("test")
 class OrderRepositoryIntegrationTest {
@@ -35,12 +41,18 @@ class OrderRepositoryIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
     @Autowired
     private PaymentRepository paymentRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private Product product1;
     private Product product2;
     private Product product3;
@@ -53,6 +65,7 @@ class OrderRepositoryIntegrationTest {
         // Clean up existing data
         paymentRepository.deleteAll();
         orderRepository.deleteAll();
+        productInventoryRepository.deleteAll();
         productRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -60,22 +73,24 @@ class OrderRepositoryIntegrationTest {
         product1 = Product.builder()
                 .name("High-Value Product")
                 .price(java.math.BigDecimal.valueOf(1500.0))
-                .stockQuantity(10)
                 .build();
 
         product2 = Product.builder()
                 .name("Low-Value Product")
                 .price(java.math.BigDecimal.valueOf(25.0))
-                .stockQuantity(50)
                 .build();
 
         product3 = Product.builder()
                 .name("Medium-Value Product")
                 .price(java.math.BigDecimal.valueOf(75.0))
-                .stockQuantity(30)
                 .build();
 
         productRepository.saveAll(List.of(product1, product2, product3));
+        productInventoryRepository.saveAll(List.of(
+                ProductInventory.builder().product(product1).stockQuantity(10).build(),
+                ProductInventory.builder().product(product2).stockQuantity(50).build(),
+                ProductInventory.builder().product(product3).stockQuantity(30).build()
+        ));
 
         // Create test customers
         customer1 = User.builder()
@@ -185,6 +200,77 @@ class OrderRepositoryIntegrationTest {
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void findIdsByCustomerId_shouldPageInDatabaseAndFetchGraphForPageOnly() {
+        // Arrange
+        Order first = createTestOrder(customer1.getId(), java.math.BigDecimal.valueOf(100.0), OrderStatus.CREATED);
+        Order second = createTestOrder(customer1.getId(), java.math.BigDecimal.valueOf(200.0), OrderStatus.CREATED);
+        Order third = createTestOrder(customer1.getId(), java.math.BigDecimal.valueOf(300.0), OrderStatus.CREATED);
+        createTestOrder(customer2.getId(), java.math.BigDecimal.valueOf(400.0), OrderStatus.CREATED);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        Page<Long> ids = orderRepository.findIdsByCustomerId(customer1.getId(),
+                PageRequest.of(0, 2, Sort.by("totalAmount").descending()));
+        List<Order> orders = orderRepository.findAllWithDetailsByIdIn(ids.getContent());
+
+        // Assert
+        assertThat(ids.getContent()).containsExactly(third.getId(), second.getId());
+        assertThat(ids.getTotalElements()).isEqualTo(3);
+        assertThat(ids.getTotalPages()).isEqualTo(2);
+        assertThat(orders).extracting(Order::getId).containsExactlyInAnyOrder(third.getId(), second.getId());
+        assertThat(orders).allSatisfy(order -> assertThat(order.getItems()).hasSize(1));
+        assertThat(orders).extracting(Order::getId).doesNotContain(first.getId());
+    }
+
+    @Test
+    void findIdsByCustomerIdAfter_shouldWalkKeysetPagesAcrossEqualTimestamps() {
+        // Arrange - two orders share a timestamp, so only the id tie-break keeps them apart
+        java.time.Instant now = java.time.Instant.parse("2026-01-01T10:00:00Z");
+        Order oldest = createTestOrder(customer1.getId(), java.math.BigDecimal.valueOf(100.0), OrderStatus.CREATED);
+        Order tiedLow = createTestOrder(customer1.getId(), java.math.BigDecimal.valueOf(200.0), OrderStatus.CREATED);
+        Order tiedHigh = createTestOrder(customer1.getId(), java.math.BigDecimal.valueOf(300.0), OrderStatus.CREATED);
+        Order newest = createTestOrder(customer1.getId(), java.math.BigDecimal.valueOf(400.0), OrderStatus.CREATED);
+        createTestOrder(customer2.getId(), java.math.BigDecimal.valueOf(500.0), OrderStatus.CREATED);
+        entityManager.flush();
+        // Auditing stamps createdAt on insert, so the timestamps are set afterwards
+        setCreatedAt(oldest, now.minusSeconds(60));
+        setCreatedAt(tiedLow, now);
+        setCreatedAt(tiedHigh, now);
+        setCreatedAt(newest, now.plusSeconds(60));
+        entityManager.clear();
+
+        // Act
+        List<Long> firstPage = orderRepository.findFirstIdsByCustomerId(customer1.getId(), Limit.of(2));
+        Order last = orderRepository.findById(firstPage.get(1)).orElseThrow();
+        List<Long> secondPage = orderRepository.findIdsByCustomerIdAfter(customer1.getId(),
+                last.getCreatedAt(), last.getId(), Limit.of(2));
+
+        // Assert
+        assertThat(orderRepository.findById(tiedLow.getId()).orElseThrow().getCreatedAt()).isEqualTo(now);
+        assertThat(firstPage).containsExactly(newest.getId(), Math.max(tiedLow.getId(), tiedHigh.getId()));
+        assertThat(secondPage).containsExactly(Math.min(tiedLow.getId(), tiedHigh.getId()), oldest.getId());
+    }
+
+    @Test
+    void pagingCollectionFetch_shouldFailInsteadOfPaginatingInMemory() {
+        // Guard against HHH90003004: any paged query that fetches a collection must be rejected
+        assertThatThrownBy(() -> entityManager
+                .createQuery("select o from Order o join fetch o.items where o.customer.id = :customerId", Order.class)
+                .setParameter("customerId", customer1.getId())
+                .setMaxResults(10)
+                .getResultList()
+        ).hasMessageContaining("in-memory pagination");
+    }
+
+    private void setCreatedAt(Order order, java.time.Instant createdAt) {
+        entityManager.createQuery("update Order o set o.createdAt = :createdAt where o.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", order.getId())
+                .executeUpdate();
+    }
+
     private Order createTestOrder(Long customerId, java.math.BigDecimal totalAmount, OrderStatus status) {
         // Get customer
         User customer = userRepository.findById(customerId).orElseThrow();
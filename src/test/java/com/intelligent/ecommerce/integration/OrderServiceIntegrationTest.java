@@ -16,12 +16,15 @@ import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.event.ApplicationEvents;
 import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.intelligent.ecommerce.dto.common.CursorPaginatedResponse;
 import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
 import com.intelligent.ecommerce.entity.Order;
 import com.intelligent.ecommerce.entity.OrderItem;
 import com.intelligent.ecommerce.entity.Payment;
 import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
 import com.intelligent.ecommerce.entity.User;
 import com.intelligent.ecommerce.enums.OrderStatus;
 import com.intelligent.ecommerce.enums.PaymentMethod;
@@ -29,6 +32,7 @@ import com.intelligent.ecommerce.event.OrderCreatedEvent;
 import com.intelligent.ecommerce.exception.InsufficientStockException;
 import com.intelligent.ecommerce.repository.OrderRepository;
 import com.intelligent.ecommerce.repository.PaymentRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
 import com.intelligent.ecommerce.repository.ProductRepository;
 import com.intelligent.ecommerce.repository.UserRepository;
 import com.intelligent.ecommerce.repository.projection.OrderReportRow;
@@ -42,12 +46,18 @@ class OrderServiceIntegrationTest {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
     @Autowired
     private PaymentRepository paymentRepository;
 
@@ -69,6 +79,7 @@ class OrderServiceIntegrationTest {
         // Clean up existing data
         paymentRepository.deleteAll();
         orderRepository.deleteAll();
+        productInventoryRepository.deleteAll();
         productRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -76,22 +87,27 @@ class OrderServiceIntegrationTest {
         product1 = Product.builder()
                 .name("Laptop")
                 .price(java.math.BigDecimal.valueOf(1500.0))
-                .stockQuantity(10)
                 .build();
 
         product2 = Product.builder()
                 .name("Mouse")
                 .price(java.math.BigDecimal.valueOf(25.0))
-                .stockQuantity(50)
                 .build();
 
         product3 = Product.builder()
                 .name("Keyboard")
                 .price(java.math.BigDecimal.valueOf(75.0))
-                .stockQuantity(30)
                 .build();
 
-        productRepository.saveAll(List.of(product1, product2, product3));
+        // Inventory shares the product's id, so both rows are written while the product is managed
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.saveAll(List.of(product1, product2, product3));
+            productInventoryRepository.saveAll(List.of(
+                    ProductInventory.builder().product(product1).stockQuantity(10).build(),
+                    ProductInventory.builder().product(product2).stockQuantity(50).build(),
+                    ProductInventory.builder().product(product3).stockQuantity(30).build()
+            ));
+        });
 
         // Create test customers
         customer1 = User.builder()
@@ -149,9 +165,9 @@ class OrderServiceIntegrationTest {
         assertThat(payment.getPaymentMethod()).isEqualTo(PaymentMethod.CARD);
 
         // Verify stock was updated
-        Product updatedProduct1 = productRepository.findById(product1.getId()).orElseThrow();
-        Product updatedProduct2 = productRepository.findById(product2.getId()).orElseThrow();
-        Product updatedProduct3 = productRepository.findById(product3.getId()).orElseThrow();
+        ProductInventory updatedProduct1 = productInventoryRepository.findById(product1.getId()).orElseThrow();
+        ProductInventory updatedProduct2 = productInventoryRepository.findById(product2.getId()).orElseThrow();
+        ProductInventory updatedProduct3 = productInventoryRepository.findById(product3.getId()).orElseThrow();
 
         assertThat(updatedProduct1.getStockQuantity()).isEqualTo(8); // 10 - 2
         assertThat(updatedProduct2.getStockQuantity()).isEqualTo(47); // 50 - 3
@@ -180,7 +196,7 @@ class OrderServiceIntegrationTest {
         assertThat(paymentRepository.count()).isZero();
 
         // Verify stock was not updated
-        Product unchangedProduct = productRepository.findById(product1.getId()).orElseThrow();
+        ProductInventory unchangedProduct = productInventoryRepository.findById(product1.getId()).orElseThrow();
         assertThat(unchangedProduct.getStockQuantity()).isEqualTo(10);
 
         // Verify no event was published
@@ -249,7 +265,7 @@ class OrderServiceIntegrationTest {
         assertThat(orderCount).isEqualTo(2);
 
         // Verify stock was updated correctly (both orders succeeded)
-        Product updatedProduct = productRepository.findById(product1.getId()).orElseThrow();
+        ProductInventory updatedProduct = productInventoryRepository.findById(product1.getId()).orElseThrow();
         assertThat(updatedProduct.getStockQuantity()).isEqualTo(0); // 10 - 5 - 5
 
         // Both orders should have succeeded since we have enough stock
@@ -281,6 +297,43 @@ class OrderServiceIntegrationTest {
         assertThat(result.getContent()).extracting(Order::getCustomer).extracting(User::getId).containsExactly(customer1.getId());
     }
 
+    @Test
+    void listOrdersByCursor_shouldWalkHistoryNewestFirstWithoutGapsOrRepeats() {
+        // Arrange - Create five orders for one customer and one for another
+        for (int i = 0; i < 5; i++) {
+            createTestOrder(customer1.getId(), List.of(new CreateOrderItemRequest(product2.getId(), 1)), PaymentMethod.CARD);
+        }
+        createTestOrder(customer2.getId(), List.of(new CreateOrderItemRequest(product2.getId(), 1)), PaymentMethod.CARD);
+        List<Long> expected = orderRepository.findAll(Sort.by("createdAt").descending().and(Sort.by("id").descending()))
+                .stream()
+                .filter(o -> o.getCustomer().getId().equals(customer1.getId()))
+                .map(Order::getId)
+                .toList();
+
+        // Act
+        CursorPaginatedResponse<Order> first = orderService.listOrders(customer1.getId(), null, 2);
+        CursorPaginatedResponse<Order> second = orderService.listOrders(customer1.getId(), first.nextCursor(), 2);
+        CursorPaginatedResponse<Order> third = orderService.listOrders(customer1.getId(), second.nextCursor(), 2);
+
+        // Assert
+        assertThat(first.hasMore()).isTrue();
+        assertThat(second.hasMore()).isTrue();
+        assertThat(third.hasMore()).isFalse();
+        assertThat(third.nextCursor()).isNull();
+        assertThat(first.records()).allSatisfy(order -> assertThat(order.getItems()).hasSize(1));
+
+        List<Long> walked = new java.util.ArrayList<>();
+        List.of(first, second, third).forEach(page -> page.records().forEach(order -> walked.add(order.getId())));
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void listOrdersByCursor_shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> orderService.listOrders(customer1.getId(), "not-a-cursor", 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
     @Test
     void findHighValueOrders_shouldReturnOrdersWithTotalAmountGreaterThan1000() {
         // Arrange - Create orders with different amounts
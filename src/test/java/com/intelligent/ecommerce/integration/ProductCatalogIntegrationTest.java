@@ -0,0 +1,140 @@
+package com.intelligent.ecommerce.integration;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.intelligent.ecommerce.dto.common.CursorPaginatedResponse;
+import com.intelligent.ecommerce.dto.product.ProductView;
+import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
+import com.intelligent.ecommerce.repository.OrderRepository;
+import com.intelligent.ecommerce.repository.PaymentRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
+import com.intelligent.ecommerce.repository.ProductRepository;
+import com.intelligent.ecommerce.service.ProductService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductCatalogIntegrationTest {
+
+    private static final int PRODUCTS = 25;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up existing data
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        productInventoryRepository.deleteAll();
+        productRepository.deleteAll();
+
+        // Inventory shares the product's id, so both rows are written while the product is managed
+        List<Product> products = transactionTemplate.execute(status -> {
+            List<Product> saved = productRepository.saveAll(IntStream.range(0, PRODUCTS)
+                    .mapToObj(i -> Product.builder()
+                            .name("Product " + i)
+                            .price(BigDecimal.valueOf(10 + i))
+                            .build())
+                    .toList());
+            productInventoryRepository.saveAll(IntStream.range(0, PRODUCTS)
+                    .mapToObj(i -> ProductInventory.builder().product(saved.get(i)).stockQuantity(i).build())
+                    .toList());
+            return saved;
+        });
+        ids = products.stream()
+                .map(Product::getId)
+                .sorted()
+                .toList();
+    }
+
+    @Test
+    void listCatalog_shouldWalkEveryProductOnceInIdOrder() {
+        // Act
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPaginatedResponse<ProductView> page = productService.listCatalog(cursor, 10);
+            page.records().forEach(view -> seen.add(view.getId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void listCatalog_shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> productService.listCatalog("not-an-id", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void getProductsByIds_shouldReturnKnownProductsOnceInRequestedOrder() {
+        // Act
+        List<ProductView> views = productService.getProductsByIds(
+                List.of(ids.get(5), ids.get(1), -1L, ids.get(5), ids.get(20)));
+        // Served from the product cache this time
+        List<ProductView> again = productService.getProductsByIds(List.of(ids.get(20), ids.get(5)));
+
+        // Assert
+        assertThat(views).extracting(ProductView::getId).containsExactly(ids.get(5), ids.get(1), ids.get(20));
+        assertThat(views.get(0).getName()).isEqualTo("Product 5");
+        assertThat(views.get(0).getStockQuantity()).isEqualTo(5);
+        assertThat(again).extracting(ProductView::getId).containsExactly(ids.get(20), ids.get(5));
+    }
+
+    @Test
+    void getProductsByIds_shouldRejectOversizedRequests() {
+        List<Long> tooMany = IntStream.rangeClosed(1, 101).mapToObj(Long::valueOf).toList();
+
+        assertThatThrownBy(() -> productService.getProductsByIds(tooMany))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At most 100 product ids per request");
+    }
+
+    @Test
+    void streamCatalog_shouldEmitEveryProductInIdOrder() {
+        // Act
+        List<ProductView> streamed = new ArrayList<>();
+        productService.streamCatalog(streamed::add);
+
+        // Assert
+        assertThat(streamed).extracting(ProductView::getId).containsExactlyElementsOf(ids);
+        assertThat(streamed.get(3).getName()).isNotBlank();
+        assertThat(streamed).allSatisfy(view -> assertThat(view.getPrice()).isNotNull());
+    }
+}
@@ -0,0 +1,150 @@
+package com.intelligent.ecommerce.integration;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.intelligent.ecommerce.dto.product.ProductImportSummary;
+import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
+import com.intelligent.ecommerce.enums.ProductImportFormat;
+import com.intelligent.ecommerce.repository.OrderRepository;
+import com.intelligent.ecommerce.repository.PaymentRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
+import com.intelligent.ecommerce.repository.ProductRepository;
+import com.intelligent.ecommerce.service.ProductImportService;
+import com.intelligent.ecommerce.service.VectorService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductImportIntegrationTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private VectorService vectorService;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up existing data
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        productInventoryRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void importProducts_shouldInsertCsvRows() throws Exception {
+        String csv = """
+                name,stock_quantity,price
+                Keyboard,10,49.99
+                "Monitor, 27""\",3,199.00
+                Broken,-5,10
+                """;
+
+        // Act
+        ProductImportSummary summary = productImportService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportFormat.CSV, false);
+
+        // Assert
+        assertThat(summary.imported()).isEqualTo(2);
+        assertThat(summary.rejected()).isEqualTo(1);
+        List<Product> products = productRepository.findAll();
+        assertThat(products).extracting(Product::getName).containsExactlyInAnyOrder("Keyboard", "Monitor, 27\"");
+        assertThat(products).allSatisfy(product -> assertThat(product.getId()).isPositive());
+    }
+
+    @Test
+    void importProducts_shouldInsertNdjsonRows() throws Exception {
+        String ndjson = """
+                {"name":"Mouse","stockQuantity":25,"price":19.90}
+                {"name":"Webcam","stockQuantity":7,"price":59.00}
+                """;
+
+        // Act
+        ProductImportSummary summary = productImportService.importProducts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ProductImportFormat.NDJSON, false);
+
+        // Assert
+        assertThat(summary.imported()).isEqualTo(2);
+        assertThat(summary.rowsPerSecond()).isPositive();
+        assertThat(productRepository.findAll())
+                .extracting(Product::getPrice)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactlyInAnyOrder(new BigDecimal("19.90"), new BigDecimal("59.00"));
+        assertThat(productInventoryRepository.findAll())
+                .extracting(ProductInventory::getStockQuantity)
+                .containsExactlyInAnyOrder(25, 7);
+    }
+
+    @Test
+    void importProducts_shouldWriteEmbeddingsAndClearTheLease() throws Exception {
+        when(vectorService.embedAll(anyList())).thenAnswer(invocation ->
+                Collections.nCopies(invocation.<List<String>>getArgument(0).size(), new float[]{0.25f, 0.5f}));
+        String ndjson = """
+                {"name":"Mouse","stockQuantity":25,"price":19.90}
+                {"name":"Webcam","stockQuantity":7,"price":59.00}
+                """;
+
+        // Act
+        ProductImportSummary summary = productImportService.importProducts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ProductImportFormat.NDJSON, true);
+
+        // Assert - the write-back matched the lease it was inserted with, then cleared it
+        assertThat(summary.embedded()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT name_embedding FROM products", String.class))
+                .containsExactly("[0.25,0.5]", "[0.25,0.5]");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM products WHERE embedding_claimed_at IS NOT NULL", Integer.class)).isZero();
+    }
+
+    @Test
+    void importProducts_shouldReportABatchTheDatabaseRejects() throws Exception {
+        // Valid for the request, but wider than the numeric(38,2) price column
+        String csv = """
+                name,stock_quantity,price
+                Keyboard,10,49.99
+                Gold keyboard,1,1E+40
+                """;
+
+        // Act
+        ProductImportSummary summary = productImportService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportFormat.CSV, false);
+
+        // Assert - the batch rolled back as a whole and is reported by its lines
+        assertThat(summary.imported()).isZero();
+        assertThat(summary.failed()).isEqualTo(2);
+        assertThat(summary.errors()).singleElement().asString().startsWith("lines 2-3: batch not imported");
+        assertThat(productRepository.count()).isZero();
+        assertThat(productInventoryRepository.count()).isZero();
+    }
+}
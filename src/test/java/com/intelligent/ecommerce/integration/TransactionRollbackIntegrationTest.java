@@ -12,11 +12,13 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.event.ApplicationEvents;
 import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
 import com.intelligent.ecommerce.entity.Order;
 import com.intelligent.ecommerce.entity.Payment;
 import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
 import com.intelligent.ecommerce.entity.User;
 import com.intelligent.ecommerce.enums.OrderStatus;
 import com.intelligent.ecommerce.enums.PaymentMethod;
@@ -24,6 +26,7 @@ import com.intelligent.ecommerce.event.OrderCreatedEvent;
 import com.intelligent.ecommerce.exception.InsufficientStockException;
 import com.intelligent.ecommerce.repository.OrderRepository;
 import com.intelligent.ecommerce.repository.PaymentRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
 import com.intelligent.ecommerce.repository.ProductRepository;
 import com.intelligent.ecommerce.repository.UserRepository;
 import com.intelligent.ecommerce.service.OrderService;
@@ -36,12 +39,18 @@ class TransactionRollbackIntegrationTest {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
     @Autowired
     private PaymentRepository paymentRepository;
 
@@ -60,6 +69,7 @@ class TransactionRollbackIntegrationTest {
         // Clean up existing data
         paymentRepository.deleteAll();
         orderRepository.deleteAll();
+        productInventoryRepository.deleteAll();
         productRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -74,16 +84,21 @@ class TransactionRollbackIntegrationTest {
         product1 = Product.builder()
                 .name("Product 1")
                 .price(java.math.BigDecimal.valueOf(100.0))
-                .stockQuantity(5)
                 .build();
 
         product2 = Product.builder()
                 .name("Product 2")
                 .price(java.math.BigDecimal.valueOf(200.0))
-                .stockQuantity(3)
                 .build();
 
-        productRepository.saveAll(List.of(product1, product2));
+        // Inventory shares the product's id, so both rows are written while the product is managed
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.saveAll(List.of(product1, product2));
+            productInventoryRepository.saveAll(List.of(
+                    ProductInventory.builder().product(product1).stockQuantity(5).build(),
+                    ProductInventory.builder().product(product2).stockQuantity(3).build()
+            ));
+        });
     }
 
     @Test
@@ -105,8 +120,8 @@ class TransactionRollbackIntegrationTest {
         assertThat(paymentRepository.count()).isZero();
 
         // Verify stock was not updated
-        Product unchangedProduct1 = productRepository.findById(product1.getId()).orElseThrow();
-        Product unchangedProduct2 = productRepository.findById(product2.getId()).orElseThrow();
+        ProductInventory unchangedProduct1 = productInventoryRepository.findById(product1.getId()).orElseThrow();
+        ProductInventory unchangedProduct2 = productInventoryRepository.findById(product2.getId()).orElseThrow();
 
         assertThat(unchangedProduct1.getStockQuantity()).isEqualTo(5);
         assertThat(unchangedProduct2.getStockQuantity()).isEqualTo(3);
@@ -134,7 +149,7 @@ class TransactionRollbackIntegrationTest {
         assertThat(paymentRepository.count()).isZero();
 
         // Verify stock was not updated
-        Product unchangedProduct1 = productRepository.findById(product1.getId()).orElseThrow();
+        ProductInventory unchangedProduct1 = productInventoryRepository.findById(product1.getId()).orElseThrow();
         assertThat(unchangedProduct1.getStockQuantity()).isEqualTo(5);
 
         // Verify no event was published
@@ -160,8 +175,8 @@ class TransactionRollbackIntegrationTest {
         assertThat(paymentRepository.count()).isZero();
 
         // Verify stock was not updated
-        Product unchangedProduct1 = productRepository.findById(product1.getId()).orElseThrow();
-        Product unchangedProduct2 = productRepository.findById(product2.getId()).orElseThrow();
+        ProductInventory unchangedProduct1 = productInventoryRepository.findById(product1.getId()).orElseThrow();
+        ProductInventory unchangedProduct2 = productInventoryRepository.findById(product2.getId()).orElseThrow();
 
         assertThat(unchangedProduct1.getStockQuantity()).isEqualTo(5);
         assertThat(unchangedProduct2.getStockQuantity()).isEqualTo(3);
@@ -198,8 +213,8 @@ class TransactionRollbackIntegrationTest {
         assertThat(payment.getAmount()).isEqualByComparingTo(java.math.BigDecimal.valueOf(400.0));
 
         // Verify stock was updated
-        Product updatedProduct1 = productRepository.findById(product1.getId()).orElseThrow();
-        Product updatedProduct2 = productRepository.findById(product2.getId()).orElseThrow();
+        ProductInventory updatedProduct1 = productInventoryRepository.findById(product1.getId()).orElseThrow();
+        ProductInventory updatedProduct2 = productInventoryRepository.findById(product2.getId()).orElseThrow();
 
         assertThat(updatedProduct1.getStockQuantity()).isEqualTo(3); // 5 - 2
         assertThat(updatedProduct2.getStockQuantity()).isEqualTo(2); // 3 - 1
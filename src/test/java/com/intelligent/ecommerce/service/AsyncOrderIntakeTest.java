@@ -0,0 +1,99 @@
+package com.intelligent.ecommerce.service;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyList;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.dto.order.response.OrderIntakeResponse;
+import com.intelligent.ecommerce.entity.Order;
+import com.intelligent.ecommerce.enums.OrderIntakeStatus;
+import com.intelligent.ecommerce.enums.PaymentMethod;
+import com.intelligent.ecommerce.exception.InsufficientStockException;
+import com.intelligent.ecommerce.exception.OrderQueueFullException;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncOrderIntakeTest {
+
+    @Mock private GroupCommitOrderWriter groupCommitOrderWriter;
+
+    private final List<CreateOrderItemRequest> items = List.of(new CreateOrderItemRequest(101L, 1));
+
+    @Test
+    void submit_shouldReportCompletedAndRejectedOrders() {
+        Executor sameThread = Runnable::run;
+        AsyncOrderIntake intake = new AsyncOrderIntake(groupCommitOrderWriter, sameThread, true, 10, 10, 60, 1_000);
+
+        doAnswer(invocation -> {
+            List<PendingOrder> batch = invocation.getArgument(0);
+            PendingOrder pending = batch.get(0);
+            if (pending.getPaymentMethod() == PaymentMethod.CARD) {
+                pending.getResult().complete(Order.builder().id(500L).build());
+            } else {
+                pending.getResult().completeExceptionally(new InsufficientStockException("Insufficient stock for product 101"));
+            }
+            return null;
+        }).when(groupCommitOrderWriter).write(anyList());
+
+        OrderIntakeResponse accepted = intake.submit(1L, items, PaymentMethod.CARD);
+        OrderIntakeResponse rejected = intake.submit(1L, items, PaymentMethod.CASH);
+
+        assertThat(accepted.getStatus()).isEqualTo(OrderIntakeStatus.QUEUED);
+        assertThat(intake.status(1L, accepted.getToken())).get()
+                .extracting(OrderIntakeResponse::getStatus, OrderIntakeResponse::getOrderId)
+                .containsExactly(OrderIntakeStatus.COMPLETED, 500L);
+        assertThat(intake.status(1L, rejected.getToken())).get()
+                .extracting(OrderIntakeResponse::getStatus)
+                .isEqualTo(OrderIntakeStatus.REJECTED);
+    }
+
+    @Test
+    void status_shouldHideOtherCustomersTokens() {
+        Executor never = command -> { };
+        AsyncOrderIntake intake = new AsyncOrderIntake(groupCommitOrderWriter, never, true, 10, 10, 60, 1_000);
+
+        OrderIntakeResponse accepted = intake.submit(1L, items, PaymentMethod.CARD);
+
+        assertThat(intake.status(2L, accepted.getToken())).isEmpty();
+        assertThat(intake.status(1L, accepted.getToken())).isPresent();
+    }
+
+    @Test
+    void submit_shouldApplyBackpressureWhenQueueIsFull() {
+        Executor never = command -> { };
+        AsyncOrderIntake intake = new AsyncOrderIntake(groupCommitOrderWriter, never, true, 1, 10, 60, 1_000);
+
+        intake.submit(1L, items, PaymentMethod.CARD);
+
+        assertThatThrownBy(() -> intake.submit(1L, items, PaymentMethod.CARD))
+                .isInstanceOf(OrderQueueFullException.class);
+    }
+
+    @Test
+    void submit_shouldNotStrandAnOrderWhenTheDrainIsRejected() {
+        AtomicBoolean saturated = new AtomicBoolean(true);
+        Executor executor = command -> {
+            if (saturated.get()) {
+                throw new RejectedExecutionException("saturated");
+            }
+        };
+        AsyncOrderIntake intake = new AsyncOrderIntake(groupCommitOrderWriter, executor, true, 1, 10, 60, 1_000);
+
+        assertThatThrownBy(() -> intake.submit(1L, items, PaymentMethod.CARD))
+                .isInstanceOf(OrderQueueFullException.class);
+
+        // The rejected order left the queue, so its single slot is free again
+        saturated.set(false);
+        assertThat(intake.submit(1L, items, PaymentMethod.CARD).getStatus()).isEqualTo(OrderIntakeStatus.QUEUED);
+    }
+}
@@ -0,0 +1,234 @@
+package com.intelligent.ecommerce.service;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.intelligent.ecommerce.vector.ProductVectorIndex;
+
+@ExtendWith(MockitoExtension.class)
+class EmbeddingBackfillTest {
+
+    private static final float[] LAPTOP = {0.1f, 0.2f};
+    private static final float[] MOUSE = {0.3f, 0.4f};
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private VectorService vectorService;
+    @Mock private ProductCacheInvalidator productCacheInvalidator;
+    @Mock private ProductVectorIndex productVectorIndex;
+    @Captor private ArgumentCaptor<List<Object[]>> rows;
+
+    private EmbeddingBackfill backfill;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (backfill != null) {
+            backfill.stop();
+        }
+    }
+
+    @Test
+    void backfillBatch_shouldLeaseInAShortTransactionAndEmbedOutsideIt() {
+        backfill = backfill(false);
+        claim(1L, "Laptop", 2L, "Mouse");
+        writesSucceed();
+        when(vectorService.embedAll(List.of("Laptop", "Mouse"))).thenReturn(List.of(LAPTOP, MOUSE));
+
+        assertThat(backfill.backfillBatch()).isEqualTo(2);
+
+        // The claim commits before Ollama is called; the write-back runs in a transaction of its own
+        InOrder order = inOrder(jdbcTemplate, transactionManager, vectorService);
+        order.verify(jdbcTemplate).batchUpdate(eq(EmbeddingBackfill.LEASE), rows.capture());
+        order.verify(transactionManager).commit(any());
+        order.verify(vectorService).embedAll(anyList());
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(jdbcTemplate).batchUpdate(eq(EmbeddingBackfill.UPDATE_EMBEDDING), rows.capture());
+        order.verify(transactionManager).commit(any());
+
+        List<Object[]> leases = rows.getAllValues().get(0);
+        List<Object[]> updates = rows.getAllValues().get(1);
+        Object lease = leases.get(0)[0];
+        assertThat(leases).extracting(row -> row[1]).containsExactly(1L, 2L);
+        assertThat(updates.get(0)).containsExactly("[0.1,0.2]", 1L, lease);
+        assertThat(updates.get(1)).containsExactly("[0.3,0.4]", 2L, lease);
+        verify(productVectorIndex).addAfterCommit(1L, LAPTOP);
+        verify(productVectorIndex).addAfterCommit(2L, MOUSE);
+        verify(productCacheInvalidator).bumpCatalogGenerationAfterCommit();
+    }
+
+    @Test
+    void backfillBatch_shouldHandTheBatchBackWhenOllamaIsUnreachable() {
+        backfill = backfill(false);
+        claim(1L, "Laptop");
+        when(vectorService.embedAll(anyList())).thenThrow(new ResourceAccessException("Ollama is down"));
+
+        assertThatThrownBy(() -> backfill.backfillBatch()).isInstanceOf(ResourceAccessException.class);
+
+        verify(jdbcTemplate).batchUpdate(eq(EmbeddingBackfill.RELEASE_AND_REFUND), rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[0]).containsExactly(1L);
+        verify(jdbcTemplate, never()).batchUpdate(eq(EmbeddingBackfill.UPDATE_EMBEDDING), anyList());
+        verify(productCacheInvalidator, never()).bumpCatalogGenerationAfterCommit();
+    }
+
+    @Test
+    void backfillBatch_shouldHandTheBatchBackWhenOllamaAnswersWithA5xx() {
+        backfill = backfill(false);
+        claim(1L, "Laptop", 2L, "Mouse");
+        when(vectorService.embedAll(anyList())).thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThatThrownBy(() -> backfill.backfillBatch()).isInstanceOf(HttpServerErrorException.class);
+
+        // Refunded as a whole rather than retried row by row
+        verify(vectorService, times(1)).embedAll(anyList());
+        verify(jdbcTemplate).batchUpdate(eq(EmbeddingBackfill.RELEASE_AND_REFUND), rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[0]).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void backfillBatch_shouldBumpTheGenerationOncePerIntervalAndOnceMoreWhenDrained() {
+        backfill = backfill(false);
+        claim(1L, "Laptop");
+        writesSucceed();
+        when(vectorService.embedAll(List.of("Laptop"))).thenReturn(List.of(LAPTOP));
+
+        backfill.backfillBatch();
+        backfill.backfillBatch();
+        backfill.backfillBatch();
+
+        verify(productCacheInvalidator, times(1)).bumpCatalogGenerationAfterCommit();
+
+        backfill.publishEmbeddings(true);
+        backfill.publishEmbeddings(true);
+
+        verify(productCacheInvalidator, times(2)).bumpCatalogGenerationAfterCommit();
+    }
+
+    @Test
+    void backfillBatch_shouldIsolateARowThatCannotBeEmbedded() {
+        backfill = backfill(false);
+        claim(1L, "Laptop", 2L, "\u0000");
+        writesSucceed();
+        when(vectorService.embedAll(List.of("Laptop", "\u0000"))).thenThrow(new IllegalStateException("bad input"));
+        when(vectorService.embedAll(List.of("Laptop"))).thenReturn(List.of(LAPTOP));
+        when(vectorService.embedAll(List.of("\u0000"))).thenThrow(new IllegalStateException("bad input"));
+
+        assertThat(backfill.backfillBatch()).isEqualTo(2);
+
+        verify(jdbcTemplate).batchUpdate(eq(EmbeddingBackfill.UPDATE_EMBEDDING), rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[1]).containsExactly(1L);
+        // The bad row keeps its lease and its attempt, so it waits for the lease to expire
+        verify(jdbcTemplate, never()).batchUpdate(eq(EmbeddingBackfill.RELEASE), anyList());
+        verify(jdbcTemplate, never()).batchUpdate(eq(EmbeddingBackfill.RELEASE_AND_REFUND), anyList());
+    }
+
+    @Test
+    void backfillBatch_shouldSkipRowsWhoseLeaseWasTakenOver() {
+        backfill = backfill(false);
+        claim(1L, "Laptop", 2L, "Mouse");
+        when(vectorService.embedAll(List.of("Laptop", "Mouse"))).thenReturn(List.of(LAPTOP, MOUSE));
+        writes(new int[]{0, 1});
+
+        backfill.backfillBatch();
+
+        verify(productVectorIndex, never()).addAfterCommit(eq(1L), any());
+        verify(productVectorIndex).addAfterCommit(2L, MOUSE);
+    }
+
+    @Test
+    void backfillBatch_shouldNotCallOllamaWhenNothingIsMissing() {
+        backfill = backfill(false);
+        claim();
+
+        assertThat(backfill.backfillBatch()).isZero();
+
+        verifyNoInteractions(vectorService);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void worker_shouldRetryAFailedBatchAfterBackingOff() {
+        backfill = backfill(true);
+        claim(1L, "Laptop");
+        writesSucceed();
+        when(vectorService.embedAll(List.of("Laptop")))
+                .thenThrow(new ResourceAccessException("Ollama is down"))
+                .thenReturn(List.of(LAPTOP));
+
+        backfill.start();
+
+        verify(vectorService, timeout(2_000).times(2)).embedAll(List.of("Laptop"));
+        verify(jdbcTemplate, timeout(2_000)).batchUpdate(eq(EmbeddingBackfill.UPDATE_EMBEDDING), anyList());
+        verify(jdbcTemplate).batchUpdate(eq(EmbeddingBackfill.RELEASE_AND_REFUND), anyList());
+    }
+
+    private EmbeddingBackfill backfill(boolean enabled) {
+        return new EmbeddingBackfill(jdbcTemplate, transactionManager, vectorService, productCacheInvalidator,
+                productVectorIndex, enabled, 64, 5, 300_000, 60_000, 10, 100, 60_000);
+    }
+
+    // Claims the given (id, name) pairs, never tried before, through the real row mapper
+    @SuppressWarnings("unchecked")
+    private void claim(Object... idsAndNames) {
+        when(jdbcTemplate.query(eq(EmbeddingBackfill.CLAIM), any(RowMapper.class), eq(5), any(Timestamp.class), eq(64)))
+                .thenAnswer(invocation -> {
+                    RowMapper<Object> mapper = invocation.getArgument(1);
+                    List<Object> claimed = new ArrayList<>();
+                    for (int i = 0; i < idsAndNames.length; i += 2) {
+                        ResultSet rs = mock(ResultSet.class);
+                        when(rs.getLong("id")).thenReturn((Long) idsAndNames[i]);
+                        when(rs.getString("name")).thenReturn((String) idsAndNames[i + 1]);
+                        when(rs.getInt("embedding_attempts")).thenReturn(0);
+                        claimed.add(mapper.mapRow(rs, i / 2));
+                    }
+                    return claimed;
+                });
+    }
+
+    private void writesSucceed() {
+        writes(null);
+    }
+
+    // Every batch statement touches its row, except the embedding write-back when counts are given
+    private void writes(int[] embeddingCounts) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            if (embeddingCounts != null && EmbeddingBackfill.UPDATE_EMBEDDING.equals(invocation.getArgument(0))) {
+                return embeddingCounts;
+            }
+            int[] counts = new int[invocation.<List<?>>getArgument(1).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+    }
+}
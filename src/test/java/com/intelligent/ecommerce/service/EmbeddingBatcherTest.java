@@ -0,0 +1,146 @@
+package com.intelligent.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+class EmbeddingBatcherTest {
+
+    private final List<List<String>> calls = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private EmbeddingBatcher batcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    void embed_shouldShareOneCallAmongConcurrentCallersAndKeepOrder() throws Exception {
+        // Hold the first call until everyone has queued, so the rest must travel together
+        CountDownLatch queued = new CountDownLatch(1);
+        batcher = new EmbeddingBatcher(texts -> {
+            calls.add(texts);
+            await(queued);
+            return texts.stream().map(EmbeddingBatcherTest::vectorOf).toList();
+        }, text -> { throw new AssertionError("unbatched call"); }, 8, 50, 100, 5_000);
+        batcher.start();
+
+        List<Future<float[]>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String text = "query " + i;
+            results.add(callers.submit(() -> batcher.embed(text)));
+        }
+        Thread.sleep(100);
+        queued.countDown();
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).containsExactly(vectorOf("query " + i));
+        }
+        assertThat(calls).hasSizeLessThanOrEqualTo(2);
+        assertThat(calls.stream().mapToInt(List::size).sum()).isEqualTo(8);
+    }
+
+    @Test
+    void embed_shouldSplitBatchesAtMaxBatchSize() throws Exception {
+        batcher = new EmbeddingBatcher(texts -> {
+            calls.add(texts);
+            return texts.stream().map(EmbeddingBatcherTest::vectorOf).toList();
+        }, text -> { throw new AssertionError("unbatched call"); }, 3, 20, 100, 5_000);
+        batcher.start();
+
+        List<Future<float[]>> results = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            String text = "t" + i;
+            results.add(callers.submit(() -> batcher.embed(text)));
+        }
+
+        for (int i = 0; i < 7; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).containsExactly(vectorOf("t" + i));
+        }
+        assertThat(calls).allSatisfy(texts -> assertThat(texts).hasSizeLessThanOrEqualTo(3));
+        assertThat(calls.stream().mapToInt(List::size).sum()).isEqualTo(7);
+    }
+
+    @Test
+    void embed_shouldFailEveryCallerInAFailedBatch() {
+        Function<List<String>, List<float[]>> down = texts -> {
+            throw new ResourceAccessException("connection refused");
+        };
+        batcher = new EmbeddingBatcher(down, text -> new float[]{1f}, 8, 1, 100, 5_000);
+        batcher.start();
+
+        assertThatThrownBy(() -> batcher.embed("laptop"))
+                .isInstanceOf(ResourceAccessException.class)
+                .hasMessage("connection refused");
+    }
+
+    @Test
+    void embed_shouldFailTheBatchOnAnErrorAndKeepTheDispatcherRunning() {
+        AtomicInteger sends = new AtomicInteger();
+        batcher = new EmbeddingBatcher(texts -> {
+            if (sends.incrementAndGet() == 1) {
+                throw new StackOverflowError();
+            }
+            return texts.stream().map(EmbeddingBatcherTest::vectorOf).toList();
+        }, text -> { throw new AssertionError("unbatched call"); }, 8, 1, 100, 5_000);
+        batcher.start();
+
+        assertThatThrownBy(() -> batcher.embed("laptop"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(batcher.embed("mouse")).containsExactly(vectorOf("mouse"));
+    }
+
+    @Test
+    void embed_shouldCallDirectlyWhenTheBatchDoesNotAnswerInTime() {
+        CountDownLatch release = new CountDownLatch(1);
+        batcher = new EmbeddingBatcher(texts -> {
+            await(release);
+            return texts.stream().map(EmbeddingBatcherTest::vectorOf).toList();
+        }, EmbeddingBatcherTest::vectorOf, 8, 1, 100, 50);
+        batcher.start();
+
+        try {
+            assertThat(batcher.embed("mouse")).containsExactly(vectorOf("mouse"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void embed_shouldCallDirectlyWhenNotStarted() {
+        batcher = new EmbeddingBatcher(texts -> { throw new AssertionError("batched call"); },
+                text -> vectorOf(text), 8, 1, 100, 5_000);
+
+        assertThat(batcher.embed("mouse")).containsExactly(vectorOf("mouse"));
+    }
+
+    private static float[] vectorOf(String text) {
+        return new float[]{text.length(), text.hashCode()};
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
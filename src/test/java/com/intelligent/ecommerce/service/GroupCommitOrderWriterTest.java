@@ -0,0 +1,112 @@
+package com.intelligent.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.entity.Order;
+import com.intelligent.ecommerce.enums.PaymentMethod;
+import com.intelligent.ecommerce.exception.OrderWriteTimeoutException;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitOrderWriterTest {
+
+    @Mock private OrderService orderService;
+
+    private final List<CreateOrderItemRequest> items = List.of(new CreateOrderItemRequest(101L, 1));
+    private GroupCommitOrderWriter writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void createOrder_shouldFailTheBatchOnAnErrorAndKeepTheWriterRunning() {
+        writer = start(5_000);
+        doAnswer(invocation -> {
+            throw new StackOverflowError();
+        }).doAnswer(invocation -> {
+            invocation.<List<PendingOrder>>getArgument(0).get(0).accept(Order.builder().id(500L).build());
+            return null;
+        }).when(orderService).createOrders(anyList());
+
+        assertThatThrownBy(() -> writer.createOrder(1L, items, PaymentMethod.CARD))
+                .isInstanceOf(IllegalStateException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(writer.createOrder(1L, items, PaymentMethod.CARD).getId()).isEqualTo(500L);
+    }
+
+    @Test
+    void createOrder_shouldStopWaitingOnceTheResultTimeoutPasses() {
+        writer = start(50);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(orderService).createOrders(anyList());
+
+        try {
+            // The batch was taken, so the order may still commit: its outcome is unknown, not failed
+            assertThatThrownBy(() -> writer.createOrder(1L, items, PaymentMethod.CARD))
+                    .isInstanceOf(OrderWriteTimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void write_shouldNarrowAFailedBatchDownToTheBadRequest() {
+        writer = new GroupCommitOrderWriter(orderService, true, 16, 1, 16, 5_000);
+        List<PendingOrder> batch = new ArrayList<>();
+        for (long customerId = 1; customerId <= 16; customerId++) {
+            batch.add(new PendingOrder(customerId, items, PaymentMethod.CARD));
+        }
+        AtomicInteger transactions = new AtomicInteger();
+        doAnswer(invocation -> {
+            transactions.incrementAndGet();
+            List<PendingOrder> written = invocation.getArgument(0);
+            if (written.stream().anyMatch(pending -> pending.getCustomerId() == 7L)) {
+                throw new IllegalStateException("constraint violation");
+            }
+            written.forEach(pending -> pending.accept(Order.builder().id(pending.getCustomerId()).build()));
+            return null;
+        }).when(orderService).createOrders(anyList());
+        when(orderService.createOrder(eq(7L), any(), any())).thenThrow(new IllegalStateException("constraint violation"));
+
+        writer.write(batch);
+
+        // 1 + 2 per halving down to the single bad request, instead of one per request
+        assertThat(transactions).hasValue(9);
+        verify(orderService).createOrder(eq(7L), any(), any());
+        for (PendingOrder pending : batch) {
+            if (pending.getCustomerId() == 7L) {
+                assertThat(pending.getResult()).isCompletedExceptionally();
+            } else {
+                assertThat(pending.getResult().join().getId()).isEqualTo(pending.getCustomerId());
+            }
+        }
+    }
+
+    private GroupCommitOrderWriter start(long resultTimeoutMillis) {
+        GroupCommitOrderWriter started = new GroupCommitOrderWriter(orderService, true, 10, 1, 10, resultTimeoutMillis);
+        started.start();
+        return started;
+    }
+}
@@ -0,0 +1,237 @@
+package com.intelligent.ecommerce.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.dto.order.request.CreateOrderRequest;
+import com.intelligent.ecommerce.dto.order.response.OrderIntakeResponse;
+import com.intelligent.ecommerce.dto.order.response.OrderResponse;
+import com.intelligent.ecommerce.enums.OrderIntakeStatus;
+import com.intelligent.ecommerce.enums.PaymentMethod;
+import com.intelligent.ecommerce.exception.IdempotencyKeyMismatchException;
+import com.intelligent.ecommerce.exception.InsufficientStockException;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private IdempotencyService idempotencyService;
+    private final CreateOrderRequest cardOrder = request(PaymentMethod.CARD);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        idempotencyService = new IdempotencyService(redisTemplate, objectMapper, 24, 30, 2000, 100);
+    }
+
+    private OrderResponse response(long id) {
+        OrderResponse response = new OrderResponse();
+        response.setId(id);
+        response.setStatus("CREATED");
+        return response;
+    }
+
+    private CreateOrderRequest request(PaymentMethod paymentMethod) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setPaymentMethod(paymentMethod);
+        request.setItems(List.of(new CreateOrderItemRequest(1L, 2)));
+        return request;
+    }
+
+    @Test
+    void execute_shouldReplayLocallyWithoutRunningTheActionAgain() {
+        when(valueOperations.setIfAbsent(anyString(), startsWith("IN_FLIGHT:"), any(Duration.class))).thenReturn(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        OrderResponse first = idempotencyService.execute(1L, "key-1", cardOrder, OrderResponse.class, () -> response(calls.incrementAndGet()));
+        OrderResponse replay = idempotencyService.execute(1L, "key-1", cardOrder, OrderResponse.class, () -> response(calls.incrementAndGet()));
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(replay.getId()).isEqualTo(first.getId());
+        verify(valueOperations).set(eq("idempotency:orders:1:key-1"), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void execute_shouldReplayResultStoredByAnotherNode() throws Exception {
+        String fingerprint = fingerprint(cardOrder);
+        when(valueOperations.setIfAbsent(anyString(), startsWith("IN_FLIGHT:"), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("idempotency:orders:1:key-2"))
+                .thenReturn("IN_FLIGHT:" + fingerprint + ":other-node",
+                        objectMapper.writeValueAsString(new IdempotencyService.StoredResult(fingerprint, response(42))));
+
+        OrderResponse result = idempotencyService.execute(1L, "key-2", cardOrder, OrderResponse.class, () -> {
+            throw new AssertionError("must not run");
+        });
+
+        assertThat(result.getId()).isEqualTo(42);
+    }
+
+    @Test
+    void execute_shouldRunConcurrentDuplicatesOnce() throws Exception {
+        when(valueOperations.setIfAbsent(anyString(), startsWith("IN_FLIGHT:"), any(Duration.class))).thenReturn(true);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        Future<OrderResponse> leader = executor.submit(() -> idempotencyService.execute(1L, "key-3", cardOrder, OrderResponse.class, () -> {
+            calls.incrementAndGet();
+            entered.countDown();
+            await(release);
+            return response(7);
+        }));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<OrderResponse> duplicate = executor.submit(() -> idempotencyService.execute(1L, "key-3", cardOrder, OrderResponse.class, () -> {
+            calls.incrementAndGet();
+            return response(8);
+        }));
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS).getId()).isEqualTo(7);
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getId()).isEqualTo(7);
+        assertThat(calls.get()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_shouldReleaseMarkerWhenActionFails() {
+        ArgumentCaptor<String> marker = ArgumentCaptor.forClass(String.class);
+        when(valueOperations.setIfAbsent(anyString(), marker.capture(), any(Duration.class))).thenReturn(true);
+
+        assertThatThrownBy(() -> idempotencyService.execute(1L, "key-4", cardOrder, OrderResponse.class, () -> {
+            throw new InsufficientStockException("Insufficient stock for product 1");
+        })).isInstanceOf(InsufficientStockException.class);
+
+        verify(redisTemplate).execute(eq(IdempotencyService.RELEASE_MARKER), eq(List.of("idempotency:orders:1:key-4")),
+                eq(marker.getValue()));
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void execute_shouldRejectAKeyReusedWithADifferentBody() {
+        when(valueOperations.setIfAbsent(anyString(), startsWith("IN_FLIGHT:"), any(Duration.class))).thenReturn(true);
+        idempotencyService.execute(1L, "key-5", cardOrder, OrderResponse.class, () -> response(9));
+
+        assertThatThrownBy(() -> idempotencyService.execute(1L, "key-5", request(PaymentMethod.CASH), OrderResponse.class, () -> response(10)))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    void execute_shouldRejectADifferentBodyWhileAnotherNodeIsRunningTheKey() throws Exception {
+        when(valueOperations.setIfAbsent(anyString(), startsWith("IN_FLIGHT:"), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("idempotency:orders:1:key-6"))
+                .thenReturn("IN_FLIGHT:" + fingerprint(request(PaymentMethod.CASH)) + ":other-node");
+
+        assertThatThrownBy(() -> idempotencyService.execute(1L, "key-6", cardOrder, OrderResponse.class, () -> {
+            throw new AssertionError("must not run");
+        })).isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    void execute_shouldReplayAnAcceptedAsyncOrderWithItsToken() {
+        when(valueOperations.setIfAbsent(anyString(), startsWith("IN_FLIGHT:"), any(Duration.class))).thenReturn(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        OrderIntakeResponse first = idempotencyService.execute(1L, "key-8", cardOrder, OrderIntakeResponse.class,
+                () -> new OrderIntakeResponse("token-" + calls.incrementAndGet(), OrderIntakeStatus.QUEUED, null, null));
+        OrderIntakeResponse replay = idempotencyService.execute(1L, "key-8", cardOrder, OrderIntakeResponse.class,
+                () -> new OrderIntakeResponse("token-" + calls.incrementAndGet(), OrderIntakeStatus.QUEUED, null, null));
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(replay.getToken()).isEqualTo(first.getToken());
+        assertThatThrownBy(() -> idempotencyService.execute(1L, "key-8", cardOrder, OrderResponse.class, () -> response(12)))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    void execute_shouldKeepTheMarkerAliveWhileTheActionRuns() {
+        IdempotencyService shortTtl = new IdempotencyService(redisTemplate, objectMapper, 24, 1, 2000, 100);
+        ArgumentCaptor<String> marker = ArgumentCaptor.forClass(String.class);
+        when(valueOperations.setIfAbsent(anyString(), marker.capture(), any(Duration.class))).thenReturn(true);
+
+        try {
+            shortTtl.execute(1L, "key-7", cardOrder, OrderResponse.class, () -> {
+                verify(redisTemplate, timeout(2_000).atLeastOnce()).execute(eq(IdempotencyService.EXTEND_MARKER),
+                        eq(List.of("idempotency:orders:1:key-7")), eq(marker.getValue()), eq("1000"));
+                return response(11);
+            });
+        } finally {
+            shortTtl.stop();
+        }
+    }
+
+    @Test
+    void execute_shouldKeepTheMarkerAndRetryWhenTheResultCannotBeStored() {
+        IdempotencyService shortTtl = new IdempotencyService(redisTemplate, objectMapper, 24, 1, 2000, 100);
+        ArgumentCaptor<String> marker = ArgumentCaptor.forClass(String.class);
+        when(valueOperations.setIfAbsent(anyString(), marker.capture(), any(Duration.class))).thenReturn(true);
+        doThrow(new RedisConnectionFailureException("connection reset")).doNothing()
+                .when(valueOperations).set(eq("idempotency:orders:1:key-9"), anyString(), eq(Duration.ofHours(24)));
+
+        try {
+            OrderResponse result = shortTtl.execute(1L, "key-9", cardOrder, OrderResponse.class, () -> response(13));
+
+            assertThat(result.getId()).isEqualTo(13);
+            // A duplicate on another node keeps seeing the marker instead of claiming the key again
+            verify(redisTemplate).execute(eq(IdempotencyService.EXTEND_MARKER), eq(List.of("idempotency:orders:1:key-9")),
+                    eq(marker.getValue()), eq(Long.toString(Duration.ofHours(24).toMillis())));
+            verify(valueOperations, timeout(2_000).times(2))
+                    .set(eq("idempotency:orders:1:key-9"), anyString(), eq(Duration.ofHours(24)));
+        } finally {
+            shortTtl.stop();
+        }
+    }
+
+    private String fingerprint(Object request) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(OrderResponse.class.getName().getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -7,23 +7,31 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
 import com.intelligent.ecommerce.entity.Order;
 import com.intelligent.ecommerce.entity.Product;
+import com.intelligent.ecommerce.entity.ProductInventory;
 import com.intelligent.ecommerce.entity.User;
+import com.intelligent.ecommerce.enums.InventoryStrategy;
 import com.intelligent.ecommerce.enums.OrderStatus;
 import com.intelligent.ecommerce.enums.PaymentMethod;
 import com.intelligent.ecommerce.event.OrderCreatedEvent;
 import com.intelligent.ecommerce.exception.InsufficientStockException;
 import com.intelligent.ecommerce.repository.OrderRepository;
 import com.intelligent.ecommerce.repository.PaymentRepository;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
 import com.intelligent.ecommerce.repository.ProductRepository;
 import com.intelligent.ecommerce.repository.UserRepository;
 
@@ -31,10 +39,14 @@ import com.intelligent.ecommerce.repository.UserRepository;
 class OrderServiceTest {
 
     @Mock private ProductRepository productRepository;
+    @Mock private ProductInventoryRepository productInventoryRepository;
     @Mock private OrderRepository orderRepository;
     @Mock private PaymentRepository paymentRepository;
     @Mock private UserRepository userRepository;
     @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private StockReservationLedger stockReservationLedger;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private ProductCacheInvalidator productCacheInvalidator;
 
     @InjectMocks private OrderService orderService;
 
@@ -51,6 +63,9 @@ class OrderServiceTest {
         Product product = Product.builder()
             .id(101L)
             .price(java.math.BigDecimal.valueOf(50.0))
+            .build();
+        ProductInventory inventory = ProductInventory.builder()
+            .productId(101L)
             .stockQuantity(10)
             .build();
 
@@ -60,7 +75,9 @@ class OrderServiceTest {
             .username("testuser")
             .build();
 
-        when(productRepository.findAllForUpdateByIdIn(List.of(101L)))
+        when(productInventoryRepository.findAllForUpdateByProductIdIn(List.of(101L)))
+            .thenReturn(List.of(inventory));
+        when(productRepository.findAllById(List.of(101L)))
             .thenReturn(List.of(product));
 
         when(userRepository.getReferenceById(customerId))
@@ -81,8 +98,10 @@ class OrderServiceTest {
         assertThat(result.getTotalAmount()).isEqualTo(java.math.BigDecimal.valueOf(100.0));
         assertThat(result.getItems()).hasSize(1);
         assertThat(result.getStatus()).isEqualTo(OrderStatus.CREATED);
+        assertThat(inventory.getStockQuantity()).isEqualTo(8);
 
-        verify(productRepository).findAllForUpdateByIdIn(List.of(101L));
+        verify(productInventoryRepository).findAllForUpdateByProductIdIn(List.of(101L));
+        verify(productRepository, never()).save(any(Product.class));
         verify(userRepository).getReferenceById(customerId);
         verify(orderRepository).save(any(Order.class));
         verify(eventPublisher).publishEvent(any(OrderCreatedEvent.class));
@@ -92,7 +111,7 @@ class OrderServiceTest {
     void createOrder_shouldThrowIfProductNotFound() {
         // Arrange
         List<CreateOrderItemRequest> items = List.of(createItemRequest(999L, 1));
-        when(productRepository.findAllForUpdateByIdIn(List.of(999L)))
+        when(productInventoryRepository.findAllForUpdateByProductIdIn(List.of(999L)))
             .thenReturn(List.of());
 
         // Act & Assert
@@ -109,10 +128,15 @@ class OrderServiceTest {
         Product product = Product.builder()
             .id(101L)
             .price(java.math.BigDecimal.valueOf(20.0))
+            .build();
+        ProductInventory inventory = ProductInventory.builder()
+            .productId(101L)
             .stockQuantity(3)
             .build();
 
-        when(productRepository.findAllForUpdateByIdIn(List.of(101L)))
+        when(productInventoryRepository.findAllForUpdateByProductIdIn(List.of(101L)))
+            .thenReturn(List.of(inventory));
+        when(productRepository.findAllById(List.of(101L)))
             .thenReturn(List.of(product));
 
         assertThatThrownBy(() ->
@@ -120,4 +144,21 @@ class OrderServiceTest {
         ).isInstanceOf(InsufficientStockException.class)
          .hasMessageContaining("Insufficient stock");
     }
+
+    @Test
+    void createOrder_withConditionalUpdate_shouldThrowIfUpdateMatchesNoRow() {
+        ReflectionTestUtils.setField(orderService, "inventoryStrategy", InventoryStrategy.CONDITIONAL_UPDATE);
+        List<CreateOrderItemRequest> items = List.of(createItemRequest(101L, 5));
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{0});
+        when(productInventoryRepository.existsById(101L)).thenReturn(true);
+
+        assertThatThrownBy(() ->
+            orderService.createOrder(1L, items, PaymentMethod.CASH)
+        ).isInstanceOf(InsufficientStockException.class)
+         .hasMessageContaining("Insufficient stock");
+
+        verify(productInventoryRepository, never()).findAllForUpdateByProductIdIn(any());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
 }
@@ -0,0 +1,172 @@
+package com.intelligent.ecommerce.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.intelligent.ecommerce.cache.RedisCircuitBreaker;
+import com.intelligent.ecommerce.cache.TieredCache;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheInvalidatorTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private ProductCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        invalidator = new ProductCacheInvalidator(cacheManager, redisTemplate, breaker(3), 60_000, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        invalidator.stop();
+    }
+
+    @Test
+    void evictAfterCommit_shouldDropOnlyTheGivenProducts() throws InterruptedException {
+        Cache products = cacheManager.getCache("products");
+        products.put(1L, "laptop");
+        products.put(2L, "mouse");
+
+        // No transaction is active, so the eviction is queued straight away
+        invalidator.evictAfterCommit(List.of(1L));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (products.get(1L) != null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(products.get(1L)).isNull();
+        assertThat(products.get(2L)).isNotNull();
+    }
+
+    @Test
+    void evictAfterCommit_shouldEvictEveryIdQueuedInAWindowInOneBatch() {
+        CacheManager tieredManager = mock(CacheManager.class);
+        TieredCache products = mock(TieredCache.class);
+        when(tieredManager.getCache("products")).thenReturn(products);
+        invalidator.stop();
+        invalidator = new ProductCacheInvalidator(tieredManager, redisTemplate, breaker(3), 60_000, 60_000);
+
+        invalidator.evictAfterCommit(List.of(1L, 2L));
+        invalidator.evictAfterCommit(List.of(2L, 3L));
+        invalidator.flushEvictions();
+
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.captor();
+        verify(products, times(1)).evictAll(ids.capture());
+        assertThat(ids.getValue()).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void catalogGeneration_shouldAdvanceAfterBump() {
+        when(valueOperations.get(ProductCacheInvalidator.GENERATION_KEY)).thenReturn("7");
+        when(valueOperations.increment(ProductCacheInvalidator.GENERATION_KEY)).thenReturn(8L);
+
+        assertThat(invalidator.catalogGeneration()).isEqualTo(7);
+        invalidator.bumpCatalogGenerationAfterCommit();
+
+        // Seen locally without waiting for the next refresh
+        assertThat(invalidator.catalogGeneration()).isEqualTo(8);
+    }
+
+    @Test
+    void bumpCatalogGeneration_shouldStillAdvanceLocallyWhenRedisIsDown() {
+        when(valueOperations.get(ProductCacheInvalidator.GENERATION_KEY))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(valueOperations.increment(ProductCacheInvalidator.GENERATION_KEY))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        long before = invalidator.catalogGeneration();
+        invalidator.bumpCatalogGenerationAfterCommit();
+
+        assertThat(invalidator.catalogGeneration()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void catalogGeneration_shouldLetOneCallerRefreshAtATime() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(valueOperations.get(ProductCacheInvalidator.GENERATION_KEY)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "7";
+        });
+
+        for (int i = 0; i < 8; i++) {
+            callers.submit(invalidator::catalogGeneration);
+        }
+        Thread.sleep(100);
+        release.countDown();
+        callers.shutdown();
+        assertThat(callers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        verify(valueOperations, times(1)).get(ProductCacheInvalidator.GENERATION_KEY);
+        assertThat(invalidator.catalogGeneration()).isEqualTo(7);
+    }
+
+    @Test
+    void catalogGeneration_shouldNotCallRedisWhileTheBreakerIsOpen() {
+        RedisCircuitBreaker breaker = breaker(1);
+        invalidator = new ProductCacheInvalidator(cacheManager, redisTemplate, breaker, 0, 0);
+        when(valueOperations.increment(ProductCacheInvalidator.GENERATION_KEY))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        invalidator.bumpCatalogGeneration();
+
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(invalidator.catalogGeneration()).isEqualTo(1);
+        verify(valueOperations, never()).get(ProductCacheInvalidator.GENERATION_KEY);
+    }
+
+    @Test
+    void bumpCatalogGeneration_shouldReplayAMissedBumpOnceRedisIsBack() throws InterruptedException {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(1, Duration.ofMillis(10), () -> { });
+        invalidator = new ProductCacheInvalidator(cacheManager, redisTemplate, breaker, 60_000, 0);
+        when(valueOperations.increment(ProductCacheInvalidator.GENERATION_KEY))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(9L);
+
+        invalidator.bumpCatalogGeneration();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (breaker.isOpen() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(breaker.isOpen()).isFalse();
+        verify(valueOperations, times(2)).increment(ProductCacheInvalidator.GENERATION_KEY);
+        assertThat(invalidator.catalogGeneration()).isEqualTo(9);
+    }
+
+    private static RedisCircuitBreaker breaker(int failureThreshold) {
+        return new RedisCircuitBreaker(failureThreshold, Duration.ofMinutes(1), () -> { });
+    }
+}
@@ -0,0 +1,156 @@
+package com.intelligent.ecommerce.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelligent.ecommerce.dto.product.ProductImportSummary;
+import com.intelligent.ecommerce.enums.ProductImportFormat;
+
+import jakarta.validation.Validation;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private VectorService vectorService;
+    @Mock private ProductCacheInvalidator productCacheInvalidator;
+    @Captor private ArgumentCaptor<List<String>> names;
+    @Captor private ArgumentCaptor<List<Object[]>> rows;
+
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        AtomicLong ids = new AtomicLong();
+        importService = new ProductImportService(jdbcTemplate, transactionManager, vectorService, ids::incrementAndGet,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), productCacheInvalidator,
+                100, 64, 10_000);
+    }
+
+    @Test
+    void importProducts_shouldInsertInBatchesAndEmbedManyNamesPerCall() throws Exception {
+        when(vectorService.embedAll(anyList())).thenAnswer(invocation ->
+                Collections.nCopies(invocation.<List<String>>getArgument(0).size(), new float[]{0.1f, 0.2f}));
+
+        ProductImportSummary summary = importService.importProducts(ndjson(150), ProductImportFormat.NDJSON, true);
+
+        assertThat(summary.imported()).isEqualTo(150);
+        assertThat(summary.embedded()).isEqualTo(150);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ProductImportService.INSERT_PRODUCT), rows.capture());
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ProductImportService.INSERT_INVENTORY), anyList());
+        // Inserted under a lease, so the backfill leaves them alone
+        rows.getAllValues().forEach(batch -> assertThat(batch).allSatisfy(row -> assertThat(row[3]).isNotNull()));
+        // 100 rows split 64 + 36, then the last 50 rows in one call
+        verify(vectorService, times(3)).embedAll(names.capture());
+        assertThat(names.getAllValues()).extracting(List::size).containsExactly(64, 36, 50);
+        verify(jdbcTemplate, times(3)).batchUpdate(eq(EmbeddingBackfill.UPDATE_EMBEDDING), anyList());
+        verify(productCacheInvalidator).bumpCatalogGenerationAfterCommit();
+    }
+
+    @Test
+    void importProducts_shouldKeepRowsWhenEmbeddingFails() throws Exception {
+        when(vectorService.embedAll(anyList())).thenThrow(new ResourceAccessException("Ollama is down"));
+
+        ProductImportSummary summary = importService.importProducts(ndjson(10), ProductImportFormat.NDJSON, true);
+
+        assertThat(summary.imported()).isEqualTo(10);
+        assertThat(summary.embedded()).isZero();
+        assertThat(summary.embeddingFailures()).isEqualTo(10);
+        // Handed over to the backfill
+        verify(jdbcTemplate).batchUpdate(eq(EmbeddingBackfill.RELEASE), rows.capture());
+        assertThat(rows.getValue()).hasSize(10);
+    }
+
+    @Test
+    void importProducts_shouldReportAFailedBatchAndKeepImporting() throws Exception {
+        when(jdbcTemplate.batchUpdate(eq(ProductImportService.INSERT_PRODUCT), anyList()))
+                .thenReturn(new int[0])
+                .thenThrow(new DuplicateKeyException("duplicate key value violates unique constraint"))
+                .thenReturn(new int[0]);
+
+        ProductImportSummary summary = importService.importProducts(ndjson(300), ProductImportFormat.NDJSON, false);
+
+        assertThat(summary.imported()).isEqualTo(200);
+        assertThat(summary.failed()).isEqualTo(100);
+        assertThat(summary.errors()).containsExactly(
+                "lines 101-200: batch not imported: duplicate key value violates unique constraint");
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ProductImportService.INSERT_INVENTORY), anyList());
+        // The committed batches still reach cached searches
+        verify(productCacheInvalidator).bumpCatalogGenerationAfterCommit();
+    }
+
+    @Test
+    void importProducts_shouldBumpTheGenerationWhenTheStreamBreaksOff() {
+        InputStream broken = new SequenceInputStream(ndjson(101), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+
+        assertThatThrownBy(() -> importService.importProducts(broken, ProductImportFormat.NDJSON, false))
+                .isInstanceOf(IOException.class);
+
+        verify(jdbcTemplate).batchUpdate(eq(ProductImportService.INSERT_PRODUCT), anyList());
+        verify(productCacheInvalidator).bumpCatalogGenerationAfterCommit();
+    }
+
+    @Test
+    void importProducts_shouldReportInvalidCsvRowsByLine() throws Exception {
+        String csv = """
+                name,price,stock_quantity
+                "Desk, oak",120.50,3
+                Chair,-1,4
+                Lamp,abc,1
+                "Shelf ""XL""\",80,0
+                """;
+
+        ProductImportSummary summary = importService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportFormat.CSV, false);
+
+        assertThat(summary.imported()).isEqualTo(2);
+        assertThat(summary.rejected()).isEqualTo(2);
+        assertThat(summary.errors()).hasSize(2);
+        assertThat(summary.errors().get(0)).startsWith("line 3: price");
+        assertThat(summary.errors().get(1)).isEqualTo("line 4: stock_quantity and price must be numbers");
+        verify(jdbcTemplate).batchUpdate(eq(ProductImportService.INSERT_PRODUCT), rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[1]).containsExactly("Desk, oak", "Shelf \"XL\"");
+        assertThat(rows.getValue()).extracting(row -> row[3]).containsOnlyNulls();
+    }
+
+    private static ByteArrayInputStream ndjson(int rows) {
+        String body = IntStream.range(0, rows)
+                .mapToObj(i -> "{\"name\":\"Product " + i + "\",\"stockQuantity\":" + i + ",\"price\":" + (i + 1) + "}")
+                .collect(Collectors.joining("\n"));
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,72 @@
+package com.intelligent.ecommerce.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.intelligent.ecommerce.dto.product.ProductView;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
+import com.intelligent.ecommerce.repository.ProductRepository;
+import com.intelligent.ecommerce.vector.ProductVectorIndex;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceTest {
+
+    private static final float[] QUERY = {0.1f, 0.2f};
+
+    @Mock private ProductRepository productRepository;
+    @Mock private ProductInventoryRepository productInventoryRepository;
+    @Mock private VectorService vectorService;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private ProductCacheInvalidator productCacheInvalidator;
+    @Mock private ProductVectorIndex productVectorIndex;
+    @Mock private EmbeddingBackfill embeddingBackfill;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productService = new ProductService(productRepository, productInventoryRepository, vectorService, jdbcTemplate,
+                productCacheInvalidator, cacheManager, productVectorIndex, embeddingBackfill);
+    }
+
+    @Test
+    void searchByNameVector_shouldCacheTheRankingButNotTheStock() {
+        when(vectorService.embedQuery("laptop")).thenReturn(QUERY);
+        when(productRepository.searchIdsByNameVector(anyString(), eq(2)))
+                .thenReturn(List.of(2L, 1L));
+        when(productRepository.findViewsByIdIn(Set.of(1L, 2L)))
+                .thenReturn(List.of(view(1L, 5), view(2L, 3)))
+                .thenReturn(List.of(view(1L, 5), view(2L, 0)));
+
+        assertThat(productService.searchByNameVector("laptop", 2))
+                .extracting(ProductView::getId, ProductView::getStockQuantity)
+                .containsExactly(tuple(2L, 3), tuple(1L, 5));
+
+        // An order sold out product 2: the cached ranking is reused with the current stock
+        assertThat(productService.searchByNameVector("laptop", 2))
+                .extracting(ProductView::getId, ProductView::getStockQuantity)
+                .containsExactly(tuple(2L, 0), tuple(1L, 5));
+        verify(vectorService, times(1)).embedQuery("laptop");
+    }
+
+    private static ProductView view(Long id, int stock) {
+        return new ProductView(id, "Product " + id, stock, new BigDecimal("9.99"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.intelligent.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class QueryEmbeddingCacheTest {
+
+    private static final int DIMENSIONS = 768;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<String> embedded = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void get_shouldEmbedEquivalentQueriesOnce() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(1 << 20, registry);
+
+        float[] first = cache.get("model", "  iPhone   15 ", this::embed);
+        float[] second = cache.get("model", "iphone 15", this::embed);
+        float[] third = cache.get("model", "IPHONE\t15", this::embed);
+
+        assertThat(embedded).containsExactly("iphone 15");
+        assertThat(second).isSameAs(first);
+        assertThat(third).isSameAs(first);
+        assertThat(cache.hitRatio()).isCloseTo(2.0 / 3, within(1e-9));
+        assertThat(registry.get("cache.gets").tag("cache", "query-embeddings").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("cache.hit.ratio").tag("cache", "query-embeddings").gauge().value())
+                .isCloseTo(2.0 / 3, within(1e-9));
+    }
+
+    @Test
+    void get_shouldKeepModelsApart() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(1 << 20, registry);
+
+        cache.get("model-a", "shoes", this::embed);
+        cache.get("model-b", "shoes", this::embed);
+
+        assertThat(embedded).containsExactly("shoes", "shoes");
+    }
+
+    @Test
+    void get_shouldStayWithinByteBudget() {
+        // Room for about ten 768-dimension vectors
+        long maxBytes = 32_000;
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(maxBytes, registry);
+
+        for (int i = 0; i < 50; i++) {
+            cache.get("model", "query " + i, this::embed);
+        }
+
+        assertThat(cache.size()).isBetween(1L, 10L);
+        assertThat(cache.weightedBytes()).isPositive().isLessThanOrEqualTo(maxBytes);
+        assertThat(registry.get("cache.weight").tag("cache", "query-embeddings").gauge().value())
+                .isEqualTo((double) cache.weightedBytes());
+    }
+
+    @Test
+    void get_shouldNotCacheFailedEmbeddings() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(1 << 20, registry);
+
+        assertThatThrownBy(() -> cache.get("model", "shoes", text -> {
+            throw new IllegalStateException("Empty embedding response from Ollama");
+        })).isInstanceOf(IllegalStateException.class);
+        cache.get("model", "shoes", this::embed);
+
+        assertThat(embedded).containsExactly("shoes");
+    }
+
+    @Test
+    void get_shouldShareOneCallAmongConcurrentMissesWithoutBlockingOtherQueries() throws Exception {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(1 << 20, registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, float[]> slow = text -> {
+            started.countDown();
+            await(release);
+            return embed(text);
+        };
+
+        CompletableFuture<float[]> first = CompletableFuture.supplyAsync(() -> cache.get("model", "laptop", slow));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<float[]> second = CompletableFuture.supplyAsync(() -> cache.get("model", "laptop", slow));
+
+        // Answered while the slow call is still running
+        cache.get("model", "mouse", this::embed);
+        release.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        assertThat(embedded).containsExactly("mouse", "laptop");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private float[] embed(String text) {
+        embedded.add(text);
+        return new float[DIMENSIONS];
+    }
+}
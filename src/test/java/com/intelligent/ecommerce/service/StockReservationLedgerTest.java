@@ -0,0 +1,131 @@
+package com.intelligent.ecommerce.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.intelligent.ecommerce.dto.order.request.CreateOrderItemRequest;
+import com.intelligent.ecommerce.exception.InsufficientStockException;
+import com.intelligent.ecommerce.repository.ProductInventoryRepository;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationLedgerTest {
+
+    @Mock private ProductInventoryRepository productInventoryRepository;
+
+    private StockReservationLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new StockReservationLedger(productInventoryRepository, true, 60_000);
+    }
+
+    @Test
+    void reserve_shouldSeedFromTableOnceAndDecrement() {
+        when(productInventoryRepository.findStockQuantityByProductId(1L)).thenReturn(Optional.of(5));
+
+        ledger.reserve(List.of(new CreateOrderItemRequest(1L, 2)));
+        ledger.reserve(List.of(new CreateOrderItemRequest(1L, 3)));
+
+        assertThat(ledger.available(1L)).isZero();
+        verify(productInventoryRepository, times(1)).findStockQuantityByProductId(1L);
+    }
+
+    @Test
+    void reserve_shouldSeedConcurrentlyWithoutLockingTheMapAndKeepOneCounter() throws Exception {
+        // Both seeds must be in flight at once, which a query inside computeIfAbsent would serialize
+        CountDownLatch loading = new CountDownLatch(2);
+        when(productInventoryRepository.findStockQuantityByProductId(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            return Optional.of(5);
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = callers.submit(() -> ledger.reserve(List.of(new CreateOrderItemRequest(1L, 2))));
+            Future<?> second = callers.submit(() -> ledger.reserve(List.of(new CreateOrderItemRequest(1L, 1))));
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(ledger.available(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void reserve_shouldRejectWithoutTouchingOtherLines() {
+        when(productInventoryRepository.findStockQuantityByProductId(1L)).thenReturn(Optional.of(5));
+        when(productInventoryRepository.findStockQuantityByProductId(2L)).thenReturn(Optional.of(1));
+
+        assertThatThrownBy(() -> ledger.reserve(List.of(
+                new CreateOrderItemRequest(1L, 2),
+                new CreateOrderItemRequest(2L, 3)
+        ))).isInstanceOf(InsufficientStockException.class)
+           .hasMessageContaining("Insufficient stock for product 2");
+
+        assertThat(ledger.available(1L)).isEqualTo(5);
+        assertThat(ledger.available(2L)).isEqualTo(1);
+    }
+
+    @Test
+    void reserve_shouldThrowIfProductNotFound() {
+        when(productInventoryRepository.findStockQuantityByProductId(999L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> ledger.reserve(List.of(new CreateOrderItemRequest(999L, 1))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Product not found");
+    }
+
+    @Test
+    void invalidate_shouldReseedOnNextReservation() {
+        when(productInventoryRepository.findStockQuantityByProductId(1L)).thenReturn(Optional.of(5), Optional.of(1));
+
+        ledger.reserve(List.of(new CreateOrderItemRequest(1L, 2)));
+        ledger.invalidate(1L);
+
+        assertThatThrownBy(() -> ledger.reserve(List.of(new CreateOrderItemRequest(1L, 2))))
+                .isInstanceOf(InsufficientStockException.class);
+        assertThat(ledger.available(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void reserve_shouldRejectFromAFreshCounterWithoutReadingTheTable() {
+        when(productInventoryRepository.findStockQuantityByProductId(1L)).thenReturn(Optional.of(2));
+
+        ledger.reserve(List.of(new CreateOrderItemRequest(1L, 2)));
+
+        assertThatThrownBy(() -> ledger.reserve(List.of(new CreateOrderItemRequest(1L, 1))))
+                .isInstanceOf(InsufficientStockException.class);
+        verify(productInventoryRepository, times(1)).findStockQuantityByProductId(1L);
+    }
+
+    @Test
+    void reserve_shouldPickUpARestockOnceTheCounterIsDueForARecheck() {
+        ledger = new StockReservationLedger(productInventoryRepository, true, 0);
+        // Sold out, then restocked behind the ledger's back
+        when(productInventoryRepository.findStockQuantityByProductId(1L)).thenReturn(Optional.of(2), Optional.of(10));
+
+        ledger.reserve(List.of(new CreateOrderItemRequest(1L, 2)));
+        ledger.reserve(List.of(new CreateOrderItemRequest(1L, 3)));
+
+        assertThat(ledger.available(1L)).isEqualTo(7);
+        verify(productInventoryRepository, times(2)).findStockQuantityByProductId(1L);
+    }
+}
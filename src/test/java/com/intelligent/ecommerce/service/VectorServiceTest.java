@@ -0,0 +1,46 @@
+package com.intelligent.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import org.springframework.web.client.RestClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VectorServiceTest {
+
+    private MockRestServiceServer ollama;
+    private VectorService vectorService;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://ollama");
+        ollama = MockRestServiceServer.bindTo(builder).build();
+        vectorService = new VectorService(builder.build(), new QueryEmbeddingCache(1 << 20, new SimpleMeterRegistry()),
+                false, 32, 2, 1000, 10_000);
+    }
+
+    @Test
+    void embedQuery_shouldCallOllamaOnceForRepeatedQueries() {
+        ollama.expect(ExpectedCount.once(), requestTo("http://ollama/api/embed"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.input").value("running shoes"))
+                .andRespond(withSuccess("{\"model\":\"nomic-embed-text\",\"embeddings\":[[0.5,-0.25,1.0]]}",
+                        MediaType.APPLICATION_JSON));
+
+        float[] first = vectorService.embedQuery("Running  Shoes");
+        float[] second = vectorService.embedQuery("running shoes ");
+
+        ollama.verify();
+        assertThat(first).containsExactly(0.5f, -0.25f, 1.0f);
+        assertThat(second).isSameAs(first);
+    }
+}
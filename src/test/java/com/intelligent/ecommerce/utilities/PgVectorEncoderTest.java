@@ -0,0 +1,43 @@
+package com.intelligent.ecommerce.utilities;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+class PgVectorEncoderTest {
+
+    @Test
+    void encode_shouldWritePgvectorLiteral() {
+        assertThat(PgVectorEncoder.encode(new float[]{0.5f, -0.25f, 1.0e-5f, 3f}))
+                .isEqualTo("[0.5,-0.25,1.0E-5,3.0]");
+    }
+
+    @Test
+    void encode_shouldNotLeakEarlierVectorsThroughTheReusedBuffer() {
+        PgVectorEncoder.encode(new float[]{0.123456f, 0.654321f, 0.111111f});
+
+        assertThat(PgVectorEncoder.encode(new float[]{1f})).isEqualTo("[1.0]");
+        assertThat(PgVectorEncoder.encode(new float[0])).isEqualTo("[]");
+    }
+
+    @Test
+    void encode_shouldRoundTripEveryFloatExactly() {
+        float[] vector = {0.1f, -0.033333335f, Float.MIN_NORMAL, 123456.79f};
+
+        String literal = PgVectorEncoder.encode(vector);
+
+        String[] parts = literal.substring(1, literal.length() - 1).split(",");
+        for (int i = 0; i < vector.length; i++) {
+            assertThat(Float.parseFloat(parts[i])).isEqualTo(vector[i]);
+        }
+    }
+
+    @Test
+    void decode_shouldReadPgvectorTextOutput() {
+        assertThat(PgVectorEncoder.decode("[0.5,-0.25,1e-05,3]")).containsExactly(0.5f, -0.25f, 1.0e-5f, 3f);
+        assertThat(PgVectorEncoder.decode(PgVectorEncoder.encode(new float[]{0.1f, -0.033333335f})))
+                .containsExactly(0.1f, -0.033333335f);
+        assertThat(PgVectorEncoder.decode("[]")).isEmpty();
+        assertThatThrownBy(() -> PgVectorEncoder.decode("0.5,1")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,85 @@
+package com.intelligent.ecommerce.vector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+class HnswIndexTest {
+
+    @Test
+    void search_shouldRankByCosineSimilarity() {
+        HnswIndex index = new HnswIndex(4, 16, 16);
+        index.add(1L, new float[]{1f, 0f});
+        index.add(2L, new float[]{0f, 1f});
+        index.add(3L, new float[]{10f, 1f});
+        index.add(4L, new float[]{-1f, 0f});
+
+        // Direction matters, not length
+        assertThat(index.search(new float[]{0.1f, 0f}, 3)).containsExactly(1L, 3L, 2L);
+        assertThat(index.search(new float[]{0f, 5f}, 1)).containsExactly(2L);
+    }
+
+    @Test
+    void search_shouldFindTrueNeighboursOnARandomCatalog() {
+        Random random = new Random(7);
+        List<float[]> vectors = new ArrayList<>();
+        HnswIndex index = new HnswIndex(8, 64, 64);
+        for (int i = 0; i < 2_000; i++) {
+            float[] vector = randomVector(random, 16);
+            vectors.add(vector);
+            index.add(i, vector);
+        }
+
+        int found = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomVector(random, 16);
+            float[] unit = HnswIndex.normalize(query);
+            List<Long> exact = IntStream.range(0, vectors.size()).boxed()
+                    .sorted(Comparator.comparingDouble(i -> HnswIndex.distance(unit, HnswIndex.normalize(vectors.get(i)))))
+                    .limit(10)
+                    .map(Integer::longValue)
+                    .toList();
+            found += (int) index.search(query, 10).stream().filter(exact::contains).count();
+        }
+
+        assertThat(found / 500.0).isGreaterThan(0.9);
+    }
+
+    @Test
+    void add_shouldIgnoreKnownIdsAndRejectOtherDimensions() {
+        HnswIndex index = new HnswIndex(4, 16, 16);
+        index.add(1L, new float[]{1f, 0f});
+
+        assertThat(index.add(1L, new float[]{0f, 1f})).isFalse();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.contains(1L)).isTrue();
+        assertThatThrownBy(() -> index.add(2L, new float[]{1f, 0f, 0f}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void search_shouldNotModifyTheQuery() {
+        HnswIndex index = new HnswIndex(4, 16, 16);
+        index.add(1L, new float[]{3f, 4f});
+        float[] query = {3f, 4f};
+
+        index.search(query, 1);
+
+        assertThat(query).containsExactly(3f, 4f);
+        assertThat(new HnswIndex(4, 16, 16).search(query, 5)).isEmpty();
+    }
+
+    private static float[] randomVector(Random random, int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}